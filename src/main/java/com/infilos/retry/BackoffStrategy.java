@@ -7,6 +7,13 @@ public interface BackoffStrategy {
     default void checkConfig(RetryConfig<?> config) {
     }
 
+    /**
+     * Strategy used for the attempts of a single execution, a new instance if the delays depend on previous ones.
+     */
+    default BackoffStrategy forExecution() {
+        return this;
+    }
+
     Duration nextDelayToWait(int failedAttempts, Duration delayDuration);
     
     /**
@@ -0,0 +1,20 @@
+package com.infilos.retry;
+
+import com.infilos.api.Result;
+
+import java.util.List;
+
+/**
+ * Bulk call which reports success or failure of each item.
+ *
+ * @param <I> is the item type.
+ * @param <O> is the per-item return value type.
+ */
+@FunctionalInterface
+public interface BatchCallable<I, O> {
+
+    /**
+     * @return results of each item, in the same order and of the same size as {@code items}
+     */
+    List<Result<O>> call(List<I> items) throws Exception;
+}
@@ -1,8 +1,10 @@
 package com.infilos.retry;
 
 import com.infilos.retry.execute.RetryAsyncExecutor;
+import com.infilos.retry.execute.RetryBatchExecutor;
 import com.infilos.retry.execute.RetrySyncExecutor;
 
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 
@@ -41,4 +43,15 @@ public class Retry {
     public static <T> CompletableFuture<RetryStatus<T>> runAsync(RetryConfig<T> config, String operation, Callable<T> callable) {
         return new RetryAsyncExecutor<>(config).execute(callable, operation);
     }
+
+    /**
+     * Retry only the failed items of each attempt, see {@link RetryBatchExecutor}.
+     */
+    public static <I, O> RetryBatchStatus<I, O> runBatch(RetryConfig<O> config, List<I> items, BatchCallable<I, O> callable) {
+        return new RetryBatchExecutor<I, O>(config).execute(items, callable, null);
+    }
+
+    public static <I, O> RetryBatchStatus<I, O> runBatch(RetryConfig<O> config, String operation, List<I> items, BatchCallable<I, O> callable) {
+        return new RetryBatchExecutor<I, O>(config).execute(items, callable, operation);
+    }
 }
@@ -0,0 +1,50 @@
+package com.infilos.retry;
+
+import com.infilos.api.Result;
+
+import java.util.List;
+
+/**
+ * Final result of batch after all attempts, results are merged in the original order of items.
+ */
+public class RetryBatchStatus<I, O> extends RetryStatus<List<Result<O>>> {
+    private List<I> failedItems;
+    private int totalSubmitted;
+
+    /**
+     * Items still failed after all attempts, in the original order.
+     */
+    public List<I> getFailedItems() {
+        return failedItems;
+    }
+
+    public void setFailedItems(List<I> failedItems) {
+        this.failedItems = failedItems;
+    }
+
+    /**
+     * Total number of items submitted in all attempts.
+     */
+    public int getTotalSubmitted() {
+        return totalSubmitted;
+    }
+
+    public void setTotalSubmitted(int totalSubmitted) {
+        this.totalSubmitted = totalSubmitted;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryBatchStatus{" +
+            "id='" + getId() + '\'' +
+            ", startTime=" + getStartTime() +
+            ", finishTime=" + getFinishTime() +
+            ", operation='" + getOperation() + '\'' +
+            ", totalTries=" + getTotalTries() +
+            ", totalSubmitted=" + totalSubmitted +
+            ", failedItems=" + failedItems +
+            ", totalDuration=" + getTotalDuration() +
+            ", lastException=" + getLastException() +
+            '}';
+    }
+}
@@ -24,6 +24,7 @@ public class RetryConfig<T> {
 
     // attempt/delay/backoff
     private final Integer maxAttempts;
+    private final Duration maxDuration;
     private final Duration delayDuration;
     private final BackoffStrategy backoffStrategy;
 
@@ -37,6 +38,9 @@ public class RetryConfig<T> {
     // async thread pool
     private final ExecutorService executorService;
 
+    // metrics recorder
+    private final RetryMetrics metrics;
+
     RetryConfig(boolean retryOnAnyError,
                 Set<Class<? extends Exception>> retryOnErrorIncluding,
                 Set<Class<? extends Exception>> retryOnErrorExcluding,
@@ -47,6 +51,7 @@ public class RetryConfig<T> {
                 Collection<T> retryOnValueExcluding,
                 Function<T, Boolean> retryOnValueMatcher,
                 Integer maxAttempts,
+                Duration maxDuration,
                 Duration delayDuration,
                 BackoffStrategy backoffStrategy,
                 RetryListener<T> afterFailTryListener,
@@ -54,7 +59,8 @@ public class RetryConfig<T> {
                 RetryListener<T> onSuccessListener,
                 RetryListener<T> onFailureListener,
                 RetryListener<T> onCompletionListener,
-                ExecutorService executorService) {
+                ExecutorService executorService,
+                RetryMetrics metrics) {
         this.retryOnAnyError = retryOnAnyError;
         this.retryOnErrorIncluding = retryOnErrorIncluding;
         this.retryOnErrorExcluding = retryOnErrorExcluding;
@@ -67,6 +73,7 @@ public class RetryConfig<T> {
         this.retryOnValueMatcher = retryOnValueMatcher;
 
         this.maxAttempts = maxAttempts;
+        this.maxDuration = maxDuration;
         this.delayDuration = delayDuration;
         this.backoffStrategy = backoffStrategy;
 
@@ -77,6 +84,8 @@ public class RetryConfig<T> {
         this.onCompletionListener = onCompletionListener;
         
         this.executorService = executorService;
+        
+        this.metrics = metrics;
     }
 
     public boolean shouldRetryOnAnyError() {
@@ -119,6 +128,13 @@ public class RetryConfig<T> {
         return maxAttempts;
     }
 
+    /**
+     * Total time budget of all attempts and delays, null means no limit.
+     */
+    public Duration getMaxDuration() {
+        return maxDuration;
+    }
+
     public Duration getDelayDuration() {
         return delayDuration;
     }
@@ -151,6 +167,10 @@ public class RetryConfig<T> {
         return executorService;
     }
 
+    public RetryMetrics getMetrics() {
+        return metrics;
+    }
+
     @Override
     public String toString() {
         return "RetryConfig{" +
@@ -164,6 +184,7 @@ public class RetryConfig<T> {
             ", retryOnValueExcluding=" + retryOnValueExcluding +
             ", retryOnValueMatcher=" + retryOnValueMatcher +
             ", maxAttempts=" + maxAttempts +
+            ", maxDuration=" + maxDuration +
             ", delayDuration=" + delayDuration +
             ", backoffStrategy=" + backoffStrategy +
             ", afterFailTryListener=" + afterFailTryListener +
@@ -171,6 +192,7 @@ public class RetryConfig<T> {
             ", onSuccessListener=" + onSuccessListener +
             ", onFailureListener=" + onFailureListener +
             ", onCompletionListener=" + onCompletionListener +
+            ", metrics=" + metrics +
             '}';
     }
     
@@ -205,6 +227,9 @@ public class RetryConfig<T> {
             builder.retryOnValueMatch(retryOnValueMatcher);    
         }
         builder.withMaxAttempts(maxAttempts);
+        if(Objects.nonNull(maxDuration)) {
+            builder.withMaxDuration(maxDuration);
+        }
         builder.withDelayDuration(delayDuration);
         builder.withCustomBackoff(backoffStrategy);
         builder.listenAfterFailTry(afterFailTryListener);
@@ -213,6 +238,7 @@ public class RetryConfig<T> {
         builder.listenFailedTry(onFailureListener);
         builder.listenCompleteTry(onCompletionListener);
         builder.asyncThreadPool(executorService);
+        builder.recordMetrics(metrics);
         
         return builder;
     }
@@ -30,6 +30,8 @@ public class RetryConfigBuilder<T> {
         = "Cannot specify a maximum number of attempt less than 1!";
     static final String SHOULD_SPECIFY_VALID_DELAY_DURATION
         = "Delay between retries must be a non-negative Duration.";
+    static final String SHOULD_SPECIFY_VALID_MAX_DURATION
+        = "Maximum duration of retries must be a positive Duration.";
 
     private boolean enableValidation;
     private boolean builtInExceptionStrategySpecified;
@@ -49,6 +51,7 @@ public class RetryConfigBuilder<T> {
 
     // attempt/delay/backoff
     private Integer maxAttempts;
+    private Duration maxDuration;
     private Duration delayDuration;
     private BackoffStrategy backoffStrategy;
 
@@ -62,6 +65,9 @@ public class RetryConfigBuilder<T> {
     // async thread pool
     private ExecutorService executorService;
 
+    // metrics recorder
+    private RetryMetrics metrics;
+
     public RetryConfigBuilder() {
         this.enableValidation = true;
         this.builtInExceptionStrategySpecified = false;
@@ -175,6 +181,22 @@ public class RetryConfigBuilder<T> {
         return this;
     }
 
+    /**
+     * Limit the total time of all attempts and delays, no further attempt will start if the next delay would pass the deadline.
+     */
+    public RetryConfigBuilder<T> withMaxDuration(Duration maxDuration) {
+        if (maxDuration.isNegative() || maxDuration.isZero()) {
+            throw new RetryInvalidConfigException(SHOULD_SPECIFY_VALID_MAX_DURATION);
+        }
+
+        this.maxDuration = maxDuration;
+        return this;
+    }
+
+    public RetryConfigBuilder<T> withMaxDuration(long amount, ChronoUnit unit) {
+        return withMaxDuration(Duration.of(amount, unit));
+    }
+
     public RetryConfigBuilder<T> withDelayDuration(Duration delayDuration) {
         if (delayDuration.isNegative()) {
             throw new RetryInvalidConfigException(SHOULD_SPECIFY_VALID_DELAY_DURATION);
@@ -225,6 +247,12 @@ public class RetryConfigBuilder<T> {
         return this;
     }
 
+    public RetryConfigBuilder<T> withDecorrelatedJitterBackoff() {
+        validateBackoffStrategyAddition();
+        backoffStrategy = new DecorrelatedJitterBackoffStrategy();
+        return this;
+    }
+
     public RetryConfigBuilder<T> withCustomBackoff(BackoffStrategy backoffStrategy) {
         validateBackoffStrategyAddition();
         this.backoffStrategy = backoffStrategy;
@@ -261,6 +289,14 @@ public class RetryConfigBuilder<T> {
         return this;
     }
 
+    /**
+     * Record attempts, backoff time, exhausted and escaped calls into metrics, by the operation name of each execution.
+     */
+    public RetryConfigBuilder<T> recordMetrics(RetryMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
     public RetryConfig<T> build() {
         RetryConfig<T> config = new RetryConfig<>(
             retryOnAnyError,
@@ -273,6 +309,7 @@ public class RetryConfigBuilder<T> {
             retryOnValueExcluding,
             retryOnValueMatcher,
             maxAttempts,
+            maxDuration,
             delayDuration,
             backoffStrategy,
             afterFailTryListener,
@@ -280,7 +317,8 @@ public class RetryConfigBuilder<T> {
             onSuccessListener,
             onFailureListener,
             onCompletionListener,
-            executorService
+            executorService,
+            metrics
         );
 
         validateConfig(config);
@@ -357,4 +395,13 @@ public class RetryConfigBuilder<T> {
             .withDelayDuration(60, SECONDS)
             .withRandomExponentialBackoff();
     }
+
+    public RetryConfigBuilder<T> jitterBackoff10Tries1SecIn60Sec() {
+        return this
+            .retryOnAnyError()
+            .withMaxAttempts(10)
+            .withMaxDuration(60, SECONDS)
+            .withDelayDuration(1, SECONDS)
+            .withDecorrelatedJitterBackoff();
+    }
 }
@@ -0,0 +1,180 @@
+package com.infilos.retry;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregate retry figures per operation name, with lock-free striped counters, safe to share by concurrent executions.
+ * <p>
+ * Plug into {@link RetryConfigBuilder#recordMetrics(RetryMetrics)} or {@code RetryRunner.recordMetrics(RetryMetrics, String)}.
+ */
+public class RetryMetrics {
+
+    /**
+     * Operation name used when the execution doesn't specify one.
+     */
+    public static final String DEFAULT_OPERATION = "default";
+
+    /**
+     * Calls take at least this number of attempts are counted in the last bucket of histogram.
+     */
+    public static final int MAX_TRACKED_ATTEMPTS = 16;
+
+    private final ConcurrentMap<String, Recorder> recorders = new ConcurrentHashMap<>();
+
+    /**
+     * Record a finished call.
+     *
+     * @param operation    the operation name, null means {@link #DEFAULT_OPERATION}
+     * @param attempts     the number of attempts made
+     * @param backoffNanos the total time waited between attempts
+     * @param exhausted    call failed after running out of retries
+     * @param escaped      call failed by an error or value not configured to retry
+     */
+    public void record(String operation, int attempts, long backoffNanos, boolean exhausted, boolean escaped) {
+        recorder(operation).record(attempts, backoffNanos, exhausted, escaped);
+    }
+
+    public Snapshot snapshot(String operation) {
+        Recorder recorder = recorders.get(Objects.isNull(operation) ? DEFAULT_OPERATION : operation);
+        return Objects.isNull(recorder) ? Snapshot.EMPTY : recorder.snapshot();
+    }
+
+    /**
+     * Snapshots of all the recorded operations, sorted by operation name.
+     */
+    public Map<String, Snapshot> snapshots() {
+        Map<String, Snapshot> snapshots = new TreeMap<>();
+        recorders.forEach((operation, recorder) -> snapshots.put(operation, recorder.snapshot()));
+
+        return snapshots;
+    }
+
+    public void reset() {
+        recorders.clear();
+    }
+
+    private Recorder recorder(String operation) {
+        String name = Objects.isNull(operation) ? DEFAULT_OPERATION : operation;
+        Recorder recorder = recorders.get(name);
+        if (Objects.nonNull(recorder)) {
+            return recorder;
+        }
+
+        return recorders.computeIfAbsent(name, ignored -> new Recorder());
+    }
+
+    @Override
+    public String toString() {
+        return "RetryMetrics" + snapshots();
+    }
+
+    private static final class Recorder {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+        private final LongAdder escaped = new LongAdder();
+        private final LongAdder backoffNanos = new LongAdder();
+        private final LongAdder[] attempts = new LongAdder[MAX_TRACKED_ATTEMPTS];
+
+        private Recorder() {
+            for (int index = 0; index < attempts.length; index++) {
+                attempts[index] = new LongAdder();
+            }
+        }
+
+        private void record(int tries, long waitedNanos, boolean isExhausted, boolean isEscaped) {
+            calls.increment();
+            attempts[Math.min(Math.max(tries, 1), MAX_TRACKED_ATTEMPTS) - 1].increment();
+            if (waitedNanos > 0) {
+                backoffNanos.add(waitedNanos);
+            }
+            if (isExhausted) {
+                exhausted.increment();
+            }
+            if (isEscaped) {
+                escaped.increment();
+            }
+        }
+
+        private Snapshot snapshot() {
+            long[] histogram = new long[attempts.length];
+            for (int index = 0; index < attempts.length; index++) {
+                histogram[index] = attempts[index].sum();
+            }
+
+            return new Snapshot(calls.sum(), histogram, backoffNanos.sum(), exhausted.sum(), escaped.sum());
+        }
+    }
+
+    /**
+     * Figures of an operation at some moment, counters are summed individually so they may be slightly skewed under concurrent recording.
+     */
+    public static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(0, new long[MAX_TRACKED_ATTEMPTS], 0, 0, 0);
+
+        private final long calls;
+        private final long[] attemptsHistogram;
+        private final long backoffNanos;
+        private final long exhausted;
+        private final long escaped;
+
+        private Snapshot(long calls, long[] attemptsHistogram, long backoffNanos, long exhausted, long escaped) {
+            this.calls = calls;
+            this.attemptsHistogram = attemptsHistogram;
+            this.backoffNanos = backoffNanos;
+            this.exhausted = exhausted;
+            this.escaped = escaped;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        /**
+         * Number of calls which took exactly {@code attempts} attempts, or at least {@link #MAX_TRACKED_ATTEMPTS}.
+         */
+        public long getCallsOfAttempts(int attempts) {
+            if (attempts < 1) {
+                return 0;
+            }
+            return attemptsHistogram[Math.min(attempts, MAX_TRACKED_ATTEMPTS) - 1];
+        }
+
+        /**
+         * Index {@code i} holds the number of calls which took {@code i + 1} attempts.
+         */
+        public long[] getAttemptsHistogram() {
+            return attemptsHistogram.clone();
+        }
+
+        public Duration getTotalBackoff() {
+            return Duration.ofNanos(backoffNanos);
+        }
+
+        public long getExhausted() {
+            return exhausted;
+        }
+
+        public long getEscaped() {
+            return escaped;
+        }
+
+        public long getSucced() {
+            return calls - exhausted - escaped;
+        }
+
+        @Override
+        public String toString() {
+            return "RetrySnapshot{" +
+                "calls=" + calls +
+                ", attemptsHistogram=" + Arrays.toString(attemptsHistogram) +
+                ", totalBackoff=" + getTotalBackoff() +
+                ", exhausted=" + exhausted +
+                ", escaped=" + escaped +
+                '}';
+        }
+    }
+}
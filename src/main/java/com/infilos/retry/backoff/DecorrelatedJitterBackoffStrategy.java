@@ -0,0 +1,60 @@
+package com.infilos.retry.backoff;
+
+import com.infilos.retry.BackoffStrategy;
+import com.infilos.retry.RetryConfig;
+import com.infilos.retry.exception.RetryInvalidConfigException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * AKA decorrelated jitter, each delay is randomly picked between the base delay and triple of the previous delay, capped by the max delay.
+ * Spreads retries of synchronized clients apart, rather than let them hit the callee at the same moments.
+ * <p>
+ * The previous delay is kept by the instance and reset on the first retry, executors take a new instance for each
+ * execution by {@link #forExecution()}, so attempts of concurrent executions don't interfere.
+ */
+public class DecorrelatedJitterBackoffStrategy implements BackoffStrategy {
+
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(60);
+
+    private final Duration maxDelay;
+    private long previousMillis;
+
+    public DecorrelatedJitterBackoffStrategy() {
+        this.maxDelay = DEFAULT_MAX_DELAY;
+    }
+
+    public DecorrelatedJitterBackoffStrategy(Duration maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    @Override
+    public BackoffStrategy forExecution() {
+        return new DecorrelatedJitterBackoffStrategy(maxDelay);
+    }
+
+    @Override
+    public Duration nextDelayToWait(int failedAttempts, Duration delayDuration) {
+        long baseMillis = delayDuration.toMillis();
+        long capMillis = Math.max(baseMillis, maxDelay.toMillis());
+        long lastMillis = failedAttempts <= 1 ? baseMillis : Math.max(baseMillis, previousMillis);
+        long upperMillis = lastMillis > capMillis / 3 ? capMillis : lastMillis * 3;
+
+        long nextMillis = upperMillis <= baseMillis ? baseMillis : ThreadLocalRandom.current().nextLong(baseMillis, upperMillis + 1);
+        previousMillis = nextMillis;
+
+        return Duration.ofMillis(nextMillis);
+    }
+
+    @Override
+    public void checkConfig(RetryConfig<?> config) {
+        if (null == config.getDelayDuration()) {
+            throw new RetryInvalidConfigException("Retry config must specify the delay between retries!");
+        }
+    }
+
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+}
@@ -1,5 +1,6 @@
 package com.infilos.retry.exception;
 
+import com.infilos.retry.RetryBatchStatus;
 import com.infilos.retry.RetryException;
 import com.infilos.retry.RetryStatus;
 
@@ -18,4 +19,14 @@ public class RetryTiredException extends RetryException {
     public <T> RetryStatus<T> getStatus() {
         return (RetryStatus<T>) status;
     }
+
+    /**
+     * Status of a batch execution, whose items are of type {@code I} and results of type {@code O}.
+     *
+     * @throws ClassCastException if the execution was not a batch
+     */
+    @SuppressWarnings("unchecked")
+    public <I, O> RetryBatchStatus<I, O> getBatchStatus() {
+        return (RetryBatchStatus<I, O>) status;
+    }
 }
@@ -7,6 +7,7 @@ import java.util.concurrent.*;
 
 /**
  * Implementation that kicks off each retry request in its own separate thread that does not block the thread the execution is called from. If you provide an ExecutorService, it will be used when creating threads.
+ * Cancelling the returned future interrupts the retrying thread and stops further attempts.
  *
  * @param <T> The type that is returned by the Callable (eg: Boolean, Void, Object, etc)
  */
@@ -30,9 +31,12 @@ public class RetryAsyncExecutor<T> implements RetryExecutor<T, CompletableFuture
         CompletableFuture<RetryStatus<T>> completableFuture = new CompletableFuture<>();
 
         if (config.getExecutorService() != null) {
-            config.getExecutorService().submit(() -> executeFuture(callable, operation, synchronousExecutor, completableFuture));
+            Future<?> submitted = config.getExecutorService().submit(() -> executeFuture(callable, operation, synchronousExecutor, completableFuture));
+            cancelOnCancelled(completableFuture, () -> submitted.cancel(true));
         } else {
-            (new Thread(() -> executeFuture(callable, operation, synchronousExecutor, completableFuture))).start();
+            Thread thread = new Thread(() -> executeFuture(callable, operation, synchronousExecutor, completableFuture));
+            thread.start();
+            cancelOnCancelled(completableFuture, thread::interrupt);
         }
 
         return completableFuture;
@@ -47,6 +51,17 @@ public class RetryAsyncExecutor<T> implements RetryExecutor<T, CompletableFuture
         }
     }
 
+    /**
+     * Interrupt the running retries once the future is cancelled, pending wait between attempts will be stopped promptly.
+     */
+    private static void cancelOnCancelled(CompletableFuture<?> completableFuture, Runnable interrupter) {
+        completableFuture.whenComplete((status, error) -> {
+            if (completableFuture.isCancelled()) {
+                interrupter.run();
+            }
+        });
+    }
+
     public RetryConfig<T> getConfig() {
         return config;
     }
@@ -0,0 +1,194 @@
+package com.infilos.retry.execute;
+
+import com.infilos.api.Result;
+import com.infilos.retry.*;
+import com.infilos.retry.exception.RetryEscapedException;
+import com.infilos.retry.exception.RetryTiredException;
+import com.infilos.utils.Loggable;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Synchronous batch retry in the same thread that it is called from, each attempt only resubmits the failed items.
+ * <p>
+ * An item is retried if its result is failed by an error that config retries on, or succeed with a value that config retries on.
+ * If the whole call throws, all the submitted items are treated as failed by that error.
+ * Listeners of the config are typed by per-item value, so they are not applied to batches.
+ *
+ * @param <I> The item type
+ * @param <O> The per-item return value type
+ */
+public class RetryBatchExecutor<I, O> implements Loggable {
+
+    private final RetryConfig<O> config;
+    private final RetryMatcher<O> matcher;
+    private final RetrySleeper<O> sleeper;
+
+    private final RetryBatchStatus<I, O> finalStatus = new RetryBatchStatus<>();
+    private O lastValueCausedRetry = null;
+    private Exception lastErrorCausedRetry = null;
+
+    public RetryBatchExecutor(RetryConfig<O> config) {
+        this.config = config;
+        this.matcher = new RetryMatcher<>(config);
+        this.sleeper = new RetrySleeper<>(config);
+    }
+
+    public RetryBatchStatus<I, O> execute(List<I> items, BatchCallable<I, O> callable) {
+        return execute(items, callable, null);
+    }
+
+    public RetryBatchStatus<I, O> execute(List<I> items, BatchCallable<I, O> callable, String operation) {
+        log().debug("Starting batch retry execution of {} items with executor state {}", items.size(), this);
+
+        finalStatus.setOperation(operation);
+        finalStatus.setStartTime(System.currentTimeMillis());
+        sleeper.start();
+
+        int maxAttempts = config.getMaxAttempts();
+        Duration delay = Objects.nonNull(config.getDelayDuration()) ? config.getDelayDuration() : Duration.ZERO;
+
+        List<Result<O>> results = new ArrayList<>(Collections.nCopies(items.size(), null));
+        int[] pending = new int[items.size()];
+        for (int index = 0; index < pending.length; index++) {
+            pending[index] = index;
+        }
+        int pendingSize = pending.length;
+        int tries = 0;
+        int submitted = 0;
+
+        try {
+            while (pendingSize > 0 && tries < maxAttempts) {
+                if (tries > 0 && !sleeper.sleep(delay, tries, lastValueCausedRetry, lastErrorCausedRetry)) {
+                    log().trace("batch retry stopped before time number {}, {}", tries, sleeper.stoppedReason());
+                    break;
+                }
+
+                List<I> batch = new ArrayList<>(pendingSize);
+                for (int k = 0; k < pendingSize; k++) {
+                    batch.add(items.get(pending[k]));
+                }
+                tries++;
+                submitted += pendingSize;
+
+                log().trace("batch retry submitting {} items for time number {}", pendingSize, tries);
+                pendingSize = tryCall(callable, batch, pending, pendingSize, results);
+            }
+        } catch (RuntimeException e) {
+            if (null != config.getMetrics()) {
+                config.getMetrics().record(operation, tries, sleeper.backoffNanos(), false, true);
+            }
+            throw e;
+        }
+
+        List<I> failedItems = new ArrayList<>();
+        for (int index = 0; index < results.size(); index++) {
+            if (!isFinallySucced(results.get(index))) {
+                failedItems.add(items.get(index));
+            }
+        }
+
+        finalStatus.setResult(results);
+        finalStatus.setFailedItems(failedItems);
+        finalStatus.setTotalSubmitted(submitted);
+        finalStatus.setTotalTries(tries);
+        finalStatus.setSucced(failedItems.isEmpty());
+        finalStatus.setLastException(lastErrorCausedRetry);
+        finalStatus.setFinishTime(System.currentTimeMillis());
+        finalStatus.setTotalDuration(Duration.ofMillis(finalStatus.getFinishTime() - finalStatus.getStartTime()));
+
+        log().debug("Finished batch retry execution in {} ms", finalStatus.getTotalDuration().toMillis());
+
+        if (null != config.getMetrics()) {
+            config.getMetrics().record(operation, tries, sleeper.backoffNanos(), !failedItems.isEmpty(), false);
+        }
+
+        if (!failedItems.isEmpty()) {
+            String stoppedReason = sleeper.stoppedReason();
+            String failure = Objects.isNull(stoppedReason) ?
+                String.format("Execute batch '%s' failed %d items after %d tries!", callable.toString(), failedItems.size(), tries) :
+                String.format("Execute batch '%s' failed %d items after %d tries, %s!", callable.toString(), failedItems.size(), tries, stoppedReason);
+            throw new RetryTiredException(failure, lastErrorCausedRetry, finalStatus);
+        }
+
+        return finalStatus;
+    }
+
+    /**
+     * Call with the pending items, merge results and compact the still pending indexes.
+     *
+     * @return the size of items still pending to retry
+     */
+    private int tryCall(BatchCallable<I, O> callable, List<I> batch, int[] pending, int pendingSize, List<Result<O>> results) {
+        List<Result<O>> attempt;
+        try {
+            attempt = callable.call(batch);
+        } catch (Exception e) {
+            if (matcher.shouldThrowException(e)) {
+                log().trace("Throwing expected exception", e);
+                throw new RetryEscapedException("Unexpected exception thrown during batch retry execution!", e);
+            }
+
+            lastErrorCausedRetry = e;
+            Result<O> failed = Result.failed(e);
+            for (int k = 0; k < pendingSize; k++) {
+                results.set(pending[k], failed);
+            }
+            return pendingSize;
+        }
+
+        if (Objects.isNull(attempt) || attempt.size() != pendingSize) {
+            throw new RetryException(String.format("Batch callable returned %s results for %d items!",
+                Objects.isNull(attempt) ? "null" : String.valueOf(attempt.size()), pendingSize));
+        }
+
+        int remaining = 0;
+        for (int k = 0; k < pendingSize; k++) {
+            Result<O> result = attempt.get(k);
+            results.set(pending[k], result);
+            if (shouldRetry(result)) {
+                pending[remaining++] = pending[k];
+            }
+        }
+
+        return remaining;
+    }
+
+    private boolean shouldRetry(Result<O> result) {
+        if (result.isSucced()) {
+            if (matcher.shouldRetryOnResult(result.get())) {
+                lastValueCausedRetry = result.get();
+                return true;
+            }
+            return false;
+        }
+
+        Throwable failure = result.getFailure();
+        if (failure instanceof Exception && !matcher.shouldThrowException((Exception) failure)) {
+            lastErrorCausedRetry = (Exception) failure;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isFinallySucced(Result<O> result) {
+        return Objects.nonNull(result) && result.isSucced() && !matcher.shouldRetryOnResult(result.get());
+    }
+
+    public RetryConfig<O> getConfig() {
+        return config;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BatchExecutor{");
+        sb.append("config=").append(config);
+        sb.append(", lastKnownExceptionThatCausedRetry=").append(lastErrorCausedRetry);
+        sb.append(", stoppedReason=").append(sleeper.stoppedReason());
+        sb.append(", status=").append(finalStatus);
+        sb.append('}');
+
+        return sb.toString();
+    }
+}
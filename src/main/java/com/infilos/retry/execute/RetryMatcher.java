@@ -0,0 +1,112 @@
+package com.infilos.retry.execute;
+
+import com.infilos.retry.RetryConfig;
+
+import java.util.*;
+
+/**
+ * Decide whether a returned value or a thrown error should be retried, depends on the config.
+ */
+final class RetryMatcher<T> {
+
+    private final RetryConfig<T> config;
+
+    RetryMatcher(RetryConfig<T> config) {
+        this.config = config;
+    }
+
+    boolean shouldRetryOnResult(T callResult) {
+        if (!config.shouldRetryOnValue()) {
+            return false;
+        }
+        if(!config.getRetryOnValueExcluding().isEmpty() && !isOneOfRetryOnValueExcluding(callResult)) {
+            return true;
+        }
+        if(isOneOfRetryOnValueIncluding(callResult)) {
+            return true;
+        }
+        if(Objects.nonNull(config.getRetryOnValueMatcher())) {
+            try {
+                return config.getRetryOnValueMatcher().apply(callResult);
+            } catch (Throwable ignored){
+            }
+        }
+        
+        return false;
+    }
+
+    private boolean isOneOfRetryOnValueExcluding(T callResult) {
+        Collection<T> valuesToExpect = config.getRetryOnValueExcluding();
+        if (valuesToExpect != null) {
+            for (T o : valuesToExpect) {
+                if (o.equals(callResult)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isOneOfRetryOnValueIncluding(T callResult) {
+        Collection<T> valuesToRetryOn = config.getRetryOnValueIncluding();
+        if (valuesToRetryOn != null) {
+            for (Object o : valuesToRetryOn) {
+                if (o.equals(callResult)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    boolean shouldThrowException(Exception e) {
+        if (config.getRetryOnErrorMatcher() != null) {
+            //custom retry logic
+            return !config.getRetryOnErrorMatcher().apply(e);
+        } else {
+            //config says to always retry
+            if (config.shouldRetryOnAnyError()) {
+                return false;
+            }
+
+            Set<Class<?>> exceptionsToMatch = new HashSet<>();
+            exceptionsToMatch.add(e.getClass());
+            if (config.shouldRetryOnErrorOfCausedBy()) {
+                exceptionsToMatch.clear();
+                exceptionsToMatch.addAll(getExceptionCauses(e));
+            }
+
+            return exceptionsToMatch.stream().noneMatch(this::matchesException);
+        }
+    }
+
+    private boolean matchesException(Class<?> thrownExceptionClass) {
+        //config says to retry only on specific exceptions
+        for (Class<? extends Exception> exceptionToRetryOn : config.getRetryOnErrorIncluding()) {
+            if (exceptionToRetryOn.isAssignableFrom(thrownExceptionClass)) {
+                return true;
+            }
+        }
+
+        //config says to retry on all except specific exceptions
+        if (!config.getRetryOnErrorExcluding().isEmpty()) {
+            for (Class<? extends Exception> exceptionToNotRetryOn : config.getRetryOnErrorExcluding()) {
+                if (exceptionToNotRetryOn.isAssignableFrom(thrownExceptionClass)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private Set<Class<?>> getExceptionCauses(Exception exception) {
+        Throwable parent = exception;
+        Set<Class<?>> causes = new HashSet<>();
+        while (parent.getCause() != null) {
+            causes.add(parent.getCause().getClass());
+            parent = parent.getCause();
+        }
+        return causes;
+    }
+}
@@ -0,0 +1,87 @@
+package com.infilos.retry.execute;
+
+import com.infilos.retry.BackoffStrategy;
+import com.infilos.retry.RetryConfig;
+import com.infilos.utils.Loggable;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wait between the tries of one execution, depends on the config: the backoff strategy, the max duration, and the
+ * interruption of the waiting thread. Records the time actually waited, and why waiting stopped the execution.
+ */
+final class RetrySleeper<T> implements Loggable {
+
+    private final RetryConfig<T> config;
+
+    private BackoffStrategy backoffStrategy;
+    private long deadlineNanos = Long.MAX_VALUE;
+    private long backoffNanos = 0L;
+    private String stoppedReason = null;
+
+    RetrySleeper(RetryConfig<T> config) {
+        this.config = config;
+    }
+
+    /**
+     * Starts the max duration of the execution, if the config has one.
+     */
+    void start() {
+        backoffStrategy = null;
+        if (Objects.nonNull(config.getMaxDuration())) {
+            deadlineNanos = System.nanoTime() + config.getMaxDuration().toNanos();
+        }
+    }
+
+    /**
+     * @return false if should not start the next try, as the deadline will be exceeded or the waiting is interrupted
+     */
+    boolean sleep(Duration duration, int tries, T lastValueCausedRetry, Exception lastErrorCausedRetry) {
+        if (null == backoffStrategy) {
+            // taken once per execution, for the strategies depending on previous delays
+            backoffStrategy = config.getBackoffStrategy().forExecution();
+        }
+        Duration delay = backoffStrategy
+            .nextDelayToWait(tries, duration, lastValueCausedRetry, lastErrorCausedRetry);
+
+        if (deadlineNanos != Long.MAX_VALUE && deadlineNanos - System.nanoTime() < delay.toNanos()) {
+            stoppedReason = String.format("exceeded max duration %s", config.getMaxDuration());
+            return false;
+        }
+
+        log().trace("retry executor sleeping for {} ms", delay.toMillis());
+        try {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            long sleepStart = System.nanoTime();
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay.toNanos());
+            } finally {
+                backoffNanos += System.nanoTime() - sleepStart;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stoppedReason = "interrupted while waiting to retry";
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Time actually waited so far.
+     */
+    long backoffNanos() {
+        return backoffNanos;
+    }
+
+    /**
+     * Why waiting stopped the execution, null if it didn't.
+     */
+    String stoppedReason() {
+        return stoppedReason;
+    }
+}
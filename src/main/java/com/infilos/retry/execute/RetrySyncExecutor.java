@@ -10,7 +10,6 @@ import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.Callable;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Default implementation that does a single, synchronous retry in the same thread that it is called from.
@@ -20,13 +19,18 @@ import java.util.concurrent.TimeUnit;
 public class RetrySyncExecutor<T> implements RetryExecutor<T, RetryStatus<T>>, Loggable {
 
     private final RetryConfig<T> config;
+    private final RetryMatcher<T> matcher;
+    private final RetrySleeper<T> sleeper;
 
     private final RetryStatus<T> finalStatus = new RetryStatus<>();
     private T lastValueCausedRetry = null;
     private Exception lastErrorCausedRetry = null;
+    private int attemptsMade = 0;
 
     public RetrySyncExecutor(RetryConfig<T> config) {
         this.config = config;
+        this.matcher = new RetryMatcher<>(config);
+        this.sleeper = new RetrySleeper<>(config);
     }
 
     @Override
@@ -41,6 +45,7 @@ public class RetrySyncExecutor<T> implements RetryExecutor<T, RetryStatus<T>>, L
 
         this.finalStatus.setOperation(operation);
         this.finalStatus.setStartTime(System.currentTimeMillis());
+        this.sleeper.start();
 
         int maxAttempts = config.getMaxAttempts();
         long delay = Objects.nonNull(config.getDelayDuration()) ? config.getDelayDuration().toMillis() : 0L;
@@ -49,11 +54,15 @@ public class RetrySyncExecutor<T> implements RetryExecutor<T, RetryStatus<T>>, L
         attemptStatus.setSucced(false);
 
         int currentAttempt;
+        boolean escaped = true;
 
         try {
             for (currentAttempt = 0; currentAttempt < maxAttempts && !attemptStatus.hasSucced(); currentAttempt++) {
                 if (currentAttempt > 0) {
-                    handleBeforeNextTry(delay, currentAttempt);
+                    if (!handleBeforeNextTry(delay, currentAttempt)) {
+                        log().trace("retry stopped before time number {}, {}", currentAttempt, sleeper.stoppedReason());
+                        break;
+                    }
                     log().trace("retry retrying for time number {}", currentAttempt);
                 }
 
@@ -64,15 +73,19 @@ public class RetrySyncExecutor<T> implements RetryExecutor<T, RetryStatus<T>>, L
                     handleFailedTry(currentAttempt + 1);
                 }
             }
+            escaped = false;
 
             collectFinalStatus(attemptStatus.hasSucced(), currentAttempt);
             this.finalStatus.setFinishTime(System.currentTimeMillis());
 
-            postExecutionCleanup(callable, maxAttempts, attemptStatus);
+            postExecutionCleanup(callable, currentAttempt, attemptStatus);
 
             log().debug("Finished retry execution in {} ms", finalStatus.getTotalDuration().toMillis());
             log().trace("Finished retry execution with executor state {}", this);
         } finally {
+            if (null != config.getMetrics()) {
+                config.getMetrics().record(operation, attemptsMade, sleeper.backoffNanos(), !escaped && !attemptStatus.hasSucced(), escaped);
+            }
             if (null != config.getOnCompletionListener()) {
                 config.getOnCompletionListener().onEvent(finalStatus);
             }
@@ -81,9 +94,12 @@ public class RetrySyncExecutor<T> implements RetryExecutor<T, RetryStatus<T>>, L
         return finalStatus;
     }
 
-    private void postExecutionCleanup(Callable<T> callable, int maxTries, AttemptStatus<T> attemptStatus) {
+    private void postExecutionCleanup(Callable<T> callable, int tries, AttemptStatus<T> attemptStatus) {
         if (!attemptStatus.hasSucced()) {
-            String failure = String.format("Execute '%s' failed after %d tries!", callable.toString(), maxTries);
+            String stoppedReason = sleeper.stoppedReason();
+            String failure = Objects.isNull(stoppedReason) ?
+                String.format("Execute '%s' failed after %d tries!", callable.toString(), tries) :
+                String.format("Execute '%s' failed after %d tries, %s!", callable.toString(), tries, stoppedReason);
             if (null != config.getOnFailureListener()) {
                 config.getOnFailureListener().onEvent(finalStatus);
             } else {
@@ -100,6 +116,7 @@ public class RetrySyncExecutor<T> implements RetryExecutor<T, RetryStatus<T>>, L
 
     private AttemptStatus<T> tryCall(Callable<T> callable) throws RetryEscapedException {
         AttemptStatus<T> attemptStatus = new AttemptStatus<>();
+        attemptsMade++;
 
         try {
             T callResult = callable.call();
@@ -108,7 +125,7 @@ public class RetrySyncExecutor<T> implements RetryExecutor<T, RetryStatus<T>>, L
             //    (!config.getRetryOnValueExcluding().isEmpty() && !isOneOfRetryOnValueExcluding(callResult))
             //        || isOneOfRetryOnValueIncluding(callResult)
             //);
-            if (checkShouldRetryOnResult(callResult)) {
+            if (matcher.shouldRetryOnResult(callResult)) {
                 lastValueCausedRetry = callResult;
                 attemptStatus.setSucced(false);
             } else {
@@ -116,7 +133,7 @@ public class RetrySyncExecutor<T> implements RetryExecutor<T, RetryStatus<T>>, L
                 attemptStatus.setSucced(true);
             }
         } catch (Exception e) {
-            if (shouldThrowException(e)) {
+            if (matcher.shouldThrowException(e)) {
                 log().trace("Throwing expected exception", e);
                 throw new RetryEscapedException("Unexpected exception thrown during retry execution!", e);
             } else {
@@ -127,56 +144,18 @@ public class RetrySyncExecutor<T> implements RetryExecutor<T, RetryStatus<T>>, L
 
         return attemptStatus;
     }
-    
-    private boolean checkShouldRetryOnResult(T callResult) {
-        if (!config.shouldRetryOnValue()) {
-            return false;
-        }
-        if(!config.getRetryOnValueExcluding().isEmpty() && !isOneOfRetryOnValueExcluding(callResult)) {
-            return true;
-        }
-        if(isOneOfRetryOnValueIncluding(callResult)) {
-            return true;
-        }
-        if(Objects.nonNull(config.getRetryOnValueMatcher())) {
-            try {
-                return config.getRetryOnValueMatcher().apply(callResult);
-            } catch (Throwable ignored){
-            }
-        }
-        
-        return false;
-    }
-
-    private boolean isOneOfRetryOnValueExcluding(T callResult) {
-        Collection<T> valuesToExpect = config.getRetryOnValueExcluding();
-        if (valuesToExpect != null) {
-            for (T o : valuesToExpect) {
-                if (o.equals(callResult)) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
 
-    private boolean isOneOfRetryOnValueIncluding(T callResult) {
-        Collection<T> valuesToRetryOn = config.getRetryOnValueIncluding();
-        if (valuesToRetryOn != null) {
-            for (Object o : valuesToRetryOn) {
-                if (o.equals(callResult)) {
-                    return true;
-                }
-            }
+    /**
+     * @return false if should not start the next try, as the deadline will be exceeded or the waiting is interrupted
+     */
+    private boolean handleBeforeNextTry(final long delayMills, final int tries) {
+        if (!sleeper.sleep(Duration.of(delayMills, ChronoUnit.MILLIS), tries, lastValueCausedRetry, lastErrorCausedRetry)) {
+            return false;
         }
-        return false;
-    }
-
-    private void handleBeforeNextTry(final long delayMills, final int tries) {
-        sleep(delayMills, tries);
         if (null != config.getBeforeNextTryListener()) {
             config.getBeforeNextTryListener().onEvent(finalStatus);
         }
+        return true;
     }
 
     private void handleFailedTry(int tries) {
@@ -197,70 +176,6 @@ public class RetrySyncExecutor<T> implements RetryExecutor<T, RetryStatus<T>>, L
         finalStatus.setLastException(lastErrorCausedRetry);
     }
 
-    private void sleep(long millis, int tries) {
-        Duration duration = Duration.of(millis, ChronoUnit.MILLIS);
-        long delayMills = config.getBackoffStrategy()
-            .nextDelayToWait(tries, duration, lastValueCausedRetry, lastErrorCausedRetry)
-            .toMillis();
-
-        log().trace("retry executor sleeping for {} ms", delayMills);
-        try {
-            TimeUnit.MILLISECONDS.sleep(delayMills);
-        } catch (InterruptedException ignored) {
-        }
-    }
-
-    private boolean shouldThrowException(Exception e) {
-        if (this.config.getRetryOnErrorMatcher() != null) {
-            //custom retry logic
-            return !this.config.getRetryOnErrorMatcher().apply(e);
-        } else {
-            //config says to always retry
-            if (this.config.shouldRetryOnAnyError()) {
-                return false;
-            }
-
-            Set<Class<?>> exceptionsToMatch = new HashSet<>();
-            exceptionsToMatch.add(e.getClass());
-            if (this.config.shouldRetryOnErrorOfCausedBy()) {
-                exceptionsToMatch.clear();
-                exceptionsToMatch.addAll(getExceptionCauses(e));
-            }
-
-            return exceptionsToMatch.stream().noneMatch(this::matchesException);
-        }
-    }
-
-    private boolean matchesException(Class<?> thrownExceptionClass) {
-        //config says to retry only on specific exceptions
-        for (Class<? extends Exception> exceptionToRetryOn : this.config.getRetryOnErrorIncluding()) {
-            if (exceptionToRetryOn.isAssignableFrom(thrownExceptionClass)) {
-                return true;
-            }
-        }
-
-        //config says to retry on all except specific exceptions
-        if (!this.config.getRetryOnErrorExcluding().isEmpty()) {
-            for (Class<? extends Exception> exceptionToNotRetryOn : this.config.getRetryOnErrorExcluding()) {
-                if (exceptionToNotRetryOn.isAssignableFrom(thrownExceptionClass)) {
-                    return false;
-                }
-            }
-            return true;
-        }
-        return false;
-    }
-
-    private Set<Class<?>> getExceptionCauses(Exception exception) {
-        Throwable parent = exception;
-        Set<Class<?>> causes = new HashSet<>();
-        while (parent.getCause() != null) {
-            causes.add(parent.getCause().getClass());
-            parent = parent.getCause();
-        }
-        return causes;
-    }
-
     public RetryConfig<T> getConfig() {
         return config;
     }
@@ -270,6 +185,7 @@ public class RetrySyncExecutor<T> implements RetryExecutor<T, RetryStatus<T>>, L
         final StringBuilder sb = new StringBuilder("CallExecutor{");
         sb.append("config=").append(config);
         sb.append(", lastKnownExceptionThatCausedRetry=").append(lastErrorCausedRetry);
+        sb.append(", stoppedReason=").append(sleeper.stoppedReason());
         sb.append(", status=").append(finalStatus);
         sb.append('}');
         
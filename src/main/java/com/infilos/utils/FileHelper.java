@@ -1,5 +1,6 @@
 package com.infilos.utils;
 
+import com.infilos.utils.internal.FileChannels;
 import com.infilos.utils.io.FileReader;
 import com.infilos.utils.io.FileWriter;
 import com.infilos.utils.io.*;
@@ -12,12 +13,18 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.jar.JarFile;
+import java.util.stream.Stream;
 
 @SuppressWarnings("unused")
 public final class FileHelper {
@@ -29,6 +36,7 @@ public final class FileHelper {
      */
     private static final ExpiringMap<String, File> TEMPORARY_CLEANUP_REGISTRY = ExpiringMap.builder()
             .expiration(2, TimeUnit.MINUTES)
+            .expirationPolicy(ExpirationPolicy.CREATED)
             .expirationListener((ExpirationListener<String, File>) (name, file) -> cleanTemporary(file))
             .build();
 
@@ -40,6 +48,10 @@ public final class FileHelper {
     public static final String FILE_SEPARATOR = File.separator;
     // Unix is ':', Windows is ';'
     public static final String PATH_SEPARATOR = File.pathSeparator;
+    /**
+     * Bytes read at once while scanning for the record delimiters to split at.
+     */
+    private static final int SPLIT_SCAN_WINDOW = 64 * 1024;
 
     public static boolean isWindows() {
         return '\\' == File.separatorChar;
@@ -105,6 +117,20 @@ public final class FileHelper {
         return PathHelper.loopFiles(file.toPath(), maxDepth, fileFilter);
     }
 
+    /**
+     * Lazy stream of the files under file, see {@link PathHelper#streamFiles(Path, int, FileFilter)}.
+     */
+    public static Stream<Path> streamFiles(File file, int maxDepth, FileFilter fileFilter) {
+        return PathHelper.streamFiles(file.toPath(), maxDepth, fileFilter);
+    }
+
+    /**
+     * Lazy stream of the files under file with their attributes, see {@link PathHelper#streamFileEntries(Path, int, FileFilter)}.
+     */
+    public static Stream<FileTreeEntry> streamFileEntries(File file, int maxDepth, FileFilter fileFilter) {
+        return PathHelper.streamFileEntries(file.toPath(), maxDepth, fileFilter);
+    }
+
     public static List<File> loopFiles(String path) {
         return loopFiles(of(path));
     }
@@ -463,7 +489,7 @@ public final class FileHelper {
 
     private static void registerTemporaryCleanup(File file) {
         file.deleteOnExit();
-        TEMPORARY_CLEANUP_REGISTRY.put(file.getName(), file, ExpirationPolicy.CREATED);
+        TEMPORARY_CLEANUP_REGISTRY.put(file.getAbsolutePath(), file);
     }
 
     /**
@@ -486,10 +512,17 @@ public final class FileHelper {
      * Create terporary file
      */
     public static File createTemporary(String fileName) {
+        File temporary = newTemporary(fileName);
+        registerTemporaryCleanup(temporary);
+        return temporary;
+    }
+
+    /**
+     * Temporary file not registered for cleanup yet, for files written longer than the cleanup delay.
+     */
+    private static File newTemporary(String fileName) {
         try {
-            File temporary = new File(createTemporaryDirectory(), fileName);
-            registerTemporaryCleanup(temporary);
-            return temporary;
+            return new File(createTemporaryDirectory(), fileName);
         } catch (IOException e) {
             throw new RuntimeException("创建临时目录异常", e);
         }
@@ -545,6 +578,161 @@ public final class FileHelper {
         return outputFile;
     }
 
+    /**
+     * Split temporary file in parallel, parts are transferred by channels on the executor. The parts are cleaned 2
+     * minutes after all transfers complete, not after they are created.
+     *
+     * @param maxChunkSize is byte size of each part except the last
+     */
+    public static List<File> splitTemporaryBySize(File temporary, long maxChunkSize, Executor executor) throws IOException {
+        Require.check(maxChunkSize > 0, "Max chunk size must be positive!");
+        final long size = temporary.length();
+        final List<long[]> ranges = new ArrayList<>();
+        for (long start = 0; start < size; start += maxChunkSize) {
+            ranges.add(new long[]{start, Math.min(maxChunkSize, size - start)});
+        }
+
+        return splitTemporary(temporary, ranges, executor);
+    }
+
+    /**
+     * Split temporary file in parallel on line boundaries, see {@link #splitTemporaryByRecords(File, long, byte, Executor)}.
+     */
+    public static List<File> splitTemporaryByLines(File temporary, long maxChunkSize, Executor executor) throws IOException {
+        return splitTemporaryByRecords(temporary, maxChunkSize, (byte) '\n', executor);
+    }
+
+    /**
+     * Split temporary file in parallel, each part ends with the delimiter of its last record, except the last part. A
+     * part is larger than max chunk size only if it holds a single record larger than that.
+     *
+     * @param delimiter the byte ending each record, like {@code '\n'} for lines
+     */
+    public static List<File> splitTemporaryByRecords(File temporary, long maxChunkSize, byte delimiter, Executor executor) throws IOException {
+        Require.check(maxChunkSize > 0, "Max chunk size must be positive!");
+        final List<long[]> ranges = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final ByteBuffer window = ByteBuffer.allocate(SPLIT_SCAN_WINDOW);
+            long start = 0;
+            while (start < size) {
+                final long end = recordsEnd(channel, window, start, start + maxChunkSize, size, delimiter);
+                ranges.add(new long[]{start, end - start});
+                start = end;
+            }
+        }
+
+        return splitTemporary(temporary, ranges, executor);
+    }
+
+    /**
+     * @return end of the last record ending within start and limit, or end of the record containing limit
+     */
+    private static long recordsEnd(FileChannel channel, ByteBuffer window, long start, long limit, long size, byte delimiter) throws IOException {
+        if (limit >= size) {
+            return size;
+        }
+        for (long to = limit; to > start; ) {
+            final long from = Math.max(start, to - window.capacity());
+            readFully(channel, window, from, (int) (to - from));
+            for (int index = window.limit() - 1; index >= 0; index--) {
+                if (window.get(index) == delimiter) {
+                    return from + index + 1;
+                }
+            }
+            to = from;
+        }
+        for (long from = limit; from < size; from += window.limit()) {
+            readFully(channel, window, from, (int) Math.min(window.capacity(), size - from));
+            for (int index = 0; index < window.limit(); index++) {
+                if (window.get(index) == delimiter) {
+                    return from + index + 1;
+                }
+            }
+        }
+        return size;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position, int length) throws IOException {
+        buffer.clear().limit(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of file at " + (position + buffer.position()));
+            }
+        }
+        buffer.flip();
+    }
+
+    private static List<File> splitTemporary(File temporary, List<long[]> ranges, Executor executor) throws IOException {
+        final List<File> results = new ArrayList<>(ranges.size());
+        final CompletableFuture<?>[] transfers = new CompletableFuture<?>[ranges.size()];
+        for (int index = 0; index < ranges.size(); index++) {
+            final File part = newTemporary(temporary.getName() + "_split_" + index);
+            final long[] range = ranges.get(index);
+            results.add(part);
+            transfers[index] = CompletableFuture.runAsync(
+                () -> FileChannels.transferRange(temporary.toPath(), range[0], part.toPath(), 0, range[1],
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), executor);
+        }
+        try {
+            awaitTransfers(transfers);
+        } finally {
+            results.forEach(FileHelper::registerTemporaryCleanup);
+        }
+
+        return results;
+    }
+
+    /**
+     * Merge file in parallel, parts are transferred by channels to their offsets on the executor. The merged file is
+     * cleaned 2 minutes after the transfers complete.
+     */
+    public static File mergeTemporary(String filename, List<File> list, Executor executor) throws IOException {
+        File outputFile = newTemporary(filename);
+        try {
+            transferMerged(outputFile, list, executor);
+        } finally {
+            registerTemporaryCleanup(outputFile);
+        }
+
+        return outputFile;
+    }
+
+    private static void transferMerged(File outputFile, List<File> list, Executor executor) throws IOException {
+        long total = 0;
+        for (File file : list) {
+            total += file.length();
+        }
+        try (FileChannel channel = FileChannel.open(outputFile.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            FileChannels.presize(channel, total);
+        }
+
+        final CompletableFuture<?>[] transfers = new CompletableFuture<?>[list.size()];
+        long offset = 0;
+        for (int index = 0; index < list.size(); index++) {
+            final Path part = list.get(index).toPath();
+            final long position = offset;
+            final long length = list.get(index).length();
+            transfers[index] = CompletableFuture.runAsync(
+                () -> FileChannels.transferRange(part, 0, outputFile.toPath(), position, length, StandardOpenOption.WRITE), executor);
+            offset += length;
+        }
+        awaitTransfers(transfers);
+    }
+
+    private static void awaitTransfers(CompletableFuture<?>[] transfers) throws IOException {
+        try {
+            CompletableFuture.allOf(transfers).join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IORuntimeException && cause.getCause() instanceof IOException) {
+                throw (IOException) cause.getCause();
+            }
+            throw e;
+        }
+    }
+
     /**
      * Split file by file count
      */
@@ -786,6 +974,29 @@ public final class FileHelper {
         return readBytes(of(filePath));
     }
 
+    /**
+     * Reads the whole file without blocking, on the shared {@link AsyncFiles}, create one for a dedicated executor.
+     */
+    public static CompletableFuture<byte[]> readBytesAsync(Path path) {
+        return AsyncFiles.shared().readBytes(path);
+    }
+
+    /**
+     * Reads {@code length} bytes at {@code offset} without blocking, fewer if the file ends before.
+     */
+    public static CompletableFuture<byte[]> readAsync(Path path, long offset, int length) {
+        return AsyncFiles.shared().read(path, offset, length);
+    }
+
+    /**
+     * Writes the remaining bytes of data into the file without blocking, the file is created or truncated.
+     *
+     * @return the number of bytes written
+     */
+    public static CompletableFuture<Long> writeAsync(Path path, ByteBuffer data) {
+        return AsyncFiles.shared().write(path, data);
+    }
+
     public static String readUtf8String(File file) {
         return readString(file, Charsets.UTF_8);
     }
@@ -912,6 +1123,17 @@ public final class FileHelper {
         }
     }
 
+    /**
+     * Lines of the file read and decoded ahead on a background thread while consumed, the stream should be closed.
+     */
+    public static Stream<String> readAheadLines(File file, Charset charset) {
+        try {
+            return IOStreams.readAheadLines(Files.newInputStream(file.toPath()), charset);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
     public static String readLine(RandomAccessFile file, Charset charset) throws IOException {
         String line = file.readLine();
         if (null != line) {
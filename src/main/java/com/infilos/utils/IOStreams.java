@@ -1,8 +1,11 @@
 package com.infilos.utils;
 
+import com.infilos.utils.io.ByteChunkPool;
 import com.infilos.utils.io.FastByteArrayOutputStream;
 import com.infilos.utils.io.IORuntimeException;
+import com.infilos.utils.io.ReadAheadLineReader;
 import com.infilos.utils.io.StreamProgress;
+import com.infilos.utils.pool.PoolRefType;
 
 import java.io.*;
 import java.nio.ByteBuffer;
@@ -14,8 +17,11 @@ import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Collection;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @SuppressWarnings("unused")
 public final class IOStreams {
@@ -24,6 +30,20 @@ public final class IOStreams {
 
     private static final int STREAM_EOF = -1;
     private static final int BUFFER_SIZE = 2048;
+    /**
+     * Bytes transferred by one {@link FileChannel#transferTo} call, the granularity of the progress.
+     */
+    private static final long TRANSFER_CHUNK_SIZE = 8L << 20;
+    private static final int DIRECT_BUFFER_SIZE = 64 * 1024;
+    /**
+     * Direct buffers reused by channel copies, a copy allocates its own when they are all leased.
+     */
+    private static final Pool<ByteBuffer> DIRECT_BUFFERS = Pool.<ByteBuffer>builder()
+        .capacity(Math.max(4, Runtime.getRuntime().availableProcessors()))
+        .creator(() -> ByteBuffer.allocateDirect(DIRECT_BUFFER_SIZE))
+        .reseter(ByteBuffer::clear)
+        .refType(PoolRefType.Soft)
+        .build();
 
     public static long copy(Reader reader, Writer writer) throws IORuntimeException {
         return copy(reader, writer, BUFFER_SIZE);
@@ -67,10 +87,20 @@ public final class IOStreams {
         return copy(in, out, bufferSize, null);
     }
 
+    /**
+     * Copies {@code in} to {@code out} through a buffer of {@code bufferSize}, or through their channels if both are
+     * file streams, by {@link FileChannel#transferTo} from the current position of {@code in} if its size is known.
+     * The progress is reported once per buffer or chunk.
+     *
+     * @see #copy(ReadableByteChannel, WritableByteChannel, int, StreamProgress)
+     */
     public static long copy(InputStream in, OutputStream out, int bufferSize, StreamProgress streamProgress) throws IORuntimeException {
         Require.checkNotNull(in, "InputStream is null !");
         Require.checkNotNull(out, "OutputStream is null !");
 
+        if (in instanceof FileInputStream && out instanceof FileOutputStream) {
+            return copy(((FileInputStream) in).getChannel(), ((FileOutputStream) out).getChannel(), bufferSize, streamProgress);
+        }
         if (bufferSize <= 0) {
             bufferSize = BUFFER_SIZE;
         }
@@ -100,43 +130,98 @@ public final class IOStreams {
         return size;
     }
 
+    /**
+     * Copies through channels, file streams are copied by {@link FileChannel#transferTo}, other streams through a
+     * pooled direct buffer.
+     */
     public static long copyWithNio(InputStream in, OutputStream out, int bufferSize, StreamProgress streamProgress) throws IORuntimeException {
-        return copy(Channels.newChannel(in), Channels.newChannel(out), bufferSize, streamProgress);
+        Require.checkNotNull(in, "InputStream is null !");
+        Require.checkNotNull(out, "OutputStream is null !");
+
+        ReadableByteChannel inChannel = in instanceof FileInputStream ? ((FileInputStream) in).getChannel() : Channels.newChannel(in);
+        WritableByteChannel outChannel = out instanceof FileOutputStream ? ((FileOutputStream) out).getChannel() : Channels.newChannel(out);
+        return copy(inChannel, outChannel, bufferSize, streamProgress);
     }
 
+    /**
+     * Copies {@code in} from its current position to the end, by {@link FileChannel#transferTo} if its size is known,
+     * the positions of both streams are moved forward.
+     */
     public static long copy(FileInputStream in, FileOutputStream out) throws IORuntimeException {
         Require.checkNotNull(in, "FileInputStream is null!");
         Require.checkNotNull(out, "FileOutputStream is null!");
 
-        final FileChannel inChannel = in.getChannel();
-        final FileChannel outChannel = out.getChannel();
+        return copy(in.getChannel(), out.getChannel(), 0, null);
+    }
 
-        try {
-            return inChannel.transferTo(0, inChannel.size(), outChannel);
+    /**
+     * Copies the file {@code source} to {@code out}, by {@link FileChannel#transferTo} if {@code out} is a file stream.
+     */
+    public static long copy(Path source, OutputStream out, StreamProgress streamProgress) throws IORuntimeException {
+        Require.checkNotNull(source, "Source path is null !");
+        Require.checkNotNull(out, "OutputStream is null !");
+
+        try (FileChannel inChannel = FileChannel.open(source, StandardOpenOption.READ)) {
+            WritableByteChannel outChannel = out instanceof FileOutputStream ? ((FileOutputStream) out).getChannel() : Channels.newChannel(out);
+            return copy(inChannel, outChannel, 0, streamProgress);
         } catch (IOException e) {
             throw new IORuntimeException(e);
         }
     }
 
+    /**
+     * Copies {@code in} to the file {@code target}, which is created or truncated, by {@link FileChannel#transferTo} if
+     * {@code in} is a file stream.
+     */
+    public static long copy(InputStream in, Path target, StreamProgress streamProgress) throws IORuntimeException {
+        Require.checkNotNull(in, "InputStream is null !");
+        Require.checkNotNull(target, "Target path is null !");
+
+        try (FileChannel outChannel = FileChannel.open(target,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ReadableByteChannel inChannel = in instanceof FileInputStream ? ((FileInputStream) in).getChannel() : Channels.newChannel(in);
+            return copy(inChannel, outChannel, 0, streamProgress);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    /**
+     * Copies the file {@code source} to the file {@code target}, which is created or truncated, by
+     * {@link FileChannel#transferTo} in chunks.
+     */
+    public static long copy(Path source, Path target, StreamProgress streamProgress) throws IORuntimeException {
+        Require.checkNotNull(source, "Source path is null !");
+        Require.checkNotNull(target, "Target path is null !");
+
+        try (FileChannel inChannel = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel outChannel = FileChannel.open(target,
+                 StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return copy(inChannel, outChannel, 0, streamProgress);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    /**
+     * Copies {@code in} to {@code out}. A {@link FileChannel} source of a known size is copied from its current position
+     * by {@link FileChannel#transferTo} in chunks of {@link #TRANSFER_CHUNK_SIZE} bytes and its position is moved
+     * forward, then read to the end like other channels through a pooled direct buffer. Pipes, devices and files like
+     * {@code /proc} report no size, so they are only read. The progress is reported once per chunk or buffer.
+     *
+     * @param bufferSize Size of the buffer, 0 for the pooled buffer size, larger than the pooled size uses a heap buffer.
+     */
     public static long copy(ReadableByteChannel in, WritableByteChannel out, int bufferSize, StreamProgress streamProgress) throws IORuntimeException {
         Require.checkNotNull(in, "InputStream is null !");
         Require.checkNotNull(out, "OutputStream is null !");
 
-        ByteBuffer byteBuffer = ByteBuffer.allocate(bufferSize <= 0 ? BUFFER_SIZE : bufferSize);
-        long size = 0;
-
         if (null != streamProgress) {
             streamProgress.start();
         }
+        long size;
         try {
-            while (in.read(byteBuffer) != STREAM_EOF) {
-                byteBuffer.flip();
-                size += out.write(byteBuffer);
-                byteBuffer.clear();
-                if (null != streamProgress) {
-                    streamProgress.progress(size);
-                }
-            }
+            size = in instanceof FileChannel ? transfer((FileChannel) in, out, streamProgress) : 0;
+            size += copyBuffered(in, out, bufferSize, size, streamProgress);
         } catch (IOException e) {
             throw new IORuntimeException(e);
         }
@@ -147,6 +232,64 @@ public final class IOStreams {
         return size;
     }
 
+    /**
+     * Transfers up to the size of {@code in}, which is 0 for files without a known size. The rest, like the bytes
+     * appended meanwhile, is left to be read.
+     */
+    private static long transfer(FileChannel in, WritableByteChannel out, StreamProgress streamProgress) throws IOException {
+        long position = in.position();
+        long end = in.size();
+        long size = 0;
+        while (position < end) {
+            long transferred = in.transferTo(position, Math.min(TRANSFER_CHUNK_SIZE, end - position), out);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+            size += transferred;
+            if (null != streamProgress) {
+                streamProgress.progress(size);
+            }
+        }
+        in.position(position);
+
+        return size;
+    }
+
+    /**
+     * Reads to the end through a pooled direct buffer, or a heap buffer if larger than the pooled size or the pool is
+     * exhausted, so direct memory is never allocated per copy.
+     *
+     * @param copied bytes copied before, counted by the progress
+     */
+    private static long copyBuffered(ReadableByteChannel in, WritableByteChannel out, int bufferSize, long copied, StreamProgress streamProgress) throws IOException {
+        PoolLease<ByteBuffer> lease = bufferSize > DIRECT_BUFFER_SIZE ? null : DIRECT_BUFFERS.tryAcquire().orElse(null);
+        ByteBuffer byteBuffer = lease != null ? lease.get() : ByteBuffer.allocate(Math.max(bufferSize, DIRECT_BUFFER_SIZE));
+        if (bufferSize > 0 && bufferSize < byteBuffer.capacity()) {
+            byteBuffer.limit(bufferSize);
+        }
+        int limit = byteBuffer.limit();
+        long size = 0;
+        try {
+            while (in.read(byteBuffer) != STREAM_EOF) {
+                byteBuffer.flip();
+                while (byteBuffer.hasRemaining()) {
+                    size += out.write(byteBuffer);
+                }
+                byteBuffer.clear().limit(limit);
+                if (null != streamProgress) {
+                    streamProgress.progress(copied + size);
+                }
+            }
+        } finally {
+            if (lease != null) {
+                lease.release();
+            }
+        }
+
+        return size;
+    }
+
     public static BufferedReader createReader(InputStream in, String charsetName) {
         return createReader(in, Charset.forName(charsetName));
     }
@@ -195,13 +338,17 @@ public final class IOStreams {
     }
 
     public static String read(InputStream in, String charsetName) throws IORuntimeException {
-        FastByteArrayOutputStream out = read(in);
-        return Strings.isBlank(charsetName) ? out.toString() : out.toString(charsetName);
+        try (FastByteArrayOutputStream out = new FastByteArrayOutputStream(ByteChunkPool.shared())) {
+            copy(in, out);
+            return Strings.isBlank(charsetName) ? out.toString() : out.toString(charsetName);
+        }
     }
 
     public static String read(InputStream in, Charset charset) throws IORuntimeException {
-        FastByteArrayOutputStream out = read(in);
-        return null == charset ? out.toString() : out.toString(charset);
+        try (FastByteArrayOutputStream out = new FastByteArrayOutputStream(ByteChunkPool.shared())) {
+            copy(in, out);
+            return null == charset ? out.toString() : out.toString(charset);
+        }
     }
 
     public static FastByteArrayOutputStream read(InputStream in) throws IORuntimeException {
@@ -243,9 +390,10 @@ public final class IOStreams {
     }
 
     public static byte[] readBytes(InputStream in) throws IORuntimeException {
-        final FastByteArrayOutputStream out = new FastByteArrayOutputStream();
-        copy(in, out);
-        return out.toByteArray();
+        try (FastByteArrayOutputStream out = new FastByteArrayOutputStream(ByteChunkPool.shared())) {
+            copy(in, out);
+            return out.toByteArray();
+        }
     }
 
     public static byte[] readBytes(InputStream in, int length) throws IORuntimeException {
@@ -329,6 +477,18 @@ public final class IOStreams {
         }
     }
 
+    /**
+     * Lines read and decoded ahead on a background thread while consumed, the stream closes the reader on close. See
+     * {@link ReadAheadLineReader#builder(Reader)} for batch size, queue depth and executor.
+     */
+    public static Stream<String> readAheadLines(Reader reader) {
+        return ReadAheadLineReader.builder(reader).build().stream();
+    }
+
+    public static Stream<String> readAheadLines(InputStream in, Charset charset) {
+        return readAheadLines(createReader(in, charset));
+    }
+
     public static ByteArrayInputStream createStream(String content, String charsetName) {
         return createStream(content, Charset.forName(charsetName));
     }
@@ -3,6 +3,8 @@ package com.infilos.utils;
 import com.infilos.utils.io.FileCopyVisitor;
 import com.infilos.utils.io.FileDelVisitor;
 import com.infilos.utils.io.FileMoveVisitor;
+import com.infilos.utils.io.FileTreeEntry;
+import com.infilos.utils.io.FileTreeSpliterator;
 import com.infilos.utils.io.IORuntimeException;
 
 import java.io.*;
@@ -12,6 +14,8 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @SuppressWarnings("unused")
 public final class PathHelper {
@@ -57,6 +61,29 @@ public final class PathHelper {
         return fileList;
     }
 
+    /**
+     * Lazy stream of the files under path, like {@link #loopFiles(Path, int, FileFilter)} but found as consumed, and
+     * subtrees are walked in parallel by a parallel stream. The stream should be closed if not fully consumed.
+     *
+     * @param maxDepth   max depth of files below path, negative for unlimited, directories at it are reported as files
+     * @param fileFilter filter of files, null accepts all
+     */
+    public static Stream<Path> streamFiles(Path path, int maxDepth, FileFilter fileFilter) {
+        return streamFileEntries(path, maxDepth, fileFilter).map(FileTreeEntry::path);
+    }
+
+    /**
+     * Lazy stream of the files under path with their attributes, which are read while walking, see
+     * {@link #streamFiles(Path, int, FileFilter)}.
+     */
+    public static Stream<FileTreeEntry> streamFileEntries(Path path, int maxDepth, FileFilter fileFilter) {
+        if (null == path || !Files.exists(path)) {
+            return Stream.empty();
+        }
+        final FileTreeSpliterator spliterator = new FileTreeSpliterator(path, maxDepth, fileFilter);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
     public static void walkFiles(Path start, FileVisitor<? super Path> visitor) {
         walkFiles(start, -1, visitor);
     }
@@ -0,0 +1,56 @@
+package com.infilos.utils.internal;
+
+import com.infilos.utils.io.IORuntimeException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Positional channel transfers shared by the parallel split, merge and chunked copy of files. Internal to this library,
+ * not part of its API.
+ */
+public final class FileChannels {
+    private FileChannels() {
+    }
+
+    /**
+     * Extends the file of {@code channel} to {@code size} bytes, so its ranges can be filled by
+     * {@link #transferRange} in any order: {@link FileChannel#transferFrom} transfers nothing at positions beyond the size.
+     */
+    public static void presize(FileChannel channel, long size) throws IOException {
+        if (size > 0) {
+            channel.write(ByteBuffer.allocate(1), size - 1);
+        }
+    }
+
+    /**
+     * Transfers {@code count} bytes of {@code source} at {@code sourcePosition} into {@code target} at
+     * {@code targetPosition} by {@link FileChannel#transferFrom}, with channels of its own, so ranges of the same files
+     * can be transferred concurrently. The target must not be shorter than {@code targetPosition}, see {@link #presize}.
+     *
+     * @param targetOptions Options to open the target with, including {@link StandardOpenOption#WRITE}.
+     * @throws IORuntimeException wrapping an {@link EOFException} if the source ends before
+     */
+    public static void transferRange(Path source, long sourcePosition, Path target, long targetPosition, long count,
+                                     OpenOption... targetOptions) throws IORuntimeException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, targetOptions)) {
+            in.position(sourcePosition);
+            long transferred = 0;
+            while (transferred < count) {
+                final long size = out.transferFrom(in, targetPosition + transferred, count - transferred);
+                if (size <= 0) {
+                    throw new EOFException(String.format("Unexpected end of %s at %s", source, sourcePosition + transferred));
+                }
+                transferred += size;
+            }
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.infilos.utils.internal;
+
+import com.infilos.utils.io.IORuntimeException;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+
+/**
+ * Memory-mapping of files by segments which end at line boundaries, shared by the readers of mapped lines. Lines end
+ * with {@code \n}, so the charset must encode it as the single byte {@code 0x0A}, like ASCII compatible charsets.
+ * Internal to this library, not part of its API.
+ */
+public final class MappedLines {
+
+    /**
+     * Max bytes of a segment, a mapped buffer is indexed by int.
+     */
+    public static final int MAX_SEGMENT = 1 << 30;
+
+    private MappedLines() {
+    }
+
+    /**
+     * Returns {@code charset} if it encodes line feed as the single byte {@code 0x0A}.
+     *
+     * @throws IllegalArgumentException otherwise
+     */
+    public static Charset checkCharset(Charset charset) {
+        byte[] newline = "\n".getBytes(charset);
+        if (newline.length != 1 || newline[0] != '\n') {
+            throw new IllegalArgumentException("Charset must encode line feed as single byte: " + charset);
+        }
+        return charset;
+    }
+
+    /**
+     * Maps at most {@code maxSegment} bytes of the file from {@code start}, limited to the bytes after the last line
+     * feed unless the segment reaches {@code end}.
+     *
+     * @param path the file opened by {@code channel} named by the errors, null if unknown
+     * @param end end of the mapped range, where the last line may have no line feed
+     * @throws IORuntimeException if the segment can't be mapped, or a line from {@code start} doesn't fit it
+     */
+    public static MappedByteBuffer mapSegment(Path path, FileChannel channel, long start, long end, int maxSegment) {
+        Object file = path == null ? "file" : path;
+        int length = (int) Math.min(end - start, maxSegment);
+        MappedByteBuffer mapped;
+        try {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        } catch (IOException e) {
+            throw new IORuntimeException(e, "Failed to map %s at %s", file, start);
+        }
+        if (start + length < end) {
+            int limit = length;
+            while (limit > 0 && mapped.get(limit - 1) != '\n') {
+                limit--;
+            }
+            if (limit == 0) {
+                throw new IORuntimeException("Line at %s of %s is longer than %s bytes", start, file, maxSegment);
+            }
+            mapped.limit(limit);
+        }
+        return mapped;
+    }
+}
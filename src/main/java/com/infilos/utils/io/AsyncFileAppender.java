@@ -0,0 +1,434 @@
+package com.infilos.utils.io;
+
+import com.infilos.utils.Charsets;
+import com.infilos.utils.FileHelper;
+import com.infilos.utils.Require;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appends lines to a file from any number of threads without writing in the calling thread, the asynchronous
+ * counterpart of {@link FileAppender}:
+ * <pre>
+ * AsyncFileAppender audit = AsyncFileAppender.builder(file).syncWithin(Duration.ofMillis(10)).build();
+ * audit.append("login user=42");
+ * ...
+ * audit.close();
+ * </pre>
+ * <p>
+ * Lines are claimed into a bounded lock-free ring buffer, a single writer thread drains it, encodes the lines into a
+ * reused buffer and writes them in batches to a {@link FileChannel} kept open until {@link #close()}. The writer parks
+ * while the ring is empty and is only woken by the append which finds it parked.
+ * <p>
+ * With {@link Builder#syncWithin(Duration)} written lines are also forced to the device, once per batch of lines
+ * written within the latency bound (group commit), instead of once per line. When the ring is full, an append either
+ * waits for the writer ({@link OverflowPolicy#BLOCK}) or drops the line ({@link OverflowPolicy#DROP}).
+ */
+public class AsyncFileAppender implements Closeable {
+
+    private static final long IDLE_PARK_NANOS = 1_000_000_000L;
+    private static final long FULL_PARK_NANOS = 50_000L;
+
+    /**
+     * What an append does when the ring buffer is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Wait until the writer frees a slot.
+         */
+        BLOCK,
+        /**
+         * Drop the line, the append returns {@code false}.
+         */
+        DROP
+    }
+
+    private final File file;
+    private final FileChannel channel;
+    private final CharsetEncoder encoder;
+    private final byte[] separator;
+    private final OverflowPolicy overflowPolicy;
+    private final long syncNanos;
+    private final ByteBuffer buffer;
+
+    private final String[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long head;
+
+    private final Thread writer;
+    private final Object commitLock = new Object();
+    private volatile boolean parked;
+    private volatile boolean closed;
+    private volatile long flushTarget;
+    private volatile long committed;
+    private volatile IOException failure;
+
+    private AsyncFileAppender(Builder builder) throws IOException {
+        this.file = builder.file;
+        this.encoder = builder.charset.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.separator = builder.separator == null ? new byte[0] : builder.separator.getBytes(builder.charset);
+        this.overflowPolicy = builder.overflowPolicy;
+        this.syncNanos = builder.syncWithin == null ? -1 : builder.syncWithin.toNanos();
+        this.buffer = ByteBuffer.allocateDirect(builder.bufferSize);
+
+        int capacity = Integer.highestOneBit(builder.capacity - 1) << 1;
+        this.slots = new String[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int index = 0; index < capacity; index++) {
+            this.sequences.set(index, index);
+        }
+        this.mask = capacity - 1;
+
+        FileHelper.mkParentDirs(this.file);
+        this.channel = FileChannel.open(this.file.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.writer = new Thread(this::writeLoop, "AsyncFileAppender-" + this.file.getName());
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public static Builder builder(File destFile) {
+        return new Builder(destFile);
+    }
+
+    /**
+     * Appends {@code line} to the ring buffer.
+     *
+     * @return {@code false} if the line is dropped by {@link OverflowPolicy#DROP}.
+     * @throws IORuntimeException if the writer failed
+     * @throws IllegalStateException if the appender is closed
+     */
+    public boolean append(String line) {
+        Require.checkNotNull(line);
+        checkOpen();
+
+        while (!offer(line)) {
+            if (this.overflowPolicy == OverflowPolicy.DROP) {
+                this.dropped.incrementAndGet();
+                return false;
+            }
+            wakeWriter();
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+            checkOpen();
+        }
+        if (this.parked) {
+            wakeWriter();
+        }
+        return true;
+    }
+
+    /**
+     * Waits until the lines appended before are written, and forced to the device if {@link Builder#syncWithin(Duration)}
+     * is set.
+     *
+     * @throws IORuntimeException if the writer failed
+     */
+    public void flush() {
+        long target = this.tail.get();
+        synchronized (this.commitLock) {
+            if (target > this.flushTarget) {
+                this.flushTarget = target;
+            }
+        }
+        wakeWriter();
+
+        boolean interrupted = false;
+        synchronized (this.commitLock) {
+            while (this.committed < target && this.failure == null && this.writer.isAlive()) {
+                try {
+                    this.commitLock.wait(100);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        checkFailure();
+    }
+
+    /**
+     * Number of lines dropped because the ring buffer was full.
+     */
+    public long dropped() {
+        return this.dropped.get();
+    }
+
+    /**
+     * Number of lines written to the channel, and forced if {@link Builder#syncWithin(Duration)} is set.
+     */
+    public long written() {
+        return this.committed;
+    }
+
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * Writes the pending lines, forces them if syncing is enabled, closes the channel and stops the writer thread. Lines
+     * appended concurrently with closing may be lost.
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        wakeWriter();
+
+        boolean interrupted = false;
+        while (this.writer.isAlive()) {
+            try {
+                this.writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        checkFailure();
+    }
+
+    private boolean offer(String line) {
+        while (true) {
+            long claim = this.tail.get();
+            int index = (int) (claim & this.mask);
+            long diff = this.sequences.get(index) - claim;
+            if (diff == 0) {
+                if (this.tail.compareAndSet(claim, claim + 1)) {
+                    this.slots[index] = line;
+                    this.sequences.set(index, claim + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Takes the next line, or {@code null} if it is not published yet.
+     */
+    private String poll() {
+        int index = (int) (this.head & this.mask);
+        if (this.sequences.get(index) != this.head + 1) {
+            return null;
+        }
+        String line = this.slots[index];
+        this.slots[index] = null;
+        this.sequences.lazySet(index, this.head + this.slots.length);
+        this.head++;
+        return line;
+    }
+
+    private void writeLoop() {
+        long syncDeadline = Long.MAX_VALUE;
+        long synced = 0;
+        try {
+            while (true) {
+                boolean closing = this.closed;
+                long written = this.head;
+                String line;
+                while ((line = poll()) != null) {
+                    encode(line);
+                }
+                if (this.head == written && this.head < this.tail.get()) {
+                    Thread.yield();
+                    continue;
+                }
+                writeBuffer();
+
+                if (this.head > written && this.syncNanos >= 0 && syncDeadline == Long.MAX_VALUE) {
+                    syncDeadline = System.nanoTime() + this.syncNanos;
+                }
+                if (synced < this.head && this.syncNanos >= 0
+                    && (closing || this.flushTarget > synced || System.nanoTime() - syncDeadline >= 0)) {
+                    this.channel.force(false);
+                    synced = this.head;
+                    syncDeadline = Long.MAX_VALUE;
+                }
+                commit(this.syncNanos >= 0 ? synced : this.head);
+
+                if (closing && this.head == this.tail.get()) {
+                    return;
+                }
+                if (this.head == written) {
+                    park(syncDeadline);
+                }
+            }
+        } catch (IOException e) {
+            this.failure = e;
+        } finally {
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                if (this.failure == null) {
+                    this.failure = e;
+                }
+            }
+            synchronized (this.commitLock) {
+                this.commitLock.notifyAll();
+            }
+        }
+    }
+
+    private void park(long syncDeadline) {
+        this.parked = true;
+        if (!this.closed && this.flushTarget <= this.committed && this.sequences.get((int) (this.head & this.mask)) != this.head + 1) {
+            long nanos = syncDeadline == Long.MAX_VALUE ? IDLE_PARK_NANOS : syncDeadline - System.nanoTime();
+            if (nanos > 0) {
+                LockSupport.parkNanos(this, nanos);
+            }
+        }
+        this.parked = false;
+    }
+
+    private void encode(String line) throws IOException {
+        this.encoder.reset();
+        CharBuffer chars = CharBuffer.wrap(line);
+        while (this.encoder.encode(chars, this.buffer, true).isOverflow()) {
+            writeBuffer();
+        }
+        while (this.encoder.flush(this.buffer).isOverflow()) {
+            writeBuffer();
+        }
+        if (this.buffer.remaining() < this.separator.length) {
+            writeBuffer();
+        }
+        this.buffer.put(this.separator);
+    }
+
+    private void writeBuffer() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+
+    private void commit(long lines) {
+        if (lines > this.committed) {
+            this.committed = lines;
+            synchronized (this.commitLock) {
+                this.commitLock.notifyAll();
+            }
+        }
+    }
+
+    private void wakeWriter() {
+        LockSupport.unpark(this.writer);
+    }
+
+    private void checkOpen() {
+        checkFailure();
+        if (this.closed) {
+            throw new IllegalStateException("Appender is closed: " + this.file);
+        }
+    }
+
+    private void checkFailure() {
+        IOException e = this.failure;
+        if (e != null) {
+            throw new IORuntimeException(e, "Failed to append to %s", this.file);
+        }
+    }
+
+    public static final class Builder {
+        private final File file;
+        private Charset charset = Charsets.UTF_8;
+        private String separator = System.lineSeparator();
+        private int capacity = 64 * 1024;
+        private int bufferSize = 64 * 1024;
+        private Duration syncWithin;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+        private Builder(File file) {
+            this.file = Require.checkNotNull(file);
+        }
+
+        public Builder charset(Charset charset) {
+            this.charset = Require.checkNotNull(charset);
+            return this;
+        }
+
+        /**
+         * Whether a line separator of the system is written after each line, true by default.
+         */
+        public Builder newLineMode(boolean isNewLineMode) {
+            this.separator = isNewLineMode ? System.lineSeparator() : null;
+            return this;
+        }
+
+        public Builder lineSeparator(LineSeparator separator) {
+            this.separator = Require.checkNotNull(separator).getValue();
+            return this;
+        }
+
+        /**
+         * Number of lines the ring buffer holds, rounded up to a power of two.
+         */
+        public Builder capacity(int capacity) {
+            Require.check(capacity > 1 && capacity <= 1 << 30, "Capacity must be between 2 and 2^30: %s", capacity);
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Size of the buffer lines are encoded into, which is written at once.
+         */
+        public Builder bufferSize(int bufferSize) {
+            Require.check(bufferSize >= 16, "Buffer size must be at least 16: %s", bufferSize);
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Forces written lines to the device within {@code maxLatency}, lines written meanwhile share one force. Zero
+         * forces after each batch written.
+         */
+        public Builder syncWithin(Duration maxLatency) {
+            Require.check(!Require.checkNotNull(maxLatency).isNegative(), "Latency must not be negative: %s", maxLatency);
+            this.syncWithin = maxLatency;
+            return this;
+        }
+
+        public Builder onOverflow(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = Require.checkNotNull(overflowPolicy);
+            return this;
+        }
+
+        /**
+         * Opens the file for appending and starts the writer thread.
+         *
+         * @throws IORuntimeException if the file can't be opened
+         */
+        public AsyncFileAppender build() {
+            try {
+                return new AsyncFileAppender(this);
+            } catch (IOException e) {
+                throw new IORuntimeException(e, "Failed to open %s", this.file);
+            }
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.infilos.utils.io;
+
+import com.infilos.utils.Pool;
+import com.infilos.utils.PoolLease;
+import com.infilos.utils.Require;
+import com.infilos.utils.pool.PoolRefType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Non-blocking file reads and writes on {@link AsynchronousFileChannel}, completed on the threads of the configured
+ * executor, or of the default channel group if none. Data is transferred through pooled direct buffers, so heap arrays
+ * are not staged by temporary buffers of the JDK:
+ * <pre>
+ * AsyncFiles files = AsyncFiles.builder().executor(ioPool).bufferSize(256 * 1024).build();
+ * files.readBytes(path).thenApply(this::parse);
+ * </pre>
+ * Each operation opens and closes its own channel. Safe to share between threads.
+ */
+public final class AsyncFiles {
+
+    private static final AsyncFiles SHARED = builder().build();
+
+    private final ExecutorService executor;
+    private final int bufferSize;
+    private final Pool<ByteBuffer> buffers;
+
+    private AsyncFiles(Builder builder) {
+        this.executor = builder.executor;
+        this.bufferSize = builder.bufferSize;
+        this.buffers = Pool.<ByteBuffer>builder()
+            .capacity(builder.buffers)
+            .creator(() -> ByteBuffer.allocateDirect(builder.bufferSize))
+            .reseter(ByteBuffer::clear)
+            .refType(PoolRefType.Soft)
+            .build();
+    }
+
+    /**
+     * Instance on the default channel group with 64KB buffers, used by {@code FileHelper}.
+     */
+    public static AsyncFiles shared() {
+        return SHARED;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Reads the whole file.
+     */
+    public CompletableFuture<byte[]> readBytes(Path path) {
+        final AsynchronousFileChannel channel;
+        final long size;
+        try {
+            channel = open(path, Collections.singleton(StandardOpenOption.READ));
+            size = channel.size();
+        } catch (IOException e) {
+            return failed(e);
+        }
+        if (size > Integer.MAX_VALUE - 8) {
+            closeQuietly(channel);
+            return failed(new IOException("File is too large to read into an array: " + path));
+        }
+
+        return new Read(channel, 0, (int) size).start();
+    }
+
+    /**
+     * Reads {@code length} bytes at {@code offset}, fewer if the file ends before.
+     */
+    public CompletableFuture<byte[]> read(Path path, long offset, int length) {
+        Require.check(offset >= 0 && length >= 0, "Offset and length must not be negative: %s, %s", offset, length);
+        final AsynchronousFileChannel channel;
+        try {
+            channel = open(path, Collections.singleton(StandardOpenOption.READ));
+        } catch (IOException e) {
+            return failed(e);
+        }
+
+        return new Read(channel, offset, length).start();
+    }
+
+    /**
+     * Writes the remaining bytes of {@code data} into the file, which is created or truncated. The position of
+     * {@code data} is not changed, its content must not be modified until completion.
+     *
+     * @return the number of bytes written
+     */
+    public CompletableFuture<Long> write(Path path, ByteBuffer data) {
+        return write(path, data, 0,
+            EnumSet.of(StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Writes the remaining bytes of {@code data} at {@code position} of the file, which is created if absent.
+     *
+     * @see #write(Path, ByteBuffer)
+     */
+    public CompletableFuture<Long> write(Path path, ByteBuffer data, long position) {
+        Require.check(position >= 0, "Position must not be negative: %s", position);
+        return write(path, data, position, EnumSet.of(StandardOpenOption.CREATE, StandardOpenOption.WRITE));
+    }
+
+    private CompletableFuture<Long> write(Path path, ByteBuffer data, long position, Set<? extends OpenOption> options) {
+        final AsynchronousFileChannel channel;
+        try {
+            channel = open(path, options);
+        } catch (IOException e) {
+            return failed(e);
+        }
+
+        return new Write(channel, data.duplicate(), position).start();
+    }
+
+    private AsynchronousFileChannel open(Path path, Set<? extends OpenOption> options) throws IOException {
+        return AsynchronousFileChannel.open(path, options, executor);
+    }
+
+    private Staging borrow() {
+        final PoolLease<ByteBuffer> lease = buffers.tryAcquire().orElse(null);
+        // a heap buffer beyond the pool, direct memory would only be freed by GC
+        return new Staging(lease, null != lease ? lease.get() : ByteBuffer.allocate(bufferSize));
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable error) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(error);
+        return future;
+    }
+
+    private static void closeQuietly(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * A pooled direct buffer, or a heap buffer allocated when the pool is exhausted.
+     */
+    private static final class Staging {
+        private final PoolLease<ByteBuffer> lease;
+        private final ByteBuffer buffer;
+
+        private Staging(PoolLease<ByteBuffer> lease, ByteBuffer buffer) {
+            this.lease = lease;
+            this.buffer = buffer;
+        }
+
+        private void release() {
+            if (null != lease) {
+                lease.release();
+            }
+        }
+    }
+
+    /**
+     * Reads buffer by buffer into the result array, each read issued on completion of the previous one.
+     */
+    private final class Read implements CompletionHandler<Integer, Void> {
+        private final CompletableFuture<byte[]> future = new CompletableFuture<>();
+        private final AsynchronousFileChannel channel;
+        private final long position;
+        private final byte[] bytes;
+        private Staging staging;
+        private int filled;
+
+        private Read(AsynchronousFileChannel channel, long position, int length) {
+            this.channel = channel;
+            this.position = position;
+            this.bytes = new byte[length];
+        }
+
+        private CompletableFuture<byte[]> start() {
+            if (bytes.length == 0) {
+                finish();
+            } else {
+                staging = borrow();
+                next();
+            }
+            return future;
+        }
+
+        private void next() {
+            final ByteBuffer buffer = staging.buffer;
+            buffer.clear().limit(Math.min(buffer.capacity(), bytes.length - filled));
+            try {
+                channel.read(buffer, position + filled, null, this);
+            } catch (RuntimeException e) {
+                // thrown instead of failing the handler, like a closed group or a rejecting executor
+                failed(e, null);
+            }
+        }
+
+        @Override
+        public void completed(Integer read, Void attachment) {
+            if (read < 0) {
+                finish();
+                return;
+            }
+            staging.buffer.flip();
+            staging.buffer.get(bytes, filled, read);
+            filled += read;
+            if (filled < bytes.length) {
+                next();
+            } else {
+                finish();
+            }
+        }
+
+        @Override
+        public void failed(Throwable error, Void attachment) {
+            release();
+            future.completeExceptionally(error);
+        }
+
+        private void finish() {
+            release();
+            future.complete(filled == bytes.length ? bytes : Arrays.copyOf(bytes, filled));
+        }
+
+        private void release() {
+            if (null != staging) {
+                staging.release();
+                staging = null;
+            }
+            closeQuietly(channel);
+        }
+    }
+
+    /**
+     * Writes a direct source as is, or stages a heap source buffer by buffer, each write issued on completion of the
+     * previous one.
+     */
+    private final class Write implements CompletionHandler<Integer, Void> {
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+        private final AsynchronousFileChannel channel;
+        private final ByteBuffer source;
+        private final long position;
+        private Staging staging;
+        private ByteBuffer pending;
+        private long written;
+
+        private Write(AsynchronousFileChannel channel, ByteBuffer source, long position) {
+            this.channel = channel;
+            this.source = source;
+            this.position = position;
+        }
+
+        private CompletableFuture<Long> start() {
+            if (!source.hasRemaining()) {
+                finish();
+            } else if (source.isDirect()) {
+                pending = source;
+                next();
+            } else {
+                staging = borrow();
+                pending = staging.buffer;
+                stage();
+                next();
+            }
+            return future;
+        }
+
+        private void stage() {
+            final ByteBuffer buffer = staging.buffer;
+            buffer.clear();
+            final int length = Math.min(buffer.remaining(), source.remaining());
+            final ByteBuffer chunk = source.slice();
+            chunk.limit(length);
+            buffer.put(chunk).flip();
+            source.position(source.position() + length);
+        }
+
+        private void next() {
+            try {
+                channel.write(pending, position + written, null, this);
+            } catch (RuntimeException e) {
+                // thrown instead of failing the handler, like a closed group or a rejecting executor
+                failed(e, null);
+            }
+        }
+
+        @Override
+        public void completed(Integer size, Void attachment) {
+            written += size;
+            if (!pending.hasRemaining() && null != staging && source.hasRemaining()) {
+                stage();
+            }
+            if (pending.hasRemaining()) {
+                next();
+            } else {
+                finish();
+            }
+        }
+
+        @Override
+        public void failed(Throwable error, Void attachment) {
+            release();
+            future.completeExceptionally(error);
+        }
+
+        private void finish() {
+            release();
+            future.complete(written);
+        }
+
+        private void release() {
+            if (null != staging) {
+                staging.release();
+                staging = null;
+            }
+            closeQuietly(channel);
+        }
+    }
+
+    public static final class Builder {
+        private ExecutorService executor;
+        private int bufferSize = 64 * 1024;
+        private int buffers = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+        private Builder() {
+        }
+
+        /**
+         * Executor of the channels to complete on, null for the default channel group.
+         */
+        public Builder executor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Size of the direct buffers each read or write is transferred through, 64KB by default.
+         */
+        public Builder bufferSize(int bufferSize) {
+            Require.check(bufferSize >= 512, "Buffer size must be at least 512: %s", bufferSize);
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Max number of pooled buffers, operations beyond it allocate their own heap buffers.
+         */
+        public Builder buffers(int buffers) {
+            Require.check(buffers > 0, "Buffers must be positive: %s", buffers);
+            this.buffers = buffers;
+            return this;
+        }
+
+        public AsyncFiles build() {
+            return new AsyncFiles(this);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.infilos.utils.io;
+
+import com.infilos.utils.Require;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Bounded pool of byte arrays of a fixed size, which {@link FastByteBuffer} and {@link FastByteArrayOutputStream} draw
+ * their chunks from and give back on reset. Chunks are created when the pool is empty and dropped when it's full, so
+ * at most {@code capacity} chunks are retained. Safe to share between threads.
+ */
+public final class ByteChunkPool {
+
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024;
+    public static final int DEFAULT_CAPACITY = 512;
+
+    private static final ByteChunkPool SHARED = new ByteChunkPool(DEFAULT_CHUNK_SIZE, DEFAULT_CAPACITY);
+
+    private final int chunkSize;
+    private final ArrayBlockingQueue<byte[]> chunks;
+
+    public ByteChunkPool(int chunkSize, int capacity) {
+        Require.check(chunkSize > 0, "Chunk size must be positive!");
+        Require.check(capacity > 0, "Capacity must be positive!");
+        this.chunkSize = chunkSize;
+        this.chunks = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * The pool of {@link #DEFAULT_CHUNK_SIZE} chunks shared in the JVM, retaining at most {@link #DEFAULT_CAPACITY} of them.
+     */
+    public static ByteChunkPool shared() {
+        return SHARED;
+    }
+
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Number of chunks currently retained.
+     */
+    public int pooled() {
+        return chunks.size();
+    }
+
+    /**
+     * Takes a pooled chunk, or creates one if none, its content is undefined.
+     */
+    public byte[] acquire() {
+        byte[] chunk = chunks.poll();
+        return null == chunk ? new byte[chunkSize] : chunk;
+    }
+
+    /**
+     * Gives back a chunk, which must not be used anymore. Chunks of other sizes are ignored.
+     */
+    public void release(byte[] chunk) {
+        if (null != chunk && chunk.length == chunkSize) {
+            chunks.offer(chunk);
+        }
+    }
+}
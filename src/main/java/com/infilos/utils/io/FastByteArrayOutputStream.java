@@ -3,8 +3,21 @@ package com.infilos.utils.io;
 import javax.annotation.Nonnull;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 
+/**
+ * Output stream into a {@link FastByteBuffer}. Created with a {@link ByteChunkPool}, the chunks are given back by
+ * {@link #reset()} and {@link #close()}, so the content must be consumed before closing:
+ * <pre>
+ * try (FastByteArrayOutputStream out = new FastByteArrayOutputStream(ByteChunkPool.shared())) {
+ *     serialize(response, out);
+ *     out.writeTo(channel);
+ * }
+ * </pre>
+ */
 public class FastByteArrayOutputStream extends OutputStream {
 
     private final FastByteBuffer buffer;
@@ -17,6 +30,10 @@ public class FastByteArrayOutputStream extends OutputStream {
         buffer = new FastByteBuffer(size);
     }
 
+    public FastByteArrayOutputStream(ByteChunkPool pool) {
+        buffer = new FastByteBuffer(pool);
+    }
+
     @Override
     public void write(@Nonnull byte[] b, int off, int len) {
         buffer.append(b, off, len);
@@ -31,9 +48,14 @@ public class FastByteArrayOutputStream extends OutputStream {
         return buffer.size();
     }
 
+    /**
+     * Gives back the chunks if pooled, noop otherwise.
+     */
     @Override
     public void close() {
-        // noop
+        if (buffer.isPooled()) {
+            buffer.reset();
+        }
     }
 
     public void reset() {
@@ -42,6 +64,9 @@ public class FastByteArrayOutputStream extends OutputStream {
 
     public void writeTo(OutputStream out) throws IORuntimeException {
         final int index = buffer.index();
+        if (index < 0) {
+            return;
+        }
         byte[] buf;
         try {
             for (int i = 0; i < index; i++) {
@@ -54,6 +79,44 @@ public class FastByteArrayOutputStream extends OutputStream {
         }
     }
 
+    /**
+     * Writes the content to {@code channel} without copy, by a gathering write if supported.
+     *
+     * @return the number of bytes written
+     */
+    public long writeTo(WritableByteChannel channel) throws IORuntimeException {
+        final ByteBuffer[] views = buffer.toByteBuffers();
+        long written = 0;
+        try {
+            if (channel instanceof GatheringByteChannel) {
+                final GatheringByteChannel gathering = (GatheringByteChannel) channel;
+                int index = 0;
+                while (index < views.length) {
+                    written += gathering.write(views, index, views.length - index);
+                    while (index < views.length && !views[index].hasRemaining()) {
+                        index++;
+                    }
+                }
+            } else {
+                for (ByteBuffer view : views) {
+                    while (view.hasRemaining()) {
+                        written += channel.write(view);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+        return written;
+    }
+
+    /**
+     * Views of the content without copy, valid until {@link #reset()} or {@link #close()}.
+     */
+    public ByteBuffer[] toByteBuffers() {
+        return buffer.toByteBuffers();
+    }
+
     public byte[] toByteArray() {
         return buffer.toArray();
     }
@@ -1,5 +1,11 @@
 package com.infilos.utils.io;
 
+import java.nio.ByteBuffer;
+
+/**
+ * Growable byte buffer of chunks, which are never copied on growth. Chunks are allocated per need, or drawn from a
+ * {@link ByteChunkPool} and given back to it by {@link #reset()} if created with one.
+ */
 public class FastByteBuffer {
 
     private byte[][] buffers = new byte[16][];
@@ -10,21 +16,37 @@ public class FastByteBuffer {
     private int size;
 
     private final int minChunkLen;
+    private final ByteChunkPool pool;
 
     public FastByteBuffer() {
-        this.minChunkLen = 1024;
+        this(1024);
     }
 
     public FastByteBuffer(int size) {
         this.minChunkLen = Math.abs(size);
+        this.pool = null;
     }
 
-    private void needNewBuffer(int newSize) {
-        int delta = newSize - size;
-        int newBufferSize = Math.max(minChunkLen, delta);
+    /**
+     * Buffer of chunks drawn from the pool, which are given back by {@link #reset()}.
+     */
+    public FastByteBuffer(ByteChunkPool pool) {
+        this.minChunkLen = pool.chunkSize();
+        this.pool = pool;
+    }
 
+    public boolean isPooled() {
+        return null != pool;
+    }
+
+    private void needNewBuffer(int newSize) {
         currentBufferIndex++;
-        currentBuffer = new byte[newBufferSize];
+        if (null != pool) {
+            currentBuffer = pool.acquire();
+        } else {
+            int delta = newSize - size;
+            currentBuffer = new byte[Math.max(minChunkLen, delta)];
+        }
         offset = 0;
 
         // add buffer
@@ -47,27 +69,17 @@ public class FastByteBuffer {
         if (len == 0) {
             return this;
         }
-        int newSize = size + len;
         int remaining = len;
 
-        if (currentBuffer != null) {
-            // first try to fill current buffer
-            int part = Math.min(remaining, currentBuffer.length - offset);
-            System.arraycopy(array, end - remaining, currentBuffer, offset, part);
-            remaining -= part;
-            offset += part;
-            size += part;
-        }
-
-        if (remaining > 0) {
-            // still some data left
-            // ask for new buffer
-            needNewBuffer(newSize);
+        while (remaining > 0) {
+            if ((currentBuffer == null) || (offset == currentBuffer.length)) {
+                // fits the rest at once unless chunks are pooled
+                needNewBuffer(size + remaining);
+            }
 
-            // then copy remaining
-            // but this time we are sure that it will fit
             int part = Math.min(remaining, currentBuffer.length - offset);
             System.arraycopy(array, end - remaining, currentBuffer, offset, part);
+            remaining -= part;
             offset += part;
             size += part;
         }
@@ -122,7 +134,16 @@ public class FastByteBuffer {
         return buffers[index];
     }
 
+    /**
+     * Empties the buffer, pooled chunks are given back so arrays and views got before must not be used anymore.
+     */
     public void reset() {
+        if (null != pool) {
+            for (int i = 0; i <= currentBufferIndex; i++) {
+                pool.release(buffers[i]);
+                buffers[i] = null;
+            }
+        }
         size = 0;
         offset = 0;
         currentBufferIndex = -1;
@@ -130,6 +151,21 @@ public class FastByteBuffer {
         buffersCount = 0;
     }
 
+    /**
+     * Returns views of the filled parts of the chunks in order, without copy, for gathering writes. The views share the
+     * chunks, so they are only valid until {@link #reset()}.
+     */
+    public ByteBuffer[] toByteBuffers() {
+        ByteBuffer[] views = new ByteBuffer[currentBufferIndex + 1];
+        for (int i = 0; i < currentBufferIndex; i++) {
+            views[i] = ByteBuffer.wrap(buffers[i]);
+        }
+        if (currentBufferIndex >= 0) {
+            views[currentBufferIndex] = ByteBuffer.wrap(currentBuffer, 0, offset);
+        }
+        return views;
+    }
+
     public byte[] toArray() {
         int pos = 0;
         byte[] array = new byte[size];
@@ -9,6 +9,10 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Buffers lines and writes them in the calling thread once the capacity is reached, not thread safe. See
+ * {@link AsyncFileAppender} for appending from many threads.
+ */
 public class FileAppender implements Serializable {
     private static final long serialVersionUID = 1L;
 
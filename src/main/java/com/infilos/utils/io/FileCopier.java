@@ -3,16 +3,34 @@ package com.infilos.utils.io;
 import com.infilos.utils.Arrays;
 import com.infilos.utils.FileHelper;
 import com.infilos.utils.Require;
+import com.infilos.utils.internal.FileChannels;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.CopyOption;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 
+/**
+ * Copies or moves a file or directory tree, by the rules of {@link #copy()}.
+ * <p>
+ * Trees are copied one file after another by default. With {@link #setParallelism(int)} or {@link #setPool(ForkJoinPool)}
+ * directories are walked by work-stealing tasks and files are copied concurrently, files larger than twice
+ * {@link #setChunkSize(long)} are copied by chunks of positional channel transfers in parallel, unless only files are
+ * copied. The copy filter, override and copy attributes settings apply the same in both modes. Not thread safe, each copier runs one copy at a time.
+ */
 public class FileCopier {
+    public static final long DEFAULT_CHUNK_SIZE = 64L << 20;
+
     protected File src;
     protected File dest;
     private Predicate<File> copyFilter;
@@ -20,6 +38,13 @@ public class FileCopier {
     private boolean isCopyAttributes;
     private boolean isCopyContentIfDir;
     private boolean isOnlyCopyFile;
+    private int parallelism;
+    private ForkJoinPool pool;
+    private long chunkSize = DEFAULT_CHUNK_SIZE;
+    private StreamProgress progress;
+
+    private boolean isMoving;
+    private final AtomicLong copiedBytes = new AtomicLong();
 
     public static FileCopier create(String srcPath, String destPath) {
         return new FileCopier(FileHelper.of(srcPath), FileHelper.of(destPath));
@@ -97,6 +122,58 @@ public class FileCopier {
         return this;
     }
 
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Copies in parallel with a pool of {@code parallelism} threads created for each copy, which bounds the number of
+     * concurrent file transfers. 0 or 1 copies sequentially.
+     */
+    public FileCopier setParallelism(int parallelism) {
+        Require.check(parallelism >= 0, "Parallelism must not be negative!");
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Copies in parallel on the given pool, which is not shut down after copy, this overrides {@link #setParallelism(int)}.
+     */
+    public FileCopier setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Size of the chunks transferred in parallel for files larger than twice of it, only used in parallel mode and not
+     * with {@link #setOnlyCopyFile(boolean)}.
+     */
+    public FileCopier setChunkSize(long chunkSize) {
+        Require.check(chunkSize > 0, "Chunk size must be positive!");
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    public StreamProgress getProgress() {
+        return progress;
+    }
+
+    /**
+     * Receives the total bytes copied so far after each file or chunk, called from the copying threads in parallel mode.
+     */
+    public FileCopier setProgress(StreamProgress progress) {
+        this.progress = progress;
+        return this;
+    }
+
     /**
      * 执行拷贝<br>
      * 拷贝规则为：
@@ -114,6 +191,36 @@ public class FileCopier {
      * @throws IORuntimeException IO异常
      */
     public File copy() throws IORuntimeException {
+        return execute(false);
+    }
+
+    /**
+     * Moves by the rules of {@link #copy()}, the copied source files are deleted and so are the source directories left
+     * empty. Without copy filter or only-copy-file mode, a single rename is tried first if the target doesn't exist.
+     *
+     * @return 移动后目标的文件或目录
+     * @throws IORuntimeException IO异常
+     */
+    public File move() throws IORuntimeException {
+        if (null == copyFilter && !isOnlyCopyFile && null != src && null != dest && src.exists() && !src.equals(dest)) {
+            final File target = src.isDirectory() ?
+                (isCopyContentIfDir ? dest : new File(dest, src.getName())) :
+                (dest.isDirectory() ? new File(dest, src.getName()) : dest);
+            if (!target.exists() && !FileHelper.isChild(src, target)) {
+                FileHelper.mkParentDirs(target);
+                try {
+                    Files.move(src.toPath(), target.toPath());
+                    return dest;
+                } catch (IOException ignored) {
+                    // e.g. across file stores, fallback to copy and delete
+                }
+            }
+        }
+
+        return execute(true);
+    }
+
+    private File execute(boolean isMoving) throws IORuntimeException {
         final File src = this.src;
         final File dest = this.dest;
         Require.checkNotNull(src, "Source File is null !");
@@ -127,6 +234,12 @@ public class FileCopier {
             throw new IORuntimeException("Files '{}' and '{}' are equal", src, dest);
         }
 
+        this.isMoving = isMoving;
+        this.copiedBytes.set(0);
+        if (null != progress) {
+            progress.start();
+        }
+
         if (src.isDirectory()) {
             if (dest.exists() && !dest.isDirectory()) {
                 throw new IORuntimeException("Src is a directory but dest is a file!");
@@ -136,26 +249,40 @@ public class FileCopier {
             }
 
             final File subTarget = isCopyContentIfDir ? dest : FileHelper.mkdir(FileHelper.of(dest, src.getName()));
-            internalCopyDirContent(src, subTarget);
+            if (isParallel()) {
+                invoke(new DirectoryCopy(src, subTarget));
+            } else {
+                internalCopyDirContent(src, subTarget);
+            }
+        } else if (isParallel()) {
+            invoke(new FileCopy(src, dest));
         } else {
             internalCopyFile(src, dest);
         }
+
+        if (null != progress) {
+            progress.finish();
+        }
         return dest;
     }
 
-    private void internalCopyDirContent(File src, File dest) throws IORuntimeException {
-        if (null != copyFilter && !copyFilter.test(src)) {
-            return;
-        }
+    private boolean isParallel() {
+        return null != pool || parallelism > 1;
+    }
 
-        if (!dest.exists()) {
-            //noinspection ResultOfMethodCallIgnored
-            dest.mkdirs();
-        } else if (!dest.isDirectory()) {
-            throw new IORuntimeException(String.format("Src [%s] is a directory but dest [%s] is a file!", src.getPath(), dest.getPath()));
+    private void invoke(ForkJoinTask<?> task) {
+        final ForkJoinPool workers = null != pool ? pool : new ForkJoinPool(parallelism);
+        try {
+            workers.invoke(task);
+        } finally {
+            if (workers != pool) {
+                workers.shutdown();
+            }
         }
+    }
 
-        final String[] files = src.list();
+    private void internalCopyDirContent(File src, File dest) throws IORuntimeException {
+        final String[] files = prepareDir(src, dest);
         if (Arrays.isNotEmpty(files)) {
             File srcFile;
             File destFile;
@@ -169,6 +296,28 @@ public class FileCopier {
                 }
             }
         }
+        if (null != files) {
+            deleteMovedDir(src);
+        }
+    }
+
+    /**
+     * @return the names in {@code src}, or null if it's filtered
+     */
+    private String[] prepareDir(File src, File dest) throws IORuntimeException {
+        if (null != copyFilter && !copyFilter.test(src)) {
+            return null;
+        }
+
+        if (!dest.exists()) {
+            //noinspection ResultOfMethodCallIgnored
+            dest.mkdirs();
+        } else if (!dest.isDirectory()) {
+            throw new IORuntimeException(String.format("Src [%s] is a directory but dest [%s] is a file!", src.getPath(), dest.getPath()));
+        }
+
+        final String[] files = src.list();
+        return null == files ? new String[0] : files;
     }
 
     private void internalCopyFile(File src, File dest) throws IORuntimeException {
@@ -189,6 +338,25 @@ public class FileCopier {
             dest.getParentFile().mkdirs();
         }
 
+        final long length = src.length();
+        final boolean isCopied;
+        // same-named files of only-copy-file mode share a target, so they are copied whole to never mix their chunks
+        if (isParallel() && !isOnlyCopyFile && length > chunkSize * 2 && ForkJoinTask.inForkJoinPool()) {
+            isCopied = copyByChunks(src.toPath(), dest.toPath(), length);
+        } else {
+            isCopied = copyWhole(src.toPath(), dest.toPath(), length);
+        }
+
+        if (isCopied && isMoving) {
+            try {
+                Files.delete(src.toPath());
+            } catch (IOException e) {
+                throw new IORuntimeException(e);
+            }
+        }
+    }
+
+    private boolean copyWhole(Path src, Path dest, long length) throws IORuntimeException {
         final ArrayList<CopyOption> optionList = new ArrayList<>(2);
         if (isOverride) {
             optionList.add(StandardCopyOption.REPLACE_EXISTING);
@@ -198,9 +366,138 @@ public class FileCopier {
         }
 
         try {
-            Files.copy(src.toPath(), dest.toPath(), optionList.toArray(new CopyOption[0]));
+            Files.copy(src, dest, optionList.toArray(new CopyOption[0]));
+        } catch (FileAlreadyExistsException e) {
+            // created by a concurrent copy of only-copy-file mode, skipped as not override
+            return false;
         } catch (IOException e) {
             throw new IORuntimeException(e);
         }
+        reportCopied(length);
+        return true;
+    }
+
+    private boolean copyByChunks(Path src, Path dest, long length) throws IORuntimeException {
+        final OpenOption create = isOverride ? StandardOpenOption.CREATE : StandardOpenOption.CREATE_NEW;
+        try (FileChannel channel = FileChannel.open(dest, create, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            FileChannels.presize(channel, length);
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+
+        final List<ChunkCopy> chunks = new ArrayList<>((int) (length / chunkSize) + 1);
+        for (long position = 0; position < length; position += chunkSize) {
+            chunks.add(new ChunkCopy(src, dest, position, Math.min(chunkSize, length - position)));
+        }
+        ForkJoinTask.invokeAll(chunks);
+
+        copyAttributes(src, dest, isCopyAttributes);
+        return true;
+    }
+
+    /**
+     * Copies the POSIX permissions like {@link Files#copy} does, and the times if {@code withTimes} like
+     * {@link StandardCopyOption#COPY_ATTRIBUTES}.
+     */
+    private static void copyAttributes(Path src, Path dest, boolean withTimes) throws IORuntimeException {
+        try {
+            if (withTimes) {
+                final BasicFileAttributes attributes = Files.readAttributes(src, BasicFileAttributes.class);
+                Files.getFileAttributeView(dest, BasicFileAttributeView.class)
+                    .setTimes(attributes.lastModifiedTime(), attributes.lastAccessTime(), attributes.creationTime());
+            }
+            if (null != Files.getFileAttributeView(src, PosixFileAttributeView.class)) {
+                Files.setPosixFilePermissions(dest, Files.getPosixFilePermissions(src));
+            }
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    private void deleteMovedDir(File dir) throws IORuntimeException {
+        if (!isMoving) {
+            return;
+        }
+        try {
+            Files.delete(dir.toPath());
+        } catch (DirectoryNotEmptyException ignored) {
+            // keeps the filtered or not overridden files
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    private void reportCopied(long bytes) {
+        final long total = copiedBytes.addAndGet(bytes);
+        if (null != progress) {
+            progress.progress(total);
+        }
+    }
+
+    private final class DirectoryCopy extends RecursiveAction {
+        private final File src;
+        private final File dest;
+
+        private DirectoryCopy(File src, File dest) {
+            this.src = src;
+            this.dest = dest;
+        }
+
+        @Override
+        protected void compute() {
+            final String[] files = prepareDir(src, dest);
+            if (null == files) {
+                return;
+            }
+
+            final List<RecursiveAction> tasks = new ArrayList<>(files.length);
+            for (String file : files) {
+                final File srcFile = new File(src, file);
+                final File destFile = isOnlyCopyFile ? dest : new File(dest, file);
+                tasks.add(srcFile.isDirectory() ? new DirectoryCopy(srcFile, destFile) : new FileCopy(srcFile, destFile));
+            }
+            invokeAll(tasks);
+            deleteMovedDir(src);
+        }
+    }
+
+    private final class FileCopy extends RecursiveAction {
+        private final File src;
+        private final File dest;
+
+        private FileCopy(File src, File dest) {
+            this.src = src;
+            this.dest = dest;
+        }
+
+        @Override
+        protected void compute() {
+            internalCopyFile(src, dest);
+        }
+    }
+
+    /**
+     * Transfers a range of the source into the same range of the target, with channels of its own.
+     */
+    private final class ChunkCopy extends RecursiveAction {
+        private final Path src;
+        private final Path dest;
+        private final long position;
+        private final long count;
+
+        private ChunkCopy(Path src, Path dest, long position, long count) {
+            this.src = src;
+            this.dest = dest;
+            this.position = position;
+            this.count = count;
+        }
+
+        @Override
+        protected void compute() {
+            FileChannels.transferRange(src, position, dest, position, count, StandardOpenOption.WRITE);
+            reportCopied(count);
+        }
     }
-}
\ No newline at end of file
+}
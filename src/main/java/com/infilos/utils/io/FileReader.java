@@ -111,6 +111,20 @@ public class FileReader extends FileWrapper {
         return readLines(new ArrayList<>());
     }
 
+    /**
+     * Opens a cursor over the lines of the memory-mapped file, which exposes each line as bytes and decodes it only on
+     * demand, instead of creating a string per line.
+     *
+     * @see LineCursor
+     */
+    public LineCursor openLineCursor() throws IORuntimeException {
+        try {
+            return new LineCursor(this.file.toPath(), this.charset);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
     public <T> T read(ReaderHandler<T> readerHandler) throws IORuntimeException {
         BufferedReader reader = null;
         T result;
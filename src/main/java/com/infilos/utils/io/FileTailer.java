@@ -0,0 +1,398 @@
+package com.infilos.utils.io;
+
+import com.infilos.utils.Charsets;
+import com.infilos.utils.Loggable;
+import com.infilos.utils.Require;
+import com.infilos.utils.internal.MappedLines;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Follows a growing file like {@code tail -F}, delivering the appended lines in batches on a daemon thread:
+ * <pre>
+ * try (FileTailer tailer = FileTailer.builder(log).batchSize(256).start(lines -&gt; lines.forEach(this::handle))) {
+ *     ...
+ * }
+ * </pre>
+ * The file is kept open and read from where the last read stopped into a reused buffer. The thread waits for changes of
+ * the directory by {@link WatchService}, and checks the file at least once per poll interval, which is the only work
+ * done while the file is idle, or if watching is unsupported.
+ * <p>
+ * Rotation is detected by a new file key (the inode on Unix) at the path, or by the size getting smaller than the read
+ * position. The rest of the rotated file is read before following the new file from its start, a truncated file is
+ * followed from its start. Without file keys, a file replaced by a larger one is not detected.
+ * <p>
+ * Lines end with {@code \n}, a {@code \r} before it is dropped, and a last line is only delivered once ended. The batch
+ * list is reused, so consumers must copy the lines they keep after returning.
+ */
+public final class FileTailer implements Closeable, Loggable {
+
+    private final Path path;
+    private final Charset charset;
+    private final int batchSize;
+    private final long pollMillis;
+    private final boolean fromEnd;
+    private final List<String> batch;
+    private final Consumer<List<String>> consumer;
+    private final Consumer<Throwable> onError;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private volatile long lines;
+    private volatile long rotations;
+
+    private WatchService watcher;
+    private FileChannel channel;
+    private Object fileKey;
+    private boolean isFirstOpen = true;
+    private ByteBuffer buffer;
+
+    private FileTailer(Builder builder, Consumer<List<String>> consumer) {
+        this.path = builder.path.toAbsolutePath();
+        this.charset = builder.charset;
+        this.batchSize = builder.batchSize;
+        this.pollMillis = builder.pollInterval.toMillis();
+        this.fromEnd = builder.fromEnd;
+        this.buffer = ByteBuffer.allocate(builder.bufferSize);
+        this.batch = new ArrayList<>(builder.batchSize);
+        this.consumer = consumer;
+        this.onError = null != builder.onError ? builder.onError :
+            error -> log().error("Tailing {} stopped by error", this.path, error);
+
+        if (builder.isWatching) {
+            this.watcher = watch(this.path.getParent());
+        }
+        this.thread = new Thread(this::tailLoop, "FileTailer-" + this.path.getFileName());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public static Builder builder(Path path) {
+        return new Builder(path);
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Whether changes are watched, or only polled.
+     */
+    public boolean isWatching() {
+        return null != watcher;
+    }
+
+    public boolean isRunning() {
+        return running && thread.isAlive();
+    }
+
+    /**
+     * Number of lines delivered.
+     */
+    public long lines() {
+        return lines;
+    }
+
+    /**
+     * Number of rotations and truncations detected.
+     */
+    public long rotations() {
+        return rotations;
+    }
+
+    /**
+     * Stops tailing and waits for the thread to exit, the unended last line is dropped.
+     */
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(pollMillis + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void tailLoop() {
+        try {
+            while (running) {
+                boolean isChanged = false;
+                if (null == channel) {
+                    isChanged = open();
+                }
+                if (null != channel) {
+                    isChanged |= readAppended();
+                    isChanged |= followRotation();
+                }
+                deliver();
+                if (!isChanged) {
+                    await();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException | ClosedByInterruptException e) {
+            // closed
+        } catch (Throwable e) {
+            if (running) {
+                onError.accept(e);
+            }
+        } finally {
+            running = false;
+            closeChannel();
+            if (null != watcher) {
+                try {
+                    watcher.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether the file is opened
+     */
+    private boolean open() throws IOException {
+        final boolean isSkipping = isFirstOpen && fromEnd;
+        // a file created after start is read from its start
+        isFirstOpen = false;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        if (isSkipping) {
+            channel.position(channel.size());
+        }
+        buffer.clear();
+        return true;
+    }
+
+    /**
+     * @return whether any byte is read
+     */
+    private boolean readAppended() throws IOException {
+        boolean isRead = false;
+        while (running) {
+            if (!buffer.hasRemaining()) {
+                // a line longer than the buffer
+                final ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                buffer = larger.put(buffer);
+            }
+            if (channel.read(buffer) <= 0) {
+                break;
+            }
+            isRead = true;
+            splitLines();
+        }
+        return isRead;
+    }
+
+    private void splitLines() {
+        final byte[] array = buffer.array();
+        final int limit = buffer.position();
+        int start = 0;
+        for (int index = 0; index < limit; index++) {
+            if (array[index] == '\n') {
+                final int end = index > start && array[index - 1] == '\r' ? index - 1 : index;
+                batch.add(new String(array, start, end - start, charset));
+                lines++;
+                start = index + 1;
+                if (batch.size() >= batchSize) {
+                    deliver();
+                }
+            }
+        }
+        buffer.flip().position(start);
+        buffer.compact();
+    }
+
+    /**
+     * @return whether the file is rotated or truncated
+     */
+    private boolean followRotation() throws IOException {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            // moved away, keeps reading the old file until a new one is created
+            return false;
+        }
+
+        final Object key = attributes.fileKey();
+        if (null != key && null != fileKey && !key.equals(fileKey)) {
+            readAppended();
+            closeChannel();
+            rotations++;
+            open();
+            return true;
+        }
+        if (attributes.size() < channel.position()) {
+            if (!Objects.equals(key, fileKey) || null == key) {
+                closeChannel();
+                open();
+            } else {
+                channel.position(0);
+                buffer.clear();
+            }
+            rotations++;
+            return true;
+        }
+        return false;
+    }
+
+    private void deliver() {
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+            batch.clear();
+        }
+    }
+
+    private void await() throws InterruptedException {
+        if (null == watcher) {
+            TimeUnit.MILLISECONDS.sleep(pollMillis);
+            return;
+        }
+
+        final WatchKey key = watcher.poll(pollMillis, TimeUnit.MILLISECONDS);
+        if (null != key) {
+            key.pollEvents();
+            if (!key.reset()) {
+                // the directory is gone, falls back to polling
+                try {
+                    watcher.close();
+                } catch (IOException ignored) {
+                }
+                watcher = null;
+            }
+        }
+    }
+
+    private void closeChannel() {
+        if (null != channel) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            channel = null;
+        }
+    }
+
+    private WatchService watch(Path directory) {
+        if (null == directory) {
+            return null;
+        }
+        WatchService service = null;
+        try {
+            service = directory.getFileSystem().newWatchService();
+            directory.register(service,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            return service;
+        } catch (IOException | UnsupportedOperationException e) {
+            log().debug("Watching {} is unsupported, falls back to polling", directory, e);
+            if (null != service) {
+                try {
+                    service.close();
+                } catch (IOException ignored) {
+                }
+            }
+            return null;
+        }
+    }
+
+    public static final class Builder {
+        private final Path path;
+        private Charset charset = Charsets.UTF_8;
+        private int batchSize = 256;
+        private int bufferSize = 64 * 1024;
+        private Duration pollInterval = Duration.ofMillis(500);
+        private boolean fromEnd = true;
+        private boolean isWatching = true;
+        private Consumer<Throwable> onError;
+
+        private Builder(Path path) {
+            this.path = Require.checkNotNull(path);
+        }
+
+        /**
+         * Charset of the file, which must encode line feed as the single byte {@code 0x0A}.
+         */
+        public Builder charset(Charset charset) {
+            this.charset = MappedLines.checkCharset(Require.checkNotNull(charset));
+            return this;
+        }
+
+        /**
+         * Max number of lines delivered at once, 256 by default.
+         */
+        public Builder batchSize(int batchSize) {
+            Require.check(batchSize > 0, "Batch size must be positive: %s", batchSize);
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Initial size of the read buffer, which grows to fit a longer line, 64KB by default.
+         */
+        public Builder bufferSize(int bufferSize) {
+            Require.check(bufferSize >= 16, "Buffer size must be at least 16: %s", bufferSize);
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Max time between two checks of the file, 500ms by default.
+         */
+        public Builder pollInterval(Duration pollInterval) {
+            Require.check(!Require.checkNotNull(pollInterval).isNegative() && !pollInterval.isZero(),
+                "Poll interval must be positive: %s", pollInterval);
+            this.pollInterval = pollInterval;
+            return this;
+        }
+
+        /**
+         * Whether the file existing on start is followed from its end, true by default, or from its start.
+         */
+        public Builder fromEnd(boolean fromEnd) {
+            this.fromEnd = fromEnd;
+            return this;
+        }
+
+        /**
+         * Whether changes are watched by {@link WatchService}, true by default, or only polled.
+         */
+        public Builder watching(boolean isWatching) {
+            this.isWatching = isWatching;
+            return this;
+        }
+
+        /**
+         * Receives the error which stops tailing, logged by default.
+         */
+        public Builder onError(Consumer<Throwable> onError) {
+            this.onError = onError;
+            return this;
+        }
+
+        /**
+         * Starts tailing on a daemon thread.
+         */
+        public FileTailer start(Consumer<List<String>> consumer) {
+            return new FileTailer(this, Require.checkNotNull(consumer));
+        }
+    }
+}
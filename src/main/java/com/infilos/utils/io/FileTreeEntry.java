@@ -0,0 +1,45 @@
+package com.infilos.utils.io;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * A file found by {@link FileTreeSpliterator}, with the attributes read while walking, links are not followed.
+ */
+public final class FileTreeEntry {
+
+    private final Path path;
+    private final BasicFileAttributes attributes;
+    private final int depth;
+
+    FileTreeEntry(Path path, BasicFileAttributes attributes, int depth) {
+        this.path = path;
+        this.attributes = attributes;
+        this.depth = depth;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public BasicFileAttributes attributes() {
+        return attributes;
+    }
+
+    /**
+     * Depth below the start path, 0 if the start path is the file itself.
+     */
+    public int depth() {
+        return depth;
+    }
+
+    public File toFile() {
+        return path.toFile();
+    }
+
+    @Override
+    public String toString() {
+        return path.toString();
+    }
+}
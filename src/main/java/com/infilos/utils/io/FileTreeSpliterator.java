@@ -0,0 +1,202 @@
+package com.infilos.utils.io;
+
+import java.io.Closeable;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Lazy spliterator over the files of a tree, directories themselves are not reported unless at the max depth, where
+ * they are reported as files like {@link Files#walkFileTree} does. Links are not followed, so a link is reported as a
+ * file too.
+ * <p>
+ * Each spliterator lists one directory at a time, and queues the subdirectories found. Splitting hands over half of the
+ * queued directories, or a batch of the entries of the directory being listed, so subtrees are walked and the
+ * attributes of entries are read in parallel. The directory streams left open by short-circuiting are released by
+ * {@link #close()}, which the streams of {@code PathHelper.streamFiles} call on close.
+ */
+public final class FileTreeSpliterator implements Spliterator<FileTreeEntry>, Closeable {
+
+    private static final int BATCH_SIZE = 128;
+
+    private final int maxDepth;
+    private final FileFilter fileFilter;
+    private final Set<DirectoryStream<Path>> openStreams;
+
+    private final ArrayDeque<Node> nodes = new ArrayDeque<>();
+    private DirectoryStream<Path> stream;
+    private Iterator<Path> entries;
+    private int entriesDepth;
+
+    /**
+     * @param maxDepth   max depth of files below start, negative for unlimited
+     * @param fileFilter filter of files, null accepts all
+     */
+    public FileTreeSpliterator(Path start, int maxDepth, FileFilter fileFilter) {
+        this(maxDepth < 0 ? Integer.MAX_VALUE : maxDepth, fileFilter, ConcurrentHashMap.newKeySet());
+        this.nodes.add(new Node(start, 0));
+    }
+
+    private FileTreeSpliterator(int maxDepth, FileFilter fileFilter, Set<DirectoryStream<Path>> openStreams) {
+        this.maxDepth = maxDepth;
+        this.fileFilter = fileFilter;
+        this.openStreams = openStreams;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super FileTreeEntry> action) {
+        while (true) {
+            if (null != entries) {
+                if (entries.hasNext()) {
+                    if (visit(new Node(entries.next(), entriesDepth + 1), action)) {
+                        return true;
+                    }
+                    continue;
+                }
+                closeEntries();
+            }
+
+            final Node node = nodes.pollFirst();
+            if (null == node) {
+                return false;
+            }
+            if (visit(node, action)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public Spliterator<FileTreeEntry> trySplit() {
+        if (nodes.size() == 1 && null == entries) {
+            final Node node = nodes.peekFirst();
+            if (null == node.attributes() || !node.attributes().isDirectory() || node.depth >= maxDepth) {
+                return null;
+            }
+            nodes.pollFirst();
+            openEntries(node);
+        }
+
+        final FileTreeSpliterator split = new FileTreeSpliterator(maxDepth, fileFilter, openStreams);
+        if (nodes.size() >= 2 || (null != entries && nodes.size() == 1)) {
+            for (int count = Math.max(1, nodes.size() / 2); count > 0; count--) {
+                split.nodes.add(nodes.pollLast());
+            }
+        } else if (null != entries) {
+            for (int count = 0; count < BATCH_SIZE && entries.hasNext(); count++) {
+                split.nodes.add(new Node(entries.next(), entriesDepth + 1));
+            }
+        }
+
+        return split.nodes.isEmpty() ? null : split;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return NONNULL | DISTINCT;
+    }
+
+    /**
+     * Closes the directory streams still open by this spliterator and its splits.
+     */
+    @Override
+    public void close() {
+        for (DirectoryStream<Path> open : openStreams) {
+            closeQuietly(open);
+        }
+        openStreams.clear();
+    }
+
+    /**
+     * @return whether the path is reported
+     */
+    private boolean visit(Node node, Consumer<? super FileTreeEntry> action) {
+        final BasicFileAttributes attributes = node.attributes();
+        if (null == attributes) {
+            return false;
+        }
+        if (attributes.isDirectory() && node.depth < maxDepth) {
+            if (null == entries) {
+                openEntries(node);
+            } else {
+                nodes.addFirst(node);
+            }
+            return false;
+        }
+        if (null != fileFilter && !fileFilter.accept(node.path.toFile())) {
+            return false;
+        }
+
+        action.accept(new FileTreeEntry(node.path, attributes, node.depth));
+        return true;
+    }
+
+    private void openEntries(Node directory) {
+        try {
+            stream = Files.newDirectoryStream(directory.path);
+        } catch (IOException e) {
+            throw new IORuntimeException(e, "Failed to list %s", directory.path);
+        }
+        openStreams.add(stream);
+        entries = stream.iterator();
+        entriesDepth = directory.depth;
+    }
+
+    private void closeEntries() {
+        openStreams.remove(stream);
+        closeQuietly(stream);
+        stream = null;
+        entries = null;
+    }
+
+    private static void closeQuietly(DirectoryStream<Path> stream) {
+        try {
+            stream.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Path to visit, its attributes are read once on first use.
+     */
+    private static final class Node {
+        private final Path path;
+        private final int depth;
+        private BasicFileAttributes attributes;
+        private boolean isRead;
+
+        private Node(Path path, int depth) {
+            this.path = path;
+            this.depth = depth;
+        }
+
+        /**
+         * @return null if the path has been deleted
+         */
+        private BasicFileAttributes attributes() {
+            if (!isRead) {
+                isRead = true;
+                try {
+                    attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (NoSuchFileException e) {
+                    attributes = null;
+                } catch (IOException e) {
+                    throw new IORuntimeException(e, "Failed to read attributes of %s", path);
+                }
+            }
+            return attributes;
+        }
+    }
+}
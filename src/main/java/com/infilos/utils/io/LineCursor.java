@@ -0,0 +1,221 @@
+package com.infilos.utils.io;
+
+import com.infilos.utils.internal.MappedLines;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Cursor over the lines of a memory-mapped file, created by {@link FileReader#openLineCursor()}. A line is exposed as a
+ * {@link ByteBuffer} view of the mapping and decoded to a reused {@link CharSequence} only on demand, so scanning lines
+ * allocates nothing per line:
+ * <pre>
+ * try (LineCursor cursor = FileReader.create(log).openLineCursor()) {
+ *     while (cursor.next()) {
+ *         if (cursor.contains(ERROR)) {
+ *             handle(cursor.lineNumber(), cursor.chars());
+ *         }
+ *     }
+ * }
+ * </pre>
+ * The views returned by {@link #bytes()} and {@link #chars()} are only valid until the next call of {@link #next()}.
+ * <p>
+ * The file is mapped by {@link MappedLines} segments which end at line boundaries, so files larger than 2GB are
+ * supported as long as a line fits a segment. Lines end with {@code \n}, a {@code \r} before it is dropped, and the
+ * charset must encode {@code \n} as the single byte {@code 0x0A}, like ASCII compatible charsets. This class is not
+ * thread safe.
+ */
+public final class LineCursor implements Closeable {
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long size;
+    private final Charset charset;
+    private final int maxSegment;
+    private CharsetDecoder decoder;
+
+    private MappedByteBuffer segment;
+    private ByteBuffer view;
+    private ByteBuffer decodeView;
+    private long segmentStart;
+    private int position;
+    private int lineStart;
+    private int lineEnd;
+    private long lineNumber;
+
+    private CharBuffer chars;
+    private boolean decoded;
+
+    LineCursor(Path path, Charset charset) throws IOException {
+        this(path, charset, MappedLines.MAX_SEGMENT);
+    }
+
+    LineCursor(Path path, Charset charset, int maxSegment) throws IOException {
+        this.path = path;
+        this.charset = MappedLines.checkCharset(charset);
+        this.maxSegment = maxSegment;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = this.channel.size();
+    }
+
+    /**
+     * Moves to the next line.
+     *
+     * @return {@code false} if there is no more line.
+     * @throws IORuntimeException if the file can't be mapped, or a line doesn't fit a segment
+     */
+    public boolean next() {
+        if (this.segment == null || this.position >= this.segment.limit()) {
+            if (!mapNextSegment()) {
+                return false;
+            }
+        }
+
+        int limit = this.segment.limit();
+        int end = this.position;
+        while (end < limit && this.segment.get(end) != '\n') {
+            end++;
+        }
+        this.lineStart = this.position;
+        this.lineEnd = end > this.lineStart && this.segment.get(end - 1) == '\r' ? end - 1 : end;
+        this.position = end + 1;
+        this.lineNumber++;
+        this.decoded = false;
+        return true;
+    }
+
+    /**
+     * Number of the current line, starting at 1.
+     */
+    public long lineNumber() {
+        return this.lineNumber;
+    }
+
+    /**
+     * Offset of the current line in the file.
+     */
+    public long offset() {
+        return this.segmentStart + this.lineStart;
+    }
+
+    /**
+     * Byte length of the current line, without the line separator.
+     */
+    public int length() {
+        return this.lineEnd - this.lineStart;
+    }
+
+    /**
+     * Returns a read-only view of the bytes of the current line, between its position and limit. The same buffer is
+     * repositioned for every line.
+     */
+    public ByteBuffer bytes() {
+        this.view.limit(this.lineEnd).position(this.lineStart);
+        return this.view;
+    }
+
+    /**
+     * Returns the current line decoded into a reused char buffer, which is decoded once per line on the first call.
+     * Malformed input is replaced.
+     */
+    public CharSequence chars() {
+        if (!this.decoded) {
+            decode();
+            this.decoded = true;
+        }
+        return this.chars;
+    }
+
+    /**
+     * Returns the current line as a new string.
+     */
+    public String line() {
+        return chars().toString();
+    }
+
+    /**
+     * Whether the bytes of the current line contain {@code needle}, without decoding the line.
+     */
+    public boolean contains(byte[] needle) {
+        return indexOf(needle) >= 0;
+    }
+
+    /**
+     * Returns the byte index of {@code needle} in the current line, or -1 if absent.
+     */
+    public int indexOf(byte[] needle) {
+        if (needle.length == 0) {
+            return 0;
+        }
+        int last = this.lineEnd - needle.length;
+        byte first = needle[0];
+        for (int start = this.lineStart; start <= last; start++) {
+            if (this.segment.get(start) != first) {
+                continue;
+            }
+            int matched = 1;
+            while (matched < needle.length && this.segment.get(start + matched) == needle[matched]) {
+                matched++;
+            }
+            if (matched == needle.length) {
+                return start - this.lineStart;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() {
+        this.segment = null;
+        this.view = null;
+        this.decodeView = null;
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            throw new IORuntimeException(e, "Failed to close %s", this.path);
+        }
+    }
+
+    private void decode() {
+        if (this.decoder == null) {
+            this.decoder = this.charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        int capacity = (int) Math.ceil(length() * (double) this.decoder.maxCharsPerByte());
+        if (this.chars == null || this.chars.capacity() < capacity) {
+            this.chars = CharBuffer.allocate(Math.max(capacity, 128));
+        }
+
+        this.chars.clear();
+        this.decodeView.limit(this.lineEnd).position(this.lineStart);
+        this.decoder.reset();
+        this.decoder.decode(this.decodeView, this.chars, true);
+        this.decoder.flush(this.chars);
+        this.chars.flip();
+    }
+
+    private boolean mapNextSegment() {
+        long start = this.segment == null ? 0 : this.segmentStart + this.segment.limit();
+        if (start >= this.size) {
+            return false;
+        }
+
+        MappedByteBuffer mapped = MappedLines.mapSegment(this.path, this.channel, start, this.size, this.maxSegment);
+        this.segment = mapped;
+        this.view = mapped.asReadOnlyBuffer();
+        this.decodeView = mapped.asReadOnlyBuffer();
+        this.segmentStart = start;
+        this.position = 0;
+        return true;
+    }
+}
@@ -0,0 +1,222 @@
+package com.infilos.utils.io;
+
+import com.infilos.utils.Require;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Line iterator which reads and decodes ahead on a background task, so consuming lines overlaps reading and decoding
+ * them. Lines are handed over in batches through a bounded queue, the reading waits while the queue is full:
+ * <pre>
+ * try (Stream&lt;String&gt; lines = ReadAheadLineReader.builder(reader).batchSize(1024).queueDepth(8).build().stream()) {
+ *     lines.forEach(this::handle);
+ * }
+ * </pre>
+ * The reader is owned by the background task and closed once read to the end, or after {@link #close()}. Errors of
+ * reading are thrown by {@link #hasNext()} as {@link IORuntimeException}, or as is for an {@link Error}, after the lines
+ * read before. Iterate from a single thread.
+ */
+public final class ReadAheadLineReader implements Iterator<String>, Closeable {
+
+    private static final Batch END = new Batch(Collections.emptyList(), null);
+    private static final long CLOSED_CHECK_MILLIS = 100;
+
+    private final BufferedReader reader;
+    private final int batchSize;
+    private final BlockingQueue<Batch> queue;
+    private volatile boolean closed;
+
+    private Iterator<String> lines = Collections.emptyIterator();
+    private boolean ended;
+
+    private ReadAheadLineReader(Builder builder) {
+        this.reader = builder.reader instanceof BufferedReader ?
+            (BufferedReader) builder.reader : new BufferedReader(builder.reader);
+        this.batchSize = builder.batchSize;
+        this.queue = new ArrayBlockingQueue<>(builder.queueDepth);
+        builder.executor.execute(this::readAhead);
+    }
+
+    public static Builder builder(Reader reader) {
+        return new Builder(reader);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!lines.hasNext()) {
+            if (ended || closed) {
+                return false;
+            }
+            final Batch batch;
+            try {
+                batch = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IORuntimeException(e, "Interrupted while waiting for lines");
+            }
+            if (null != batch.error) {
+                ended = true;
+                if (batch.error instanceof Error) {
+                    throw (Error) batch.error;
+                }
+                throw new IORuntimeException(batch.error, "Failed to read lines ahead");
+            }
+            if (batch == END) {
+                ended = true;
+                return false;
+            }
+            lines = batch.lines.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return lines.next();
+    }
+
+    /**
+     * Sequential stream of the lines, which closes this reader on close.
+     */
+    public Stream<String> stream() {
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(this::close);
+    }
+
+    /**
+     * Stops reading ahead, the lines not consumed yet are dropped.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        lines = Collections.emptyIterator();
+        // frees space for the reading task, which stops at its next check
+        queue.clear();
+    }
+
+    private void readAhead() {
+        try {
+            List<String> batch = new ArrayList<>(batchSize);
+            String line;
+            while (!closed && null != (line = reader.readLine())) {
+                batch.add(line);
+                if (batch.size() == batchSize) {
+                    if (!put(new Batch(batch, null))) {
+                        return;
+                    }
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty() && !put(new Batch(batch, null))) {
+                return;
+            }
+            put(END);
+        } catch (IOException | RuntimeException | Error e) {
+            // handed to the consumer, which would wait for the end forever otherwise
+            offerError(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            offerError(e);
+        } finally {
+            try {
+                reader.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void offerError(Throwable error) {
+        try {
+            put(new Batch(null, error));
+        } catch (InterruptedException ignored) {
+            // consumer can't be told, but it's closing or interrupted too
+        }
+    }
+
+    /**
+     * Waits for space in the queue until closed, as close() may clear the queue before this waits again.
+     *
+     * @return false if closed
+     */
+    private boolean put(Batch batch) throws InterruptedException {
+        while (!closed) {
+            if (queue.offer(batch, CLOSED_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Batch {
+        private final List<String> lines;
+        private final Throwable error;
+
+        private Batch(List<String> lines, Throwable error) {
+            this.lines = lines;
+            this.error = error;
+        }
+    }
+
+    public static final class Builder {
+        private final Reader reader;
+        private int batchSize = 512;
+        private int queueDepth = 4;
+        private Executor executor = task -> {
+            Thread thread = new Thread(task, "ReadAheadLineReader");
+            thread.setDaemon(true);
+            thread.start();
+        };
+
+        private Builder(Reader reader) {
+            this.reader = Require.checkNotNull(reader);
+        }
+
+        /**
+         * Number of lines handed over at once, 512 by default.
+         */
+        public Builder batchSize(int batchSize) {
+            Require.check(batchSize > 0, "Batch size must be positive: %s", batchSize);
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Number of batches read ahead of the consumer, 4 by default.
+         */
+        public Builder queueDepth(int queueDepth) {
+            Require.check(queueDepth > 0, "Queue depth must be positive: %s", queueDepth);
+            this.queueDepth = queueDepth;
+            return this;
+        }
+
+        /**
+         * Executor of the reading task, which occupies a thread until read to the end or closed. A new daemon thread
+         * per reader by default.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = Require.checkNotNull(executor);
+            return this;
+        }
+
+        /**
+         * Starts reading ahead.
+         */
+        public ReadAheadLineReader build() {
+            return new ReadAheadLineReader(this);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.infilos.utils.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes values to and reads them back from a binary stream, used to spill values to temporary files. A value must be
+ * read back by exactly the bytes written for it, so values written one after another can be read one after another.
+ *
+ * @param <T> The value type
+ */
+public interface Serializer<T> {
+
+    void write(T value, DataOutput output) throws IOException;
+
+    T read(DataInput input) throws IOException;
+
+    /**
+     * UTF-8 strings prefixed by their byte length, not limited in length like {@link DataOutput#writeUTF(String)}.
+     */
+    static Serializer<String> ofString() {
+        return new Serializer<String>() {
+            @Override
+            public void write(String value, DataOutput output) throws IOException {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+            }
+
+            @Override
+            public String read(DataInput input) throws IOException {
+                byte[] bytes = new byte[input.readInt()];
+                input.readFully(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    static Serializer<Integer> ofInt() {
+        return new Serializer<Integer>() {
+            @Override
+            public void write(Integer value, DataOutput output) throws IOException {
+                output.writeInt(value);
+            }
+
+            @Override
+            public Integer read(DataInput input) throws IOException {
+                return input.readInt();
+            }
+        };
+    }
+
+    static Serializer<Long> ofLong() {
+        return new Serializer<Long>() {
+            @Override
+            public void write(Long value, DataOutput output) throws IOException {
+                output.writeLong(value);
+            }
+
+            @Override
+            public Long read(DataInput input) throws IOException {
+                return input.readLong();
+            }
+        };
+    }
+}
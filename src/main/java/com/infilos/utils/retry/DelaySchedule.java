@@ -0,0 +1,122 @@
+package com.infilos.utils.retry;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Immutable list of delays whose durations are computed in closed form from the index.
+ * <p>
+ * The first {@link #STORED_STEPS} durations are kept as nanos in a {@code long[]}, later ones are computed on access. A retry call
+ * reads them by {@link #nanosAt} into its own {@link Step}, so attempts allocate nothing, only {@link #get} creates a delay.
+ * A schedule adapted by {@link #forEvents} shares the durations and translates the events of its delays.
+ */
+final class DelaySchedule<E> extends AbstractList<RetryDelay<E>> implements RandomAccess {
+    private static final int STORED_STEPS = 64;
+
+    private final int size;
+    private final IntToLongFunction millisAt;
+    private final long[] nanos;
+    private final Function<E, ?> events;
+
+    DelaySchedule(int size, IntToLongFunction millisAt) {
+        this.size = size;
+        this.millisAt = millisAt;
+        this.nanos = new long[Math.min(size, STORED_STEPS)];
+        for (int index = 0; index < nanos.length; index++) {
+            nanos[index] = TimeUnit.MILLISECONDS.toNanos(millisAt.applyAsLong(index));
+        }
+        this.events = null;
+    }
+
+    private DelaySchedule(DelaySchedule<?> schedule, Function<E, ?> events) {
+        this.size = schedule.size;
+        this.millisAt = schedule.millisAt;
+        this.nanos = schedule.nanos;
+        this.events = events;
+    }
+
+    @Override
+    public RetryDelay<E> get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        long millis = millisAt.applyAsLong(index);
+        return events == null ? RetryDelay.ofMillis(millis) : RetryDelay.ofMillis(millis).forEvents(events);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Duration of the delay at a valid index, saturated to {@code Long.MAX_VALUE} nanos.
+     */
+    long nanosAt(int index) {
+        return index < nanos.length ? nanos[index] : TimeUnit.MILLISECONDS.toNanos(millisAt.applyAsLong(index));
+    }
+
+    /**
+     * Same as {@link RetryDelay#forEvents} applied to each delay, without copying the durations.
+     */
+    <F> DelaySchedule<F> forEvents(Function<F, ? extends E> eventTranslator) {
+        Function<E, ?> translated = events;
+        return new DelaySchedule<>(this, translated == null ?
+            eventTranslator : event -> translated.apply(eventTranslator.apply(event)));
+    }
+
+    /**
+     * Translator of the events of the delays, null if not adapted by {@link #forEvents}.
+     */
+    Function<E, ?> events() {
+        return events;
+    }
+
+    /**
+     * Delay of a retry call moved to each scheduled duration in turn, valid until the call takes its next delay.
+     */
+    static final class Step extends RetryDelay<Object> {
+        private long nanos;
+        private Function<Object, ?> events;
+
+        @SuppressWarnings("unchecked")  // the events of a call are of the type its schedule was adapted to
+        Step at(long nanos, Function<?, ?> events) {
+            this.nanos = nanos;
+            this.events = (Function<Object, ?>) events;
+            return this;
+        }
+
+        @Override
+        public Duration duration() {
+            return Duration.ofNanos(nanos);
+        }
+
+        @Override
+        long millis() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+
+        @Override
+        public void beforeDelay(Object event) {
+            super.beforeDelay(translate(event));
+        }
+
+        @Override
+        public void afterDelay(Object event) {
+            super.afterDelay(translate(event));
+        }
+
+        @Override
+        void interrupted(Object event) {
+            super.interrupted(translate(event));
+        }
+
+        private Object translate(Object event) {
+            return events == null ? event : events.apply(event);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.infilos.utils.retry;
+
+import com.infilos.utils.Require;
+
+import java.util.List;
+
+/**
+ * Position of each rule in an immutable {@link RetryPlan}, advanced by the exceptions of a single call.
+ * <p>
+ * Unlike {@link RetryPlan#execute}, advancing allocates nothing, the plan itself is shared by all calls. Delays of a
+ * {@link DelaySchedule} are returned as the cursor's own {@link DelaySchedule.Step}, valid until the next advance.
+ * Not thread-safe, the attempts of a call are sequential.
+ */
+final class RetryCursor {
+    private final RetryPlan<RetryDelay<?>> plan;
+    private final int[] positions;
+    private final DelaySchedule.Step step = new DelaySchedule.Step();
+
+    RetryCursor(RetryPlan<RetryDelay<?>> plan) {
+        this.plan = Require.checkNotNull(plan);
+        this.positions = new int[plan.ruleCount()];
+    }
+
+    /**
+     * Returns the delay to handle the exception and advances the matched rule, or null if the exception isn't covered by the plan or the matched rule runs out of delays.
+     */
+    RetryDelay<?> next(Throwable exception) {
+        Require.checkNotNull(exception);
+
+        for (int index = 0; index < positions.length; index++) {
+            RetryRule<RetryDelay<?>> rule = plan.rule(index);
+            if (rule.checkException(exception)) {
+                int position = positions[index]++;
+                List<? extends RetryDelay<?>> delays = rule.strategies();
+                if (delays instanceof DelaySchedule) {
+                    DelaySchedule<?> schedule = (DelaySchedule<?>) delays;
+                    return position < schedule.size() ? step.at(schedule.nanosAt(position), schedule.events()) : null;
+                }
+                return rule.strategyAt(position);
+            }
+        }
+
+        return null;
+    }
+}
@@ -4,7 +4,6 @@ import com.infilos.utils.*;
 
 import java.time.*;
 import java.util.*;
-import java.util.concurrent.*;
 import java.util.function.Function;
 
 /**
@@ -61,13 +60,13 @@ public abstract class RetryDelay<E> implements Comparable<RetryDelay<E>>, Loggab
     public final <T extends RetryDelay<?>> List<T> timed(List<T> list, Clock clock) {
         Require.checkNotNull(list);
 
-        Instant until = clock.instant().plus(duration());
+        long until = saturatedAdd(clock.millis(), duration().toMillis());
 
         return new AbstractList<T>() {
             @Override
             public T get(int index) {
                 T actual = list.get(index);
-                if (clock.instant().plus(actual.duration()).isBefore(until)) {
+                if (saturatedAdd(clock.millis(), actual.duration().toMillis()) < until) {
                     return actual;
                 }
 
@@ -76,7 +75,7 @@ public abstract class RetryDelay<E> implements Comparable<RetryDelay<E>>, Loggab
 
             @Override
             public int size() {
-                return clock.instant().isBefore(until) ? list.size() : 0;
+                return clock.millis() < until ? list.size() : 0;
             }
         };
     }
@@ -105,6 +104,7 @@ public abstract class RetryDelay<E> implements Comparable<RetryDelay<E>>, Loggab
 
     /**
      * Returns an immutable {@code List} of delays with {@code size}. The first delay (if {@code size > 0}) is {@code this} and the following delays are exponentially multiplied using {@code multiplier}.
+     * Durations of the first delays are computed eagerly, each access creates a new delay.
      *
      * @param multiplier must be positive
      * @param size       must not be negative
@@ -112,18 +112,9 @@ public abstract class RetryDelay<E> implements Comparable<RetryDelay<E>>, Loggab
     public final List<RetryDelay<E>> withBackoff(double multiplier, int size) {
         if (multiplier <= 0) throw new IllegalArgumentException("Invalid multiplier: " + multiplier);
         if (checkSize(size) == 0) return Collections.emptyList();
-        
-        return new AbstractList<RetryDelay<E>>() {
-            @Override
-            public RetryDelay<E> get(int index) {
-                return multipliedBy(Math.pow(multiplier, checkIndex(index, size)));
-            }
 
-            @Override
-            public int size() {
-                return size;
-            }
-        };
+        long millis = duration().toMillis();
+        return new DelaySchedule<>(size, index -> Math.round(Math.ceil(millis * Math.pow(multiplier, index))));
     }
 
     /**
@@ -164,23 +155,15 @@ public abstract class RetryDelay<E> implements Comparable<RetryDelay<E>>, Loggab
 
     /**
      * Returns a fibonacci list of delays of {@code size}, as in {@code 1, 1, 2, 3, 5, 8, ...} with {@code this} delay being the multiplier.
+     * Durations of the first delays are computed eagerly, each access creates a new delay.
      */
     public final List<RetryDelay<E>> fibonacci(int size) {
         if (checkSize(size) == 0) {
             return Collections.emptyList();
         }
-        
-        return new AbstractList<RetryDelay<E>>() {
-            @Override
-            public RetryDelay<E> get(int index) {
-                return ofMillis(Math.round(fib(checkIndex(index, size) + 1) * duration().toMillis()));
-            }
 
-            @Override
-            public int size() {
-                return size;
-            }
-        };
+        long millis = duration().toMillis();
+        return new DelaySchedule<>(size, index -> Math.round(fib(index + 1) * millis));
     }
 
     /** Called if {@code event} will be retried after the delay. Logs the event by default. */
@@ -199,27 +182,15 @@ public abstract class RetryDelay<E> implements Comparable<RetryDelay<E>>, Loggab
         Thread.currentThread().interrupt();
     }
 
-    final void synchronously(E event) throws InterruptedException {
-        beforeDelay(event);
-        Thread.sleep(duration().toMillis());
-        afterDelay(event);
+    /** The delay interval in millis, as scheduled and slept. */
+    long millis() {
+        return duration().toMillis();
     }
 
-    final void asynchronously(E event, CatchedRunnable retry, ScheduledExecutorService executor, CompletableFuture<?> result) {
+    final void synchronously(E event) throws InterruptedException {
         beforeDelay(event);
-
-        CatchedRunnable afterDelay = () -> {
-            afterDelay(event);
-            retry.run();
-        };
-
-        ScheduledFuture<?> scheduled = executor.schedule(
-            () -> afterDelay.run(result::completeExceptionally),
-            duration().toMillis(), TimeUnit.MILLISECONDS);
-
-        Threads.ifCancelled(result, canceled -> {
-            scheduled.cancel(true);
-        });
+        Thread.sleep(millis());
+        afterDelay(event);
     }
 
     /**
@@ -235,6 +206,11 @@ public abstract class RetryDelay<E> implements Comparable<RetryDelay<E>>, Loggab
                 return delegate.duration();
             }
 
+            @Override
+            long millis() {
+                return delegate.millis();
+            }
+
             @Override
             public void beforeDelay(F from) {
                 delegate.beforeDelay(eventTranslator.apply(from));
@@ -293,9 +269,8 @@ public abstract class RetryDelay<E> implements Comparable<RetryDelay<E>>, Loggab
         return size;
     }
 
-    private static int checkIndex(int index, int size) {
-        Require.check(index >=0 && index < size, "Invalid index: " + index);
-        
-        return index;
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return ((a ^ sum) & (b ^ sum)) < 0 ? Long.MAX_VALUE : sum;
     }
 }
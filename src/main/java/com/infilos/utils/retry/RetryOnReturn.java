@@ -4,8 +4,7 @@ import com.infilos.api.CheckedSupplier;
 import com.infilos.api.Maybe;
 import com.infilos.utils.*;
 
-import java.util.AbstractList;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Function;
@@ -25,7 +24,7 @@ public class RetryOnReturn<T> {
         this.retryRunner = retryRunner.upon(
             ThrownReturn.class,
             // Safe because it's essentially ThrownReturn<T> and Delay<? super T>.
-            mapList(delays, d -> d.forEvents(ThrownReturn::unsafeGet)));
+            forReturns(delays));
     }
 
     /**
@@ -130,6 +129,15 @@ public class RetryOnReturn<T> {
         }
     }
 
+    /** Adapts the delays to the thrown return values, a schedule stays a schedule so retries allocate no delay. */
+    @SuppressWarnings("unchecked")  // the elements of a DelaySchedule<? super T> are the delays
+    private static <T> List<RetryDelay<ThrownReturn>> forReturns(List<? extends RetryDelay<? super T>> delays) {
+        if (delays instanceof DelaySchedule) {
+            return ((DelaySchedule<? super T>) delays).forEvents(ThrownReturn::unsafeGet);
+        }
+        return mapList(delays, d -> d.forEvents(ThrownReturn::unsafeGet));
+    }
+
     /** Only need it because we don't have Guava Lists.transform(). */
     private static <F, T> List<T> mapList(List<F> list, Function<? super F, ? extends T> mapper) {
         Require.checkNotNull(list);
@@ -0,0 +1,252 @@
+package com.infilos.utils.retry;
+
+import com.infilos.api.CheckedFunction;
+import com.infilos.utils.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Chain of asynchronous stages, each stage retried upon its own policy, all driven by one scheduler.
+ *
+ * <pre>{@code
+ *   RetryPipeline<String, Account> pipeline = RetryPipeline.<String>start()
+ *       .then(userService::fetchUser)
+ *       .upon(IOException.class, RetryDelay.ofMillis(30).withBackoff(2, 5))
+ *       .then(accountService::fetchAccount)
+ *       .upon(RpcException.class, RetryDelay.ofMillis(100).fibonacci(3));
+ *
+ *   CompletionStage<Account> account = pipeline.run(userId, scheduler);
+ * }</pre>
+ *
+ * <p>The pipeline is immutable and reusable. Each {@link #run run()} is a single state machine that moves from stage to stage,
+ * instead of a {@link RetryRunner#retryAsync} wrapper with its own futures per stage.
+ * Canceling the returned future cancels the running stage and the pending retry timer.
+ *
+ * <p>Unlike {@link RetryRunner#retryAsync}, exceptions thrown directly by a stage are reported through the returned future,
+ * since later stages are not invoked in the caller thread anyway.
+ * {@link InterruptedException} is always considered a request to stop, the returned future is canceled.
+ *
+ * @param <I> the pipeline input type
+ * @param <O> the pipeline output type
+ */
+public final class RetryPipeline<I, O> {
+    private final List<Stage> stages;
+
+    private RetryPipeline(List<Stage> stages) {
+        this.stages = stages;
+    }
+
+    /**
+     * Returns an empty pipeline, which completes with its input.
+     */
+    public static <I> RetryPipeline<I, I> start() {
+        return new RetryPipeline<>(Collections.emptyList());
+    }
+
+    /**
+     * Returns a new pipeline that applies {@code stage} to the output of this pipeline. The stage doesn't retry until {@link #upon upon()} is declared.
+     */
+    public <R> RetryPipeline<I, R> then(CheckedFunction<? super O, ? extends CompletionStage<R>, ?> stage) {
+        return then(new RetryRunner(), stage);
+    }
+
+    /**
+     * Returns a new pipeline that applies {@code stage} to the output of this pipeline, retried according to {@code policy}.
+     */
+    public <R> RetryPipeline<I, R> then(RetryRunner policy, CheckedFunction<? super O, ? extends CompletionStage<R>, ?> stage) {
+        Require.checkNotNull(policy);
+        Require.checkNotNull(stage);
+
+        List<Stage> appended = new ArrayList<>(stages.size() + 1);
+        appended.addAll(stages);
+        appended.add(new Stage(policy, stage));
+
+        return new RetryPipeline<>(Collections.unmodifiableList(appended));
+    }
+
+    /**
+     * Returns a new pipeline that retries the last stage using {@code delays} when an exception is instance of {@code exceptionType}.
+     *
+     * @see RetryRunner#upon(Class, List)
+     */
+    public <E extends Throwable> RetryPipeline<I, O> upon(Class<E> exceptionType, List<? extends RetryDelay<? super E>> delays) {
+        return withLastPolicy(lastPolicy().upon(exceptionType, delays));
+    }
+
+    /**
+     * @see RetryRunner#upon(Class, Stream)
+     */
+    public <E extends Throwable> RetryPipeline<I, O> upon(Class<E> exceptionType, Stream<? extends RetryDelay<? super E>> delays) {
+        return withLastPolicy(lastPolicy().upon(exceptionType, delays));
+    }
+
+    /**
+     * Returns a new pipeline that retries the last stage using {@code delays} when an exception is instance of {@code exceptionType} and satisfies {@code condition}.
+     *
+     * @see RetryRunner#upon(Class, Predicate, List)
+     */
+    public <E extends Throwable> RetryPipeline<I, O> upon(Class<E> exceptionType,
+                                                         Predicate<? super E> condition,
+                                                         List<? extends RetryDelay<? super E>> delays) {
+        return withLastPolicy(lastPolicy().upon(exceptionType, condition, delays));
+    }
+
+    /**
+     * Runs the pipeline with {@code input}, retries are scheduled and performed by {@code scheduler}.
+     *
+     * <p>The first stage is invoked in the current thread. If a stage fails despite retrying, the returned future fails with
+     * the exception of its most recent invocation, earlier ones attached as suppressed.
+     *
+     * <p>NOTE that if {@code scheduler.shutdownNow()} is called, the returned {@link CompletionStage} may never be done.
+     */
+    public CompletionStage<O> run(I input, ScheduledExecutorService scheduler) {
+        Require.checkNotNull(scheduler);
+
+        Execution execution = new Execution(stages, scheduler);
+        execution.start(input);
+
+        @SuppressWarnings("unchecked")  // Output type is enforced by then().
+        CompletionStage<O> output = (CompletionStage<O>) (CompletionStage<?>) execution.result;
+        return output;
+    }
+
+    public int size() {
+        return stages.size();
+    }
+
+    private RetryRunner lastPolicy() {
+        Require.check(!stages.isEmpty(), "Pipeline has no stage to retry.");
+
+        return stages.get(stages.size() - 1).policy;
+    }
+
+    private RetryPipeline<I, O> withLastPolicy(RetryRunner policy) {
+        List<Stage> replaced = new ArrayList<>(stages);
+        Stage last = replaced.get(replaced.size() - 1);
+        replaced.set(replaced.size() - 1, new Stage(policy, last.function));
+
+        return new RetryPipeline<>(Collections.unmodifiableList(replaced));
+    }
+
+    private static final class Stage {
+        private final RetryRunner policy;
+        private final CheckedFunction<Object, ? extends CompletionStage<?>, ?> function;
+
+        @SuppressWarnings("unchecked")  // Input type is enforced by then().
+        private Stage(RetryRunner policy, CheckedFunction<?, ? extends CompletionStage<?>, ?> function) {
+            this.policy = policy;
+            this.function = (CheckedFunction<Object, ? extends CompletionStage<?>, ?>) function;
+        }
+    }
+
+    /**
+     * State of a single run, advanced by one stage attempt at a time, so plain fields are published by the completion and scheduling hand-offs.
+     */
+    private static final class Execution {
+        private final List<Stage> stages;
+        private final ScheduledExecutorService scheduler;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final List<Throwable> failures = new ArrayList<>();
+
+        private int stageIndex = -1;
+        private Object stageInput;
+        private RetryCursor cursor;
+        private volatile Future<?> pendingTimer;
+        private volatile CompletionStage<?> pendingStage;
+
+        private Execution(List<Stage> stages, ScheduledExecutorService scheduler) {
+            this.stages = stages;
+            this.scheduler = scheduler;
+            Threads.ifCancelled(result, cancelled -> {
+                Future<?> timer = pendingTimer;
+                if (Objects.nonNull(timer)) timer.cancel(true);
+                CompletionStage<?> stage = pendingStage;
+                if (Objects.nonNull(stage)) stage.toCompletableFuture().cancel(true);
+            });
+        }
+
+        private void start(Object input) {
+            advance(input);
+        }
+
+        private void advance(Object output) {
+            stageIndex++;
+            if (stageIndex == stages.size()) {
+                result.complete(output);
+                return;
+            }
+
+            stageInput = output;
+            cursor = new RetryCursor(stages.get(stageIndex).policy.plan());
+            failures.clear();
+            attempt();
+        }
+
+        private void attempt() {
+            if (result.isDone()) return;  // like, canceled before retrying.
+
+            CompletionStage<?> stage;
+            try {
+                stage = stages.get(stageIndex).function.apply(stageInput);
+            } catch (Throwable e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                    result.cancel(true);
+                    return;
+                }
+                retryOrFail(e);
+                return;
+            }
+
+            pendingStage = stage;
+            if (result.isDone()) {  // canceled while invoking the stage.
+                stage.toCompletableFuture().cancel(true);
+                return;
+            }
+            stage.whenComplete((value, e) -> {
+                pendingStage = null;
+                if (Objects.isNull(e)) advance(value);
+                else retryOrFail(getInterestedException(e));
+            });
+        }
+
+        private void retryOrFail(Throwable e) {
+            if (result.isDone()) return;
+
+            @SuppressWarnings("unchecked")  // delay came from upon(), which enforces <? super E>.
+            RetryDelay<Throwable> delay = (RetryDelay<Throwable>) cursor.next(e);
+            if (Objects.isNull(delay)) {
+                for (Throwable failure : failures) {
+                    if (failure != e) e.addSuppressed(failure);
+                }
+                result.completeExceptionally(e);
+                return;
+            }
+
+            failures.add(e);
+            delay.beforeDelay(e);
+            pendingTimer = scheduler.schedule(() -> {
+                pendingTimer = null;
+                try {
+                    delay.afterDelay(e);
+                    attempt();
+                } catch (Throwable unexpected) {
+                    result.completeExceptionally(unexpected);
+                }
+            }, delay.millis(), TimeUnit.MILLISECONDS);
+            if (result.isCancelled()) {  // canceled immediately before scheduling.
+                pendingTimer.cancel(true);
+            }
+        }
+
+        private static Throwable getInterestedException(Throwable exception) {
+            if (exception instanceof CompletionException || exception instanceof ExecutionException) {
+                return exception.getCause() == null ? exception : exception.getCause();
+            }
+            return exception;
+        }
+    }
+}
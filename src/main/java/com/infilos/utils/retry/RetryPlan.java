@@ -71,6 +71,14 @@ public class RetryPlan<T> {
             .orElse(Maybe.except(exception));  // The rule refuses to handle it.
     }
 
+    int ruleCount() {
+        return rules.size();
+    }
+
+    RetryRule<T> rule(int index) {
+        return rules.get(index);
+    }
+
     /**
      * Check if plan covers the exception.
      */
@@ -38,15 +38,26 @@ public class RetryRule<T> {
     }
 
     Optional<T> currentStrategy() {
-        if (currentStrategyIndex >= strategies.size()) {
-            return Optional.empty();
+        return Optional.ofNullable(strategyAt(currentStrategyIndex));
+    }
+
+    List<? extends T> strategies() {
+        return strategies;
+    }
+
+    /**
+     * Return the strategy at index, or null if no more strategy.
+     */
+    T strategyAt(int index) {
+        if (index >= strategies.size()) {
+            return null;
         }
-        
+
         try {
-            return Optional.of(strategies.get(currentStrategyIndex));
+            return strategies.get(index);
         } catch (IndexOutOfBoundsException ignore) {
             // In case the list just changed due to race condition or side-effects.
-            return Optional.empty();
+            return null;
         }
     }
 }
@@ -1,35 +1,51 @@
 package com.infilos.utils.retry;
 
 import com.infilos.api.CheckedSupplier;
-import com.infilos.api.Maybe;
+import com.infilos.retry.RetryMetrics;
 import com.infilos.utils.*;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static java.util.function.Function.identity;
-
 public class RetryRunner implements Loggable {
 
     private final RetryPlan<RetryDelay<?>> plan;
+    private final RetryMetrics metrics;
+    private final String operation;
 
     /**
      * Create new RetryRunner with empty plan.
      */
     public RetryRunner() {
-        this(new RetryPlan<>());
+        this(new RetryPlan<>(), null, null);
     }
 
-    private RetryRunner(RetryPlan<RetryDelay<?>> plan) {
+    private RetryRunner(RetryPlan<RetryDelay<?>> plan, RetryMetrics metrics, String operation) {
         this.plan = plan;
+        this.metrics = metrics;
+        this.operation = operation;
+    }
+
+    RetryPlan<RetryDelay<?>> plan() {
+        return plan;
+    }
+
+    /**
+     * Returns a new {@code Retryer} that records attempts, backoff time, exhausted and escaped calls into {@code metrics} as {@code operation}.
+     */
+    public RetryRunner recordMetrics(RetryMetrics metrics, String operation) {
+        Require.checkNotNull(metrics);
+
+        return new RetryRunner(plan, metrics, operation);
     }
 
     public final <E extends Throwable> RetryRunner upon(Class<E> exceptionType,
                                                         List<? extends RetryDelay<? super E>> delays) {
-        return new RetryRunner(plan.devise(rejectInterruptedException(exceptionType), delays));
+        return new RetryRunner(plan.devise(rejectInterruptedException(exceptionType), delays), metrics, operation);
     }
 
     /**
@@ -52,7 +68,7 @@ public class RetryRunner implements Loggable {
     public <E extends Throwable> RetryRunner upon(Class<E> exceptionType,
                                                   Predicate<? super E> condition,
                                                   List<? extends RetryDelay<? super E>> delays) {
-        return new RetryRunner(plan.devise(rejectInterruptedException(exceptionType), condition, delays));
+        return new RetryRunner(plan.devise(rejectInterruptedException(exceptionType), condition, delays), metrics, operation);
     }
 
     /**
@@ -79,17 +95,37 @@ public class RetryRunner implements Loggable {
         Require.checkNotNull(supplier);
 
         List<Throwable> exceptions = new ArrayList<>();
+        int attempts = 0;
+        long backoffNanos = 0L;
+        boolean exhausted = false;
+        RetryCursor cursor = new RetryCursor(plan);
         try {
-            for (RetryPlan<RetryDelay<?>> currentPlan = plan; ; ) {
+            for (; ; ) {
+                attempts++;
+                T result;
                 try {
-                    return supplier.get();
+                    result = supplier.get();
                 } catch (Throwable e) {
                     if (e instanceof InterruptedException) throw e;
                     exceptions.add(e);
-                    currentPlan = delay(e, currentPlan);
+                    long delayStart = System.nanoTime();
+                    boolean delayed;
+                    try {
+                        delayed = delay(e, cursor);
+                    } finally {
+                        backoffNanos += System.nanoTime() - delayStart;
+                    }
+                    if (!delayed) {
+                        exhausted = plan.anyMatches(e);
+                        throw e;
+                    }
+                    continue;
                 }
+                record(attempts, backoffNanos, false, false);
+                return result;
             }
         } catch (Throwable e) {
+            record(attempts, backoffNanos, true, exhausted);
             for (Throwable t : exceptions) addSuppressedTo(e, t);
             @SuppressWarnings("unchecked")  // Caller makes sure the exception is either E or unchecked.
             E checked = (E) Throws.propagateIfUnchecked(e);
@@ -137,10 +173,15 @@ public class RetryRunner implements Loggable {
                                              ScheduledExecutorService executor) {
         Require.checkNotNull(asyncSupplier);
         Require.checkNotNull(executor);
-        CompletableFuture<T> future = new CompletableFuture<>();
-        invokeWithRetry(asyncSupplier, executor, future);
+        AsyncRetry<T> retry = new AsyncRetry<>(asyncSupplier, executor);
+        try {
+            retry.invoke();
+        } catch (Throwable e) {
+            retry.record(true);
+            throw e;
+        }
 
-        return future;
+        return retry.future;
     }
 
     /**
@@ -181,85 +222,167 @@ public class RetryRunner implements Loggable {
         return ifReturns(r -> Objects.equals(r, returnValue), delays);
     }
 
-    private <T> void invokeWithRetry(
-        CheckedSupplier<? extends CompletionStage<T>, ?> supplier,
-        ScheduledExecutorService retryExecutor,
-        CompletableFuture<T> future) {
-        if (future.isDone()) return;  // like, canceled before retrying.
+    /**
+     * Waits for the next delay of the exception, or returns false if there's none.
+     */
+    private static <E extends Throwable> boolean delay(
+        E exception, RetryCursor cursor) throws E {
+        @SuppressWarnings("unchecked")  // Applicable delays were from upon(), enforcing <? super E>
+        RetryDelay<? super E> delay = (RetryDelay<? super E>) cursor.next(exception);
+        if (Objects.isNull(delay)) {
+            return false;
+        }
         try {
-            CompletionStage<T> stage = supplier.get();
-            stage.handle((v, e) -> {
-                if (e == null) future.complete(v);
-                else scheduleRetry(getInterestedException(e), retryExecutor, supplier, future);
-                return null;
+            delay.synchronously(exception);
+        } catch (InterruptedException e) {
+            delay.interrupted(exception);
+            throw exception;
+        }
+        return true;
+    }
+
+    /**
+     * A failed call is exhausted if the plan covers its last exception but has no more delay for it, otherwise escaped.
+     */
+    private void record(int attempts, long backoffNanos, boolean failed, boolean exhausted) {
+        if (Objects.isNull(metrics)) return;
+        metrics.record(operation, attempts, backoffNanos, exhausted, failed && !exhausted);
+    }
+
+    /**
+     * State of an asynchronous call, advanced by one attempt at a time, so plain fields are published by the completion and scheduling hand-offs.
+     * <p>
+     * Suppressing the retried exceptions and cancelling the pending retry are hooked to the result once per call, and the call itself is the scheduled retry.
+     */
+    private final class AsyncRetry<T> implements Runnable {
+        private final CheckedSupplier<? extends CompletionStage<T>, ?> supplier;
+        private final ScheduledExecutorService executor;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final RetryCursor cursor = new RetryCursor(plan);
+        private final List<Throwable> exceptions = new ArrayList<>();
+        private final AtomicBoolean recorded = new AtomicBoolean();
+        private Throwable completion;
+        private RetryDelay<Throwable> delay;
+        private Throwable failure;
+        private long delayStart;
+        private volatile ScheduledFuture<?> pending;
+        private volatile int attempts;
+        private volatile long backoffNanos;
+        private volatile boolean exhausted;
+
+        private AsyncRetry(CheckedSupplier<? extends CompletionStage<T>, ?> supplier, ScheduledExecutorService executor) {
+            this.supplier = supplier;
+            this.executor = executor;
+            future.whenComplete((v, e) -> {
+                if (Objects.nonNull(e)) {
+                    synchronized (exceptions) {
+                        completion = e;
+                        for (Throwable t : exceptions) addSuppressedTo(e, t);
+                    }
+                    ScheduledFuture<?> scheduled = pending;
+                    if (e instanceof CancellationException && Objects.nonNull(scheduled)) scheduled.cancel(true);
+                }
+                record(Objects.nonNull(e));
             });
-        } catch (RuntimeException e) {
-            retryIfCovered(e, retryExecutor, supplier, future);
-        } catch (Error e) {
-            retryIfCovered(e, retryExecutor, supplier, future);
-        } catch (Throwable e) {
-            if (e instanceof InterruptedException) {
-                CancellationException cancelled = new CancellationException();
-                cancelled.initCause(e);
-                Thread.currentThread().interrupt();
-                // Don't even attempt to retry, even if user explicitly asked to retry on Exception
-                // This is because we treat InterruptedException specially as a signal to stop.
-                throw cancelled;
+        }
+
+        /**
+         * Records the call once, when its result completes or its first attempt throws.
+         */
+        private void record(boolean failed) {
+            if (Objects.nonNull(metrics) && recorded.compareAndSet(false, true)) {
+                RetryRunner.this.record(attempts, backoffNanos, failed, failed && exhausted);
             }
-            scheduleRetry(e, retryExecutor, supplier, future);
         }
-    }
 
-    private <E extends Throwable, T> void retryIfCovered(
-        E e, ScheduledExecutorService retryExecutor,
-        CheckedSupplier<? extends CompletionStage<T>, ?> supplier, CompletableFuture<T> future)
-        throws E {
-        if (plan.anyMatches(e)) {
-            scheduleRetry(e, retryExecutor, supplier, future);
-        } else {
-            throw e;
+        /**
+         * Retries after the delay.
+         */
+        @Override
+        public void run() {
+            pending = null;
+            try {
+                try {
+                    delay.afterDelay(failure);
+                } finally {
+                    backoffNanos += System.nanoTime() - delayStart;
+                }
+                invoke();
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
         }
-    }
 
-    private <T> void scheduleRetry(
-        Throwable e, ScheduledExecutorService retryExecutor,
-        CheckedSupplier<? extends CompletionStage<T>, ?> supplier, CompletableFuture<T> future) {
-        try {
-            Maybe<RetryExecution<RetryDelay<?>>, ?> maybeRetry = plan.execute(e);
-            maybeRetry.ifPresent(execution -> {
-                future.exceptionally(x -> {
-                    addSuppressedTo(x, e);
+        private void invoke() {
+            if (future.isDone()) return;  // like, canceled before retrying.
+            attempts++;
+            try {
+                CompletionStage<T> stage = supplier.get();
+                stage.handle((v, e) -> {
+                    if (e == null) future.complete(v);
+                    else scheduleRetry(getInterestedException(e));
                     return null;
                 });
-                if (future.isDone()) return;  // like, canceled immediately before scheduling.
-                @SuppressWarnings("unchecked")  // delay came from upon(), which enforces <? super E>.
-                RetryDelay<Throwable> delay = (RetryDelay<Throwable>) execution.strategy();
-                RetryRunner nextRound = new RetryRunner(execution.remainingRetryPlan());
-                CatchedRunnable retry = () -> nextRound.invokeWithRetry(supplier, retryExecutor, future);
-
-                delay.asynchronously(e, retry, retryExecutor, future);
-            });
-            maybeRetry.onFailure(future::completeExceptionally);
-        } catch (Throwable unexpected) {
-            addSuppressedTo(unexpected, e);
-            throw unexpected;
+            } catch (RuntimeException e) {
+                retryIfCovered(e);
+            } catch (Error e) {
+                retryIfCovered(e);
+            } catch (Throwable e) {
+                if (e instanceof InterruptedException) {
+                    CancellationException cancelled = new CancellationException();
+                    cancelled.initCause(e);
+                    Thread.currentThread().interrupt();
+                    // Don't even attempt to retry, even if user explicitly asked to retry on Exception
+                    // This is because we treat InterruptedException specially as a signal to stop.
+                    throw cancelled;
+                }
+                scheduleRetry(e);
+            }
         }
-    }
 
+        private <E extends Throwable> void retryIfCovered(E e) throws E {
+            if (plan.anyMatches(e)) {
+                scheduleRetry(e);
+            } else {
+                throw e;
+            }
+        }
 
-    private static <E extends Throwable> RetryPlan<RetryDelay<?>> delay(
-        E exception, RetryPlan<RetryDelay<?>> plan) throws E {
-        RetryExecution<RetryDelay<?>> execution = plan.execute(exception).getOrThrow(identity());
-        @SuppressWarnings("unchecked")  // Applicable delays were from upon(), enforcing <? super E>
-        RetryDelay<? super E> delay = (RetryDelay<? super E>) execution.strategy();
-        try {
-            delay.synchronously(exception);
-        } catch (InterruptedException e) {
-            delay.interrupted(exception);
-            throw exception;
+        private void scheduleRetry(Throwable e) {
+            try {
+                @SuppressWarnings("unchecked")  // delay came from upon(), which enforces <? super E>.
+                RetryDelay<Throwable> next = (RetryDelay<Throwable>) cursor.next(e);
+                if (Objects.isNull(next)) {
+                    exhausted = plan.anyMatches(e);
+                    future.completeExceptionally(e);
+                    return;
+                }
+                suppress(e);
+                if (future.isDone()) return;  // like, canceled immediately before scheduling.
+                delay = next;
+                failure = e;
+
+                delayStart = System.nanoTime();
+                next.beforeDelay(e);
+                pending = executor.schedule(this, next.millis(), TimeUnit.MILLISECONDS);
+                if (future.isCancelled()) {  // canceled while scheduling.
+                    pending.cancel(true);
+                }
+            } catch (Throwable unexpected) {
+                addSuppressedTo(unexpected, e);
+                throw unexpected;
+            }
         }
 
-        return execution.remainingRetryPlan();
+        /**
+         * Suppresses the retried exception into the final one, right away if already completed.
+         */
+        private void suppress(Throwable e) {
+            synchronized (exceptions) {
+                if (Objects.isNull(completion)) exceptions.add(e);
+                else addSuppressedTo(completion, e);
+            }
+        }
     }
 
     private static <E extends Throwable> Class<E> rejectInterruptedException(Class<E> exceptionType) {
@@ -1,10 +1,9 @@
 package com.infilos.utils.stream;
 
+import java.time.Duration;
 import java.util.Iterator;
 import java.util.Spliterator;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.*;
 import java.util.stream.BaseStream;
 
 import static java.util.Objects.requireNonNull;
@@ -14,12 +13,21 @@ import static java.util.concurrent.ForkJoinTask.adapt;
  * Abstract base class for all parallel streams in this package. It implements all Methods of {@link BaseStream} and
  * holds the {@link ForkJoinPool} and the stream to which subsequent stream operations are delegated.
  *
- * The two methods {@link #execute(Callable)} and {@link #execute(Runnable)} are used to execute terminal operations.
+ * The two methods {@link #execute(Callable)} and {@link #execute(Runnable)} are used to execute terminal operations,
+ * {@link #executeAsync(Callable)} and {@link #executeAsync(Runnable)} are their non-blocking counterparts.
  *
  * In case this stream's {@link #isParallel()} method returns {@code true}, a terminal operation will be executed as
  * {@link ForkJoinTask} in the {@link #workerPool}. Otherwise the terminal operation will be executed in the calling
  * thread.
  *
+ * A terminal operation can be bounded by {@link #withTimeout(Duration)} and stopped by a {@link CancellationToken}
+ * bound with {@link #withCancellation(CancellationToken)}, both settings are inherited by the streams derived from this
+ * one. The source of a stream created here is traversed through a spliterator checking the stream's own token, so
+ * elements are checked before the intermediate operations run, whenever the settings are applied.
+ *
+ * Per-stage element counts and timing, and worker pool statistics of terminal operations, are recorded once a
+ * {@link StreamInstrumentation} is bound with {@link #withInstrumentation(StreamInstrumentation)}.
+ *
  * @param <T> The type of the stream elements.
  * @param <S> Type of stream.
  */
@@ -27,6 +35,14 @@ abstract class AbstractParallelStream<T, S extends BaseStream<T, S>> implements
 
     final ForkJoinPool workerPool;
     S delegate;
+    Duration timeout;
+    /**
+     * Token of this pipeline checked by its source, cancelled by the timeout, canceling the future of an asynchronous
+     * terminal operation, and the token bound by {@link #withCancellation(CancellationToken)}.
+     */
+    CancellationToken token;
+    StreamInstrumentation instrumentation;
+    StreamInstrumentation.Probe lastProbe;
 
     AbstractParallelStream(S delegate, ForkJoinPool workerPool) {
         requireNonNull(delegate, "Stream must not be null");
@@ -84,7 +100,153 @@ abstract class AbstractParallelStream<T, S extends BaseStream<T, S>> implements
         this.delegate.close();
     }
 
+    /**
+     * Bounds the terminal operation of this stream by {@code timeout}. The operation is then always executed in the
+     * worker pool, if it doesn't finish in time, its worker tasks are abandoned at their next cancellation check and a
+     * {@link StreamTimeoutException} is thrown to the caller.
+     *
+     * @param timeout Maximum time to wait for the terminal operation. Must be positive.
+     *
+     * @return This stream.
+     */
+    @SuppressWarnings("unchecked")
+    public S withTimeout(Duration timeout) {
+        requireNonNull(timeout, "Timeout must not be null");
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be positive: " + timeout);
+        }
+
+        this.timeout = timeout;
+        token().markCancellable();
+        return (S) this;
+    }
+
+    /**
+     * Binds {@code token} to the source traversal of this stream, which checks it between chunks of elements, replacing
+     * a token bound before. Once the token is cancelled the terminal operation fails with {@link CancellationException}.
+     * Canceling the future of an asynchronous terminal operation only stops this stream, not the other streams sharing
+     * {@code token}.
+     *
+     * @param token The cancellation token, may be shared by multiple streams. Must not be {@code null}.
+     *
+     * @return This stream.
+     */
+    @SuppressWarnings("unchecked")
+    public S withCancellation(CancellationToken token) {
+        requireNonNull(token, "Cancellation token must not be null");
+
+        token().linkParent(token);
+        return (S) this;
+    }
+
+    /**
+     * Records the stages and terminal operations of this stream and the streams derived from it into
+     * {@code instrumentation}, the operations called before are recorded as the source stage. Without instrumentation
+     * no probe is added to the pipeline.
+     *
+     * @param instrumentation The recorder, whose {@link StreamInstrumentation#report()} is read after the terminal
+     * operation. Must not be {@code null}.
+     *
+     * @return This stream.
+     */
+    @SuppressWarnings("unchecked")
+    public S withInstrumentation(StreamInstrumentation instrumentation) {
+        requireNonNull(instrumentation, "Instrumentation must not be null");
+
+        if (this.instrumentation != instrumentation) {
+            this.instrumentation = instrumentation;
+            this.lastProbe = null;
+            this.delegate = instrument(this.delegate, "source", true);
+        }
+        return (S) this;
+    }
+
+    /**
+     * Binds the token of the pipeline to the source traversal, called by the factories on the source stream before any
+     * intermediate operation, so bulk traversal of the stages stays fused. The source is traversed in bulk unchecked
+     * until a timeout, a cancellation token or an asynchronous terminal operation makes the token cancellable.
+     *
+     * @return This stream.
+     */
+    @SuppressWarnings("unchecked")
+    S bindSource() {
+        this.token = new CancellationToken();
+        this.delegate = bindCancellation(this.token);
+        return (S) this;
+    }
+
+    /**
+     * Returns the token of the pipeline, bound to the current delegate if this stream wasn't created by a factory.
+     */
+    private CancellationToken token() {
+        if (this.token == null) {
+            bindSource();
+        }
+        return this.token;
+    }
+
+    /**
+     * Returns the delegate stream whose source traversal checks {@code token}.
+     */
+    abstract S bindCancellation(CancellationToken token);
+
+    /**
+     * Returns {@code stream} followed by {@code probe}.
+     */
+    abstract S attachProbe(S stream, StreamInstrumentation.Probe probe);
+
+    /**
+     * Returns {@code stream}, which is the result of the intermediate operation {@code stage}, followed by a probe of
+     * that stage if this stream is instrumented.
+     */
+    S instrument(S stream, String stage) {
+        return instrument(stream, stage, false);
+    }
+
+    /**
+     * @param stateful Whether the operation buffers elements, the probe of such a stage only counts elements.
+     */
+    S instrument(S stream, String stage, boolean stateful) {
+        if (this.instrumentation == null) {
+            return stream;
+        }
+        this.lastProbe = this.instrumentation.probe(stage, stateful, this.lastProbe);
+        return attachProbe(stream, this.lastProbe);
+    }
+
+    /**
+     * Passes the timeout and cancellation settings of this stream to {@code derived}, which wraps a delegate derived
+     * from the delegate of this stream, so it is already bound to the tokens.
+     */
+    <W extends AbstractParallelStream<?, ?>> W inherit(W derived) {
+        derived.timeout = this.timeout;
+        derived.token = this.token;
+        derived.instrumentation = this.instrumentation;
+        derived.lastProbe = this.lastProbe;
+        return derived;
+    }
+
+    /**
+     * Same as {@link #inherit(AbstractParallelStream)}, the delegate of {@code derived} is the result of the intermediate
+     * operation {@code stage} and is followed by a probe of that stage if this stream is instrumented.
+     */
+    <W extends AbstractParallelStream<?, ?>> W inherit(W derived, String stage) {
+        inherit(derived).instrumentDelegate(stage);
+        return derived;
+    }
+
+    void instrumentDelegate(String stage) {
+        this.delegate = instrument(this.delegate, stage);
+    }
+
     protected void execute(Runnable terminalOperation) {
+        if (this.timeout != null) {
+            awaitWithTimeout(executeAsync(terminalOperation));
+            return;
+        }
+        if (this.instrumentation != null) {
+            terminalOperation = this.instrumentation.terminal(terminalOperation, this.workerPool, isParallel());
+        }
         if (isParallel()) {
             ForkJoinTask<?> task = adapt(terminalOperation);
             this.workerPool.invoke(task);
@@ -94,6 +256,12 @@ abstract class AbstractParallelStream<T, S extends BaseStream<T, S>> implements
     }
 
     protected <R> R execute(Callable<R> terminalOperation) {
+        if (this.timeout != null) {
+            return awaitWithTimeout(executeAsync(terminalOperation));
+        }
+        if (this.instrumentation != null) {
+            terminalOperation = this.instrumentation.terminal(terminalOperation, this.workerPool, isParallel());
+        }
         if (isParallel()) {
             ForkJoinTask<R> task = adapt(terminalOperation);
             return this.workerPool.invoke(task);
@@ -107,4 +275,70 @@ abstract class AbstractParallelStream<T, S extends BaseStream<T, S>> implements
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Submits the terminal operation as {@link ForkJoinTask} to the {@link #workerPool}, even if this stream is
+     * sequential, and returns without waiting. Canceling the returned future cancels the task.
+     */
+    protected CompletableFuture<Void> executeAsync(Runnable terminalOperation) {
+        return executeAsync(() -> {
+            terminalOperation.run();
+            return null;
+        });
+    }
+
+    protected <R> CompletableFuture<R> executeAsync(Callable<R> terminalOperation) {
+        Callable<R> operation = this.instrumentation == null ?
+            terminalOperation : this.instrumentation.terminal(terminalOperation, this.workerPool, isParallel());
+        if (this.token != null) {
+            this.token.markCancellable();
+        }
+        CompletableFuture<R> future = new CompletableFuture<>();
+        ForkJoinTask<?> task = adapt(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(operation.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        future.whenComplete((result, e) -> {
+            if (future.isCancelled()) {
+                task.cancel(true);
+                if (this.token != null) {
+                    this.token.cancel();
+                }
+            }
+        });
+        this.workerPool.execute(task);
+
+        return future;
+    }
+
+    private <R> R awaitWithTimeout(CompletableFuture<R> future) {
+        try {
+            return future.get(this.timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            this.token.cancel();
+            future.cancel(true);
+            throw new StreamTimeoutException(this.timeout, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            CancellationException cancelled = new CancellationException("Interrupted while waiting for parallel stream");
+            cancelled.initCause(e);
+            throw cancelled;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
 }
@@ -0,0 +1,212 @@
+package com.infilos.utils.stream;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Spliterator which checks a {@link CancellationToken} while traversing its source, per {@link #CHECK_INTERVAL}
+ * elements in bulk traversal and on each split. Bulk traversal is passed to the source as is while the token can't be
+ * cancelled.
+ *
+ * @param <T> The type of the elements.
+ * @param <S> The type of the source spliterator.
+ */
+abstract class CancellableSpliterator<T, S extends Spliterator<T>> implements Spliterator<T> {
+
+    static final int CHECK_INTERVAL = 1024;
+
+    final S source;
+    final CancellationToken token;
+
+    CancellableSpliterator(S source, CancellationToken token) {
+        this.source = source;
+        this.token = token;
+    }
+
+    abstract S wrap(S split);
+
+    @Override
+    public S trySplit() {
+        this.token.throwIfCancelled();
+
+        @SuppressWarnings("unchecked")
+        S split = (S) this.source.trySplit();
+        return split == null ? null : wrap(split);
+    }
+
+    @Override
+    public long estimateSize() {
+        return this.source.estimateSize();
+    }
+
+    @Override
+    public long getExactSizeIfKnown() {
+        return this.source.getExactSizeIfKnown();
+    }
+
+    @Override
+    public int characteristics() {
+        return this.source.characteristics();
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+        return this.source.getComparator();
+    }
+
+    static final class ForRef<T> extends CancellableSpliterator<T, Spliterator<T>> {
+
+        ForRef(Spliterator<T> source, CancellationToken token) {
+            super(source, token);
+        }
+
+        @Override
+        Spliterator<T> wrap(Spliterator<T> split) {
+            return new ForRef<>(split, this.token);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            this.token.throwIfCancelled();
+            return this.source.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (!this.token.isCancellable()) {
+                this.source.forEachRemaining(action);
+                return;
+            }
+            do {
+                this.token.throwIfCancelled();
+            } while (advanceChunk(action));
+        }
+
+        private boolean advanceChunk(Consumer<? super T> action) {
+            for (int i = 0; i < CHECK_INTERVAL; i++) {
+                if (!this.source.tryAdvance(action)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    static final class ForInt extends CancellableSpliterator<Integer, Spliterator.OfInt> implements Spliterator.OfInt {
+
+        ForInt(Spliterator.OfInt source, CancellationToken token) {
+            super(source, token);
+        }
+
+        @Override
+        Spliterator.OfInt wrap(Spliterator.OfInt split) {
+            return new ForInt(split, this.token);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            this.token.throwIfCancelled();
+            return this.source.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            if (!this.token.isCancellable()) {
+                this.source.forEachRemaining(action);
+                return;
+            }
+            do {
+                this.token.throwIfCancelled();
+            } while (advanceChunk(action));
+        }
+
+        private boolean advanceChunk(IntConsumer action) {
+            for (int i = 0; i < CHECK_INTERVAL; i++) {
+                if (!this.source.tryAdvance(action)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    static final class ForLong extends CancellableSpliterator<Long, Spliterator.OfLong> implements Spliterator.OfLong {
+
+        ForLong(Spliterator.OfLong source, CancellationToken token) {
+            super(source, token);
+        }
+
+        @Override
+        Spliterator.OfLong wrap(Spliterator.OfLong split) {
+            return new ForLong(split, this.token);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            this.token.throwIfCancelled();
+            return this.source.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            if (!this.token.isCancellable()) {
+                this.source.forEachRemaining(action);
+                return;
+            }
+            do {
+                this.token.throwIfCancelled();
+            } while (advanceChunk(action));
+        }
+
+        private boolean advanceChunk(LongConsumer action) {
+            for (int i = 0; i < CHECK_INTERVAL; i++) {
+                if (!this.source.tryAdvance(action)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    static final class ForDouble extends CancellableSpliterator<Double, Spliterator.OfDouble> implements Spliterator.OfDouble {
+
+        ForDouble(Spliterator.OfDouble source, CancellationToken token) {
+            super(source, token);
+        }
+
+        @Override
+        Spliterator.OfDouble wrap(Spliterator.OfDouble split) {
+            return new ForDouble(split, this.token);
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            this.token.throwIfCancelled();
+            return this.source.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            if (!this.token.isCancellable()) {
+                this.source.forEachRemaining(action);
+                return;
+            }
+            do {
+                this.token.throwIfCancelled();
+            } while (advanceChunk(action));
+        }
+
+        private boolean advanceChunk(DoubleConsumer action) {
+            for (int i = 0; i < CHECK_INTERVAL; i++) {
+                if (!this.source.tryAdvance(action)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.infilos.utils.stream;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Cooperative cancellation signal for parallel streams, see {@link AbstractParallelStream#withCancellation}.
+ * <p>
+ * Once cancelled, the source traversal of every stream bound to this token stops at the next check and the running
+ * terminal operation fails with {@link CancellationException}. A token can't be reset, it is safe to share by multiple
+ * streams and threads.
+ */
+public final class CancellationToken {
+
+    private volatile boolean cancelled;
+    private volatile boolean cancellable;
+    private volatile CancellationToken parent;
+
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Whether this token, or the parent it's linked to, is cancelled.
+     */
+    public boolean isCancelled() {
+        CancellationToken parent = this.parent;
+        return this.cancelled || (parent != null && parent.isCancelled());
+    }
+
+    /**
+     * @throws CancellationException if this token is cancelled.
+     */
+    public void throwIfCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("Parallel stream cancelled");
+        }
+    }
+
+    /**
+     * Makes this token cancelled with {@code parent} too, replacing the parent linked before. Cancelling this token
+     * doesn't cancel {@code parent}.
+     */
+    void linkParent(CancellationToken parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Marks this token as cancellable by a timeout or an asynchronous terminal operation.
+     */
+    void markCancellable() {
+        this.cancellable = true;
+    }
+
+    /**
+     * Whether this token may be cancelled, by a linked parent or once marked, otherwise checking it can be skipped.
+     */
+    boolean isCancellable() {
+        return this.cancellable || this.parent != null;
+    }
+}
@@ -0,0 +1,297 @@
+package com.infilos.utils.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Spliterator which groups consecutive elements of its source into chunks of {@code size}, used by
+ * {@link Streams#chunked}.
+ * <p>
+ * Splitting is delegated to the source. If the source is {@code SUBSIZED}, the first elements of the remaining part are
+ * carried over to the split prefix to fill its last chunk, so chunks are the same as in sequential traversal. Otherwise
+ * the last chunk of each split part may be smaller than {@code size}.
+ *
+ * @param <C> The type of chunks.
+ * @param <S> The type of the source spliterator.
+ */
+abstract class ChunkSpliterator<C, S extends Spliterator<?>> implements Spliterator<C> {
+
+    final S source;
+    final int size;
+    private C tail;
+    private int tailLength;
+    private int tailIndex;
+    private boolean sourceDrained;
+
+    ChunkSpliterator(S source, int size, C tail, int tailLength) {
+        this.source = source;
+        this.size = size;
+        this.tail = tail;
+        this.tailLength = tailLength;
+    }
+
+    static int checkSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + size);
+        }
+        return size;
+    }
+
+    /** Creates an empty chunk which can hold {@code capacity} elements. */
+    abstract C newChunk(int capacity);
+
+    /** Appends the next source element to {@code chunk} at {@code index}, returns {@code false} if the source is drained. */
+    abstract boolean advanceSource(C chunk, int index);
+
+    /** Appends {@code from[fromIndex]} to {@code chunk} at {@code index}. */
+    abstract void copyElement(C from, int fromIndex, C chunk, int index);
+
+    /** Returns the chunk trimmed to {@code length} elements. */
+    abstract C trim(C chunk, int length);
+
+    abstract ChunkSpliterator<C, S> create(S prefix, C tail, int tailLength);
+
+    @Override
+    public boolean tryAdvance(Consumer<? super C> action) {
+        C chunk = newChunk(this.size);
+        int length = fill(chunk, this.size);
+        if (length == 0) {
+            return false;
+        }
+
+        action.accept(trim(chunk, length));
+        return true;
+    }
+
+    @Override
+    public Spliterator<C> trySplit() {
+        if (this.sourceDrained) {
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        S prefix = (S) this.source.trySplit();
+        if (prefix == null) {
+            return null;
+        }
+
+        long prefixSize = prefix.getExactSizeIfKnown();
+        int carry = prefixSize > 0 && prefix.hasCharacteristics(SUBSIZED) ? (int) ((this.size - prefixSize % this.size) % this.size) : 0;
+        if (carry == 0) {
+            return create(prefix, null, 0);
+        }
+
+        C carried = newChunk(carry);
+        return create(prefix, carried, fill(carried, carry));
+    }
+
+    @Override
+    public long estimateSize() {
+        long sourceSize = this.source.estimateSize();
+        if (sourceSize == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+
+        long elements = (this.sourceDrained ? 0 : sourceSize) + this.tailLength - this.tailIndex;
+        return (elements + this.size - 1) / this.size;
+    }
+
+    @Override
+    public int characteristics() {
+        int characteristics = ORDERED | NONNULL;
+        if (this.source.hasCharacteristics(SUBSIZED)) {
+            characteristics |= SIZED | SUBSIZED;
+        }
+        return this.source.characteristics() & characteristics | NONNULL;
+    }
+
+    private int fill(C chunk, int capacity) {
+        int length = 0;
+        while (length < capacity && !this.sourceDrained) {
+            if (advanceSource(chunk, length)) {
+                length++;
+            } else {
+                this.sourceDrained = true;
+            }
+        }
+        while (length < capacity && this.tailIndex < this.tailLength) {
+            copyElement(this.tail, this.tailIndex++, chunk, length++);
+        }
+        if (this.tail != null && this.tailIndex == this.tailLength) {
+            this.tail = null;
+        }
+        return length;
+    }
+
+    static final class ForRef<T> extends ChunkSpliterator<List<T>, Spliterator<T>> implements Consumer<T> {
+
+        private List<T> target;
+
+        ForRef(Spliterator<T> source, int size, List<T> tail, int tailLength) {
+            super(source, size, tail, tailLength);
+        }
+
+        @Override
+        List<T> newChunk(int capacity) {
+            return new ArrayList<>(capacity);
+        }
+
+        @Override
+        boolean advanceSource(List<T> chunk, int index) {
+            this.target = chunk;
+            return this.source.tryAdvance(this);
+        }
+
+        @Override
+        public void accept(T value) {
+            this.target.add(value);
+        }
+
+        @Override
+        void copyElement(List<T> from, int fromIndex, List<T> chunk, int index) {
+            chunk.add(from.get(fromIndex));
+        }
+
+        @Override
+        List<T> trim(List<T> chunk, int length) {
+            return chunk;
+        }
+
+        @Override
+        ChunkSpliterator<List<T>, Spliterator<T>> create(Spliterator<T> prefix, List<T> tail, int tailLength) {
+            return new ForRef<>(prefix, this.size, tail, tailLength);
+        }
+    }
+
+    static final class ForInt extends ChunkSpliterator<int[], Spliterator.OfInt> implements IntConsumer {
+
+        private int[] target;
+        private int position;
+
+        ForInt(Spliterator.OfInt source, int size, int[] tail, int tailLength) {
+            super(source, size, tail, tailLength);
+        }
+
+        @Override
+        int[] newChunk(int capacity) {
+            return new int[capacity];
+        }
+
+        @Override
+        boolean advanceSource(int[] chunk, int index) {
+            this.target = chunk;
+            this.position = index;
+            return this.source.tryAdvance((IntConsumer) this);
+        }
+
+        @Override
+        public void accept(int value) {
+            this.target[this.position] = value;
+        }
+
+        @Override
+        void copyElement(int[] from, int fromIndex, int[] chunk, int index) {
+            chunk[index] = from[fromIndex];
+        }
+
+        @Override
+        int[] trim(int[] chunk, int length) {
+            return length == chunk.length ? chunk : Arrays.copyOf(chunk, length);
+        }
+
+        @Override
+        ChunkSpliterator<int[], Spliterator.OfInt> create(Spliterator.OfInt prefix, int[] tail, int tailLength) {
+            return new ForInt(prefix, this.size, tail, tailLength);
+        }
+    }
+
+    static final class ForLong extends ChunkSpliterator<long[], Spliterator.OfLong> implements LongConsumer {
+
+        private long[] target;
+        private int position;
+
+        ForLong(Spliterator.OfLong source, int size, long[] tail, int tailLength) {
+            super(source, size, tail, tailLength);
+        }
+
+        @Override
+        long[] newChunk(int capacity) {
+            return new long[capacity];
+        }
+
+        @Override
+        boolean advanceSource(long[] chunk, int index) {
+            this.target = chunk;
+            this.position = index;
+            return this.source.tryAdvance((LongConsumer) this);
+        }
+
+        @Override
+        public void accept(long value) {
+            this.target[this.position] = value;
+        }
+
+        @Override
+        void copyElement(long[] from, int fromIndex, long[] chunk, int index) {
+            chunk[index] = from[fromIndex];
+        }
+
+        @Override
+        long[] trim(long[] chunk, int length) {
+            return length == chunk.length ? chunk : Arrays.copyOf(chunk, length);
+        }
+
+        @Override
+        ChunkSpliterator<long[], Spliterator.OfLong> create(Spliterator.OfLong prefix, long[] tail, int tailLength) {
+            return new ForLong(prefix, this.size, tail, tailLength);
+        }
+    }
+
+    static final class ForDouble extends ChunkSpliterator<double[], Spliterator.OfDouble> implements DoubleConsumer {
+
+        private double[] target;
+        private int position;
+
+        ForDouble(Spliterator.OfDouble source, int size, double[] tail, int tailLength) {
+            super(source, size, tail, tailLength);
+        }
+
+        @Override
+        double[] newChunk(int capacity) {
+            return new double[capacity];
+        }
+
+        @Override
+        boolean advanceSource(double[] chunk, int index) {
+            this.target = chunk;
+            this.position = index;
+            return this.source.tryAdvance((DoubleConsumer) this);
+        }
+
+        @Override
+        public void accept(double value) {
+            this.target[this.position] = value;
+        }
+
+        @Override
+        void copyElement(double[] from, int fromIndex, double[] chunk, int index) {
+            chunk[index] = from[fromIndex];
+        }
+
+        @Override
+        double[] trim(double[] chunk, int length) {
+            return length == chunk.length ? chunk : Arrays.copyOf(chunk, length);
+        }
+
+        @Override
+        ChunkSpliterator<double[], Spliterator.OfDouble> create(Spliterator.OfDouble prefix, double[] tail, int tailLength) {
+            return new ForDouble(prefix, this.size, tail, tailLength);
+        }
+    }
+}
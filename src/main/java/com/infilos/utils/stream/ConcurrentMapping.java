@@ -0,0 +1,232 @@
+package com.infilos.utils.stream;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Iterator that lazily maps the source elements with at most {@code maxConcurrency} mappings in flight, used by
+ * {@link ParallelStream#mapConcurrent} and {@link ParallelStream#mapConcurrentAsync}.
+ * <p>
+ * Results are emitted in encounter order, or in completion order if not {@code ordered}. Waiting for a result from a
+ * {@link ForkJoinWorkerThread} is done as {@link ForkJoinPool.ManagedBlocker}, so the pool can compensate for the
+ * blocked worker.
+ *
+ * @param <T> The type of the source elements.
+ * @param <R> The type of the mapped elements.
+ */
+final class ConcurrentMapping<T, R> implements Iterator<R> {
+
+    private final Supplier<? extends Iterator<? extends T>> sourceSupplier;
+    private Iterator<? extends T> source;
+    private final Function<? super T, ? extends CompletionStage<? extends R>> launcher;
+    private final int maxConcurrency;
+    private final boolean ordered;
+    private final ArrayDeque<CompletableFuture<? extends R>> window;
+    private final BlockingQueue<CompletableFuture<? extends R>> completed;
+    private volatile boolean cancelled;
+
+    ConcurrentMapping(Supplier<? extends Iterator<? extends T>> sourceSupplier,
+                      Function<? super T, ? extends CompletionStage<? extends R>> launcher,
+                      int maxConcurrency,
+                      boolean ordered) {
+        this.sourceSupplier = requireNonNull(sourceSupplier, "Source must not be null");
+        this.launcher = requireNonNull(launcher, "Mapper must not be null");
+        this.maxConcurrency = checkConcurrency(maxConcurrency);
+        this.ordered = ordered;
+        this.window = new ArrayDeque<>(Math.min(maxConcurrency, 1024));
+        this.completed = ordered ? null : new LinkedBlockingQueue<>();
+    }
+
+    /**
+     * Returns a launcher which runs the blocking {@code mapper} in {@code executor}, as {@link ForkJoinPool.ManagedBlocker}
+     * if the executor is a {@link ForkJoinPool}.
+     */
+    static <T, R> Function<T, CompletionStage<R>> blocking(Function<? super T, ? extends R> mapper, Executor executor) {
+        requireNonNull(mapper, "Mapper must not be null");
+        requireNonNull(executor, "Executor must not be null");
+
+        return element -> CompletableFuture.supplyAsync(() -> callBlocking(mapper, element), executor);
+    }
+
+    static int checkConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Max concurrency must be positive: " + maxConcurrency);
+        }
+        return maxConcurrency;
+    }
+
+    @Override
+    public boolean hasNext() {
+        fill();
+        return !window.isEmpty();
+    }
+
+    @Override
+    public R next() {
+        fill();
+        if (window.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+
+        CompletableFuture<? extends R> next;
+        if (ordered) {
+            synchronized (window) {
+                next = window.poll();
+            }
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            awaitDone(next);
+        } else {
+            next = awaitCompleted();
+            synchronized (window) {
+                window.remove(next);
+            }
+        }
+
+        try {
+            return next.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Cancels the mappings in flight and stops launching new ones.
+     */
+    void cancel() {
+        cancelled = true;
+        CompletableFuture<?>[] inFlight;
+        synchronized (window) {
+            inFlight = window.toArray(new CompletableFuture<?>[0]);
+            window.clear();
+        }
+        for (CompletableFuture<?> future : inFlight) {
+            future.cancel(true);
+        }
+    }
+
+    private void fill() {
+        if (source == null) {
+            source = sourceSupplier.get();
+        }
+        while (!cancelled && window.size() < maxConcurrency && source.hasNext()) {
+            CompletableFuture<? extends R> launched = launch(source.next());
+            synchronized (window) {
+                window.add(launched);
+            }
+        }
+    }
+
+    private CompletableFuture<? extends R> launch(T element) {
+        CompletableFuture<? extends R> future;
+        try {
+            future = launcher.apply(element).toCompletableFuture();
+        } catch (RuntimeException | Error e) {
+            CompletableFuture<R> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            future = failed;
+        }
+
+        if (!ordered) {
+            CompletableFuture<? extends R> launched = future;
+            future.whenComplete((v, e) -> completed.add(launched));
+        }
+        return future;
+    }
+
+    private static void awaitDone(CompletableFuture<?> future) {
+        if (future.isDone()) {
+            return;
+        }
+
+        managedBlock(new ForkJoinPool.ManagedBlocker() {
+            @Override
+            public boolean block() throws InterruptedException {
+                try {
+                    future.get();
+                } catch (ExecutionException | CancellationException ignored) {
+                    // Reported by join() of caller.
+                }
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return future.isDone();
+            }
+        });
+    }
+
+    private CompletableFuture<? extends R> awaitCompleted() {
+        CompletableFuture<? extends R> head = completed.poll();
+        if (head != null) {
+            return head;
+        }
+
+        Object[] taken = new Object[1];
+        managedBlock(new ForkJoinPool.ManagedBlocker() {
+            @Override
+            public boolean block() throws InterruptedException {
+                if (taken[0] == null) {
+                    taken[0] = completed.take();
+                }
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return taken[0] != null || (taken[0] = completed.poll()) != null;
+            }
+        });
+
+        @SuppressWarnings("unchecked")
+        CompletableFuture<? extends R> result = (CompletableFuture<? extends R>) taken[0];
+        return result;
+    }
+
+    private static <T, R> R callBlocking(Function<? super T, ? extends R> mapper, T element) {
+        if (!(Thread.currentThread() instanceof ForkJoinWorkerThread)) {
+            return mapper.apply(element);
+        }
+
+        Object[] result = new Object[1];
+        boolean[] done = new boolean[1];
+        managedBlock(new ForkJoinPool.ManagedBlocker() {
+            @Override
+            public boolean block() {
+                result[0] = mapper.apply(element);
+                done[0] = true;
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return done[0];
+            }
+        });
+
+        @SuppressWarnings("unchecked")
+        R mapped = (R) result[0];
+        return mapped;
+    }
+
+    private static void managedBlock(ForkJoinPool.ManagedBlocker blocker) {
+        try {
+            ForkJoinPool.managedBlock(blocker);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            CancellationException cancelled = new CancellationException("Interrupted while waiting for concurrent mapping");
+            cancelled.initCause(e);
+            throw cancelled;
+        }
+    }
+}
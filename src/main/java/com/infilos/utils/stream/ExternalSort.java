@@ -0,0 +1,262 @@
+package com.infilos.utils.stream;
+
+import com.infilos.utils.FileHelper;
+import com.infilos.utils.io.IORuntimeException;
+import com.infilos.utils.io.Serializer;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Sort of a source larger than the heap, see {@link Streams#externalSort(java.util.stream.Stream, Comparator, Serializer,
+ * com.infilos.utils.DataSize, ForkJoinPool)}.
+ * <p>
+ * The source is buffered until the estimated size of the buffer reaches the budget, then the buffer is sorted and
+ * spilled as a run to a file of {@link FileHelper#createTemporary(String)}. The runs are merged lazily by
+ * {@link MergeSpliterator.Sorted}. If the source fits the budget, nothing is spilled.
+ * <p>
+ * The size of an element is estimated by its serialized size, sampled one of every {@link #SAMPLE_INTERVAL} elements,
+ * plus a fixed overhead of the object header and the reference to it. With a worker pool, one buffer is sorted and
+ * spilled in the pool while the next one is filled, so each buffer gets half of the budget.
+ * <p>
+ * A run file stays open from its creation until it is merged, so it is still readable if the temporary registry
+ * deletes it meanwhile. Runs are deleted as soon as they are merged, the rest on close.
+ */
+final class ExternalSort<T> implements Closeable {
+
+    private static final int SAMPLE_INTERVAL = 16;
+    private static final int ELEMENT_OVERHEAD = 32;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    private static final AtomicLong SORT_IDS = new AtomicLong();
+
+    private final Comparator<? super T> comparator;
+    private final Serializer<T> serializer;
+    private final long bufferBudget;
+    private final ForkJoinPool workerPool;
+    private final String name = "external-sort-" + SORT_IDS.incrementAndGet();
+    private final List<Run> runs = Collections.synchronizedList(new ArrayList<>());
+
+    ExternalSort(Comparator<? super T> comparator, Serializer<T> serializer, long memoryBudget, ForkJoinPool workerPool) {
+        this.comparator = comparator;
+        this.serializer = serializer;
+        this.workerPool = workerPool;
+        this.bufferBudget = workerPool == null ? memoryBudget : memoryBudget / 2;
+    }
+
+    /**
+     * Consumes {@code source} and returns the spliterator of its elements sorted.
+     */
+    Spliterator<T> sort(Spliterator<T> source) {
+        try {
+            Accumulator accumulator = new Accumulator();
+            source.forEachRemaining(accumulator);
+            return accumulator.finish();
+        } catch (RuntimeException | Error e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this.runs) {
+            for (Run run : this.runs) {
+                run.delete();
+            }
+            this.runs.clear();
+        }
+    }
+
+    private Run spill(List<T> sorted) {
+        File file = FileHelper.createTemporary(this.name + "-" + this.runs.size() + ".run");
+        Run run;
+        try {
+            run = new Run(file, FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        } catch (IOException e) {
+            throw new IORuntimeException(e, "Failed to create sort run %s", file);
+        }
+        this.runs.add(run);
+
+        try {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(run.channel), IO_BUFFER_SIZE));
+            for (T element : sorted) {
+                this.serializer.write(element, output);
+            }
+            output.flush();
+            run.count = sorted.size();
+        } catch (IOException e) {
+            throw new IORuntimeException(e, "Failed to write sort run %s", file);
+        }
+        return run;
+    }
+
+    private void sortBuffer(List<T> buffer) {
+        if (this.workerPool == null) {
+            buffer.sort(this.comparator);
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        T[] elements = (T[]) buffer.toArray();
+        Arrays.parallelSort(elements, this.comparator);
+        ListIterator<T> iterator = buffer.listIterator();
+        for (T element : elements) {
+            iterator.next();
+            iterator.set(element);
+        }
+    }
+
+    /**
+     * Buffers the source and spills full buffers.
+     */
+    private final class Accumulator implements Consumer<T> {
+        private final DataOutputStream sizer = new DataOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                sampledBytes++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                sampledBytes += len;
+            }
+        });
+        private long sampledBytes;
+        private long sampled;
+        private long elementSize = ELEMENT_OVERHEAD;
+        private long seen;
+
+        private List<T> buffer = new ArrayList<>();
+        private long bufferBytes;
+        private ForkJoinTask<Run> pending;
+
+        @Override
+        public void accept(T element) {
+            if (this.seen++ % SAMPLE_INTERVAL == 0) {
+                try {
+                    ExternalSort.this.serializer.write(element, this.sizer);
+                } catch (IOException e) {
+                    throw new IORuntimeException(e, "Failed to serialize %s", element);
+                }
+                this.sampled++;
+                this.elementSize = this.sampledBytes / this.sampled + ELEMENT_OVERHEAD;
+            }
+
+            this.buffer.add(element);
+            this.bufferBytes += this.elementSize;
+            if (this.bufferBytes >= ExternalSort.this.bufferBudget) {
+                flush();
+                this.buffer = new ArrayList<>(this.buffer.size());
+                this.bufferBytes = 0;
+            }
+        }
+
+        private void flush() {
+            List<T> full = this.buffer;
+            if (ExternalSort.this.workerPool == null) {
+                sortBuffer(full);
+                spill(full);
+                return;
+            }
+
+            awaitPending();
+            this.pending = ExternalSort.this.workerPool.submit(() -> {
+                sortBuffer(full);
+                return spill(full);
+            });
+        }
+
+        private void awaitPending() {
+            if (this.pending != null) {
+                this.pending.join();
+                this.pending = null;
+            }
+        }
+
+        private Spliterator<T> finish() {
+            if (ExternalSort.this.runs.isEmpty() && this.pending == null) {
+                sortBuffer(this.buffer);
+                return this.buffer.spliterator();
+            }
+
+            if (!this.buffer.isEmpty()) {
+                flush();
+            }
+            awaitPending();
+            this.buffer = null;
+
+            List<Spliterator<T>> sources = new ArrayList<>(ExternalSort.this.runs.size());
+            for (Run run : ExternalSort.this.runs) {
+                sources.add(Spliterators.spliterator(run.reader(), run.count, Spliterator.ORDERED));
+            }
+            return new MergeSpliterator.Sorted<>(ExternalSort.this.comparator, sources);
+        }
+    }
+
+    /**
+     * A sorted run spilled to a file, kept open from writing to the end of reading.
+     */
+    private final class Run {
+        private final File file;
+        private final FileChannel channel;
+        private long count;
+
+        private Run(File file, FileChannel channel) {
+            this.file = file;
+            this.channel = channel;
+        }
+
+        private Iterator<T> reader() {
+            DataInputStream input;
+            try {
+                this.channel.position(0);
+                input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(this.channel), IO_BUFFER_SIZE));
+            } catch (IOException e) {
+                throw new IORuntimeException(e, "Failed to read sort run %s", this.file);
+            }
+
+            return new Iterator<T>() {
+                private long remaining = Run.this.count;
+
+                @Override
+                public boolean hasNext() {
+                    if (this.remaining > 0) {
+                        return true;
+                    }
+                    delete();
+                    return false;
+                }
+
+                @Override
+                public T next() {
+                    if (this.remaining <= 0) {
+                        throw new NoSuchElementException();
+                    }
+                    try {
+                        T element = ExternalSort.this.serializer.read(input);
+                        this.remaining--;
+                        return element;
+                    } catch (IOException e) {
+                        throw new IORuntimeException(e, "Failed to read sort run %s", Run.this.file);
+                    }
+                }
+            };
+        }
+
+        private void delete() {
+            try {
+                this.channel.close();
+            } catch (IOException ignored) {
+            }
+            FileHelper.cleanTemporary(this.file);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.infilos.utils.stream;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Growable buffer of {@code int} values kept in chunks, the primitive counterpart of collecting boxed values to a list.
+ * It is meant as the container of {@link IntStream#collect(java.util.function.Supplier, java.util.function.ObjIntConsumer,
+ * java.util.function.BiConsumer)}:
+ * <pre>
+ * IntArrayBuilder ids = ParallelIntStream.submit(...).collect(IntArrayBuilder::new, IntArrayBuilder::add, IntArrayBuilder::addAll);
+ * </pre>
+ * <p>
+ * Chunks grow geometrically up to a fixed size so appending never copies existing values, and {@link #addAll(IntArrayBuilder)}
+ * links the chunks of the other builder instead of copying them, so combining the partial results of a parallel stream
+ * costs time in the number of chunks, not in the number of values. The values are copied once by {@link #toArray()}.
+ * <p>
+ * This class is not thread safe.
+ */
+public final class IntArrayBuilder {
+
+    private static final int FIRST_CHUNK = 16;
+    private static final int MAX_CHUNK = 1 << 16;
+    /**
+     * Builders up to this size are copied by {@link #addAll(IntArrayBuilder)}, which avoids collecting small chunks.
+     */
+    private static final int COPY_THRESHOLD = 256;
+    private static final int[] EMPTY = new int[0];
+
+    private int[][] chunks;
+    private int[] counts;
+    private int chunkCount;
+    private int[] current;
+    private int position;
+    private int size;
+
+    public IntArrayBuilder() {
+        clear();
+    }
+
+    public void add(int value) {
+        if (this.position == this.current.length) {
+            append(new int[Math.min(Math.max(this.size, FIRST_CHUNK), MAX_CHUNK)], 0);
+        }
+        this.current[this.position++] = value;
+        this.size++;
+    }
+
+    /**
+     * Moves the values of {@code other} to the end of this builder, {@code other} is left empty.
+     */
+    public void addAll(IntArrayBuilder other) {
+        if (other == this || other.size == 0) {
+            return;
+        }
+        if (other.size <= COPY_THRESHOLD) {
+            other.forEach(this::add);
+        } else {
+            for (int index = 0; index < other.chunkCount; index++) {
+                append(other.chunks[index], other.countOf(index));
+            }
+            this.size = Math.addExact(this.size, other.size);
+        }
+        other.clear();
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int index = 0; index < this.chunkCount; index++) {
+            int[] chunk = this.chunks[index];
+            int count = countOf(index);
+            for (int offset = 0; offset < count; offset++) {
+                action.accept(chunk[offset]);
+            }
+        }
+    }
+
+    /**
+     * Returns the values in the order they were added.
+     */
+    public int[] toArray() {
+        int[] values = new int[this.size];
+        int filled = 0;
+        for (int index = 0; index < this.chunkCount; index++) {
+            int count = countOf(index);
+            System.arraycopy(this.chunks[index], 0, values, filled, count);
+            filled += count;
+        }
+        return values;
+    }
+
+    public IntStream stream() {
+        return Arrays.stream(toArray());
+    }
+
+    public void clear() {
+        this.chunks = new int[4][];
+        this.counts = new int[4];
+        this.chunkCount = 0;
+        this.current = EMPTY;
+        this.position = 0;
+        this.size = 0;
+    }
+
+    private int countOf(int index) {
+        return index == this.chunkCount - 1 ? this.position : this.counts[index];
+    }
+
+    private void append(int[] chunk, int count) {
+        if (this.chunkCount > 0) {
+            this.counts[this.chunkCount - 1] = this.position;
+        }
+        if (this.chunkCount == this.chunks.length) {
+            this.chunks = Arrays.copyOf(this.chunks, this.chunkCount * 2);
+            this.counts = Arrays.copyOf(this.counts, this.chunkCount * 2);
+        }
+        this.chunks[this.chunkCount++] = chunk;
+        this.current = chunk;
+        this.position = count;
+    }
+
+    @Override
+    public String toString() {
+        return "IntArrayBuilder{size=" + this.size + ", chunks=" + this.chunkCount + '}';
+    }
+}
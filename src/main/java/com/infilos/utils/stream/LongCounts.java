@@ -0,0 +1,208 @@
+package com.infilos.utils.stream;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts of {@code long} values, the primitive counterpart of {@code groupingBy(identity(), counting())}, backed by an
+ * open addressing hash table of primitive arrays. {@code int} values are widened, so it is the container of both
+ * {@code IntStream} and {@code LongStream} collects:
+ * <pre>
+ * LongCounts counts = ParallelIntStream.submit(...).collect(LongCounts::new, LongCounts::add, LongCounts::addAll);
+ * </pre>
+ * <p>
+ * {@link #addAll(LongCounts)} inserts the smaller table into the larger one, taking over the table of {@code other}
+ * when it is the larger, so combining partial results doesn't rehash the big table repeatedly. This class is not
+ * thread safe.
+ */
+public final class LongCounts {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Key {@code 0} marks a free slot, its count is kept aside.
+     */
+    private long[] keys;
+    private long[] counts;
+    private int mask;
+    private int size;
+    private long zeroCount;
+    private long total;
+
+    public LongCounts() {
+        clear();
+    }
+
+    public void add(long value) {
+        add(value, 1);
+    }
+
+    public void add(long value, long count) {
+        this.total += count;
+        if (value == 0) {
+            if (this.zeroCount == 0 && count != 0) {
+                this.size++;
+            }
+            this.zeroCount += count;
+            return;
+        }
+
+        int slot = slotOf(this.keys, this.mask, value);
+        if (this.keys[slot] == value) {
+            this.counts[slot] += count;
+            return;
+        }
+        this.keys[slot] = value;
+        this.counts[slot] = count;
+        if (++this.size * 4 > this.keys.length * 3) {
+            rehash(this.keys.length * 2);
+        }
+    }
+
+    /**
+     * Adds the counts of {@code other} to this one, {@code other} is left empty.
+     */
+    public void addAll(LongCounts other) {
+        if (other == this) {
+            return;
+        }
+        if (other.size > this.size) {
+            long[] keys = this.keys;
+            long[] counts = this.counts;
+            long zeroCount = this.zeroCount;
+            this.keys = other.keys;
+            this.counts = other.counts;
+            this.mask = other.mask;
+            this.size = other.size;
+            this.zeroCount = other.zeroCount;
+            this.total = other.total;
+            other.keys = keys;
+            other.counts = counts;
+            other.zeroCount = zeroCount;
+        }
+        if (other.zeroCount != 0) {
+            add(0, other.zeroCount);
+        }
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            if (other.keys[slot] != 0) {
+                add(other.keys[slot], other.counts[slot]);
+            }
+        }
+        other.clear();
+    }
+
+    /**
+     * Returns the count of {@code value}, 0 if it was never added.
+     */
+    public long get(long value) {
+        if (value == 0) {
+            return this.zeroCount;
+        }
+        int slot = slotOf(this.keys, this.mask, value);
+        return this.keys[slot] == value ? this.counts[slot] : 0;
+    }
+
+    /**
+     * Number of distinct values.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Sum of all the counts.
+     */
+    public long total() {
+        return this.total;
+    }
+
+    /**
+     * Returns the distinct values, in no particular order.
+     */
+    public long[] values() {
+        long[] values = new long[this.size];
+        int filled = 0;
+        if (this.zeroCount != 0) {
+            values[filled++] = 0;
+        }
+        for (long key : this.keys) {
+            if (key != 0) {
+                values[filled++] = key;
+            }
+        }
+        return values;
+    }
+
+    public void forEach(EntryConsumer action) {
+        if (this.zeroCount != 0) {
+            action.accept(0, this.zeroCount);
+        }
+        for (int slot = 0; slot < this.keys.length; slot++) {
+            if (this.keys[slot] != 0) {
+                action.accept(this.keys[slot], this.counts[slot]);
+            }
+        }
+    }
+
+    /**
+     * Returns the counts sorted by value, boxing every entry.
+     */
+    public Map<Long, Long> toMap() {
+        Map<Long, Long> map = new TreeMap<>();
+        forEach(map::put);
+        return map;
+    }
+
+    public void clear() {
+        this.keys = new long[INITIAL_CAPACITY];
+        this.counts = new long[INITIAL_CAPACITY];
+        this.mask = INITIAL_CAPACITY - 1;
+        this.size = 0;
+        this.zeroCount = 0;
+        this.total = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = this.keys;
+        long[] oldCounts = this.counts;
+        this.keys = new long[capacity];
+        this.counts = new long[capacity];
+        this.mask = capacity - 1;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != 0) {
+                int target = slotOf(this.keys, this.mask, oldKeys[slot]);
+                this.keys[target] = oldKeys[slot];
+                this.counts[target] = oldCounts[slot];
+            }
+        }
+    }
+
+    /**
+     * Returns the slot of {@code value} or the free slot to insert it, by linear probing.
+     */
+    private static int slotOf(long[] keys, int mask, long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[slot] != 0 && keys[slot] != value) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    @Override
+    public String toString() {
+        return "LongCounts{size=" + this.size + ", total=" + this.total + '}';
+    }
+
+    /**
+     * Receives a value and its count without boxing.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long value, long count);
+    }
+}
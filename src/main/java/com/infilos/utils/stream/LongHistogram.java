@@ -0,0 +1,207 @@
+package com.infilos.utils.stream;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of {@code long} values over equally wide buckets of {@code [min, max)}, values out of the range are counted
+ * as underflow or overflow. Used as the container of a primitive stream collect:
+ * <pre>
+ * LongHistogram latencies = ParallelLongStream.submit(...)
+ *     .collect(() -&gt; new LongHistogram(0, 1_000, 100), LongHistogram::add, LongHistogram::addAll);
+ * </pre>
+ * <p>
+ * Adding a value only increments a counter, and combining two histograms adds their bucket counters, so the cost of a
+ * parallel collect doesn't depend on the number of values. This class is not thread safe.
+ */
+public final class LongHistogram {
+
+    private final long min;
+    private final long max;
+    private final long range;
+    private final long[] buckets;
+    // whether offset * buckets fits in a long for every offset in the range
+    private final boolean scalable;
+    private long underflow;
+    private long overflow;
+    private long count;
+    private long sum;
+    private long minValue = Long.MAX_VALUE;
+    private long maxValue = Long.MIN_VALUE;
+
+    /**
+     * @param min     Lower bound of the first bucket, inclusive.
+     * @param max     Upper bound of the last bucket, exclusive.
+     * @param buckets Number of buckets, their widths differ by at most one if {@code buckets} doesn't divide the range.
+     */
+    public LongHistogram(long min, long max, int buckets) {
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("Buckets must be positive: " + buckets);
+        }
+        long range = max - min;
+        if (range <= 0) {
+            throw new IllegalArgumentException("Range must be positive and not overflow: [" + min + ", " + max + ")");
+        }
+
+        this.min = min;
+        this.max = max;
+        this.range = range;
+        this.buckets = new long[buckets];
+        this.scalable = range <= Long.MAX_VALUE / buckets;
+    }
+
+    public void add(long value) {
+        if (value < this.min) {
+            this.underflow++;
+        } else if (value >= this.max) {
+            this.overflow++;
+        } else {
+            this.buckets[indexOf(value - this.min)]++;
+        }
+        this.count++;
+        this.sum += value;
+        this.minValue = Math.min(this.minValue, value);
+        this.maxValue = Math.max(this.maxValue, value);
+    }
+
+    /**
+     * Adds the counters of {@code other} to this histogram, both must have the same buckets.
+     */
+    public void addAll(LongHistogram other) {
+        if (other.min != this.min || other.max != this.max || other.buckets.length != this.buckets.length) {
+            throw new IllegalArgumentException("Histograms have different buckets: " + this + ", " + other);
+        }
+        for (int index = 0; index < this.buckets.length; index++) {
+            this.buckets[index] += other.buckets[index];
+        }
+        this.underflow += other.underflow;
+        this.overflow += other.overflow;
+        this.count += other.count;
+        this.sum += other.sum;
+        this.minValue = Math.min(this.minValue, other.minValue);
+        this.maxValue = Math.max(this.maxValue, other.maxValue);
+    }
+
+    public int buckets() {
+        return this.buckets.length;
+    }
+
+    public long countAt(int bucket) {
+        return this.buckets[bucket];
+    }
+
+    /**
+     * Lower bound of {@code bucket}, inclusive.
+     */
+    public long lowerBound(int bucket) {
+        if (bucket < 0 || bucket >= this.buckets.length) {
+            throw new IndexOutOfBoundsException("Bucket: " + bucket + ", Buckets: " + this.buckets.length);
+        }
+        return this.min + lowerOffset(bucket);
+    }
+
+    /**
+     * Upper bound of {@code bucket}, exclusive.
+     */
+    public long upperBound(int bucket) {
+        return bucket == this.buckets.length - 1 ? this.max : lowerBound(bucket + 1);
+    }
+
+    /**
+     * Returns {@code offset * buckets / range}, the bucket of the value at {@code offset} from min.
+     */
+    private int indexOf(long offset) {
+        int last = this.buckets.length - 1;
+        if (this.scalable) {
+            return (int) (offset * this.buckets.length / this.range);
+        }
+
+        // estimate, then correct the rounding of the double against the exact bounds
+        int index = (int) Math.min(last, (long) ((double) offset * this.buckets.length / this.range));
+        while (index > 0 && offset < lowerOffset(index)) {
+            index--;
+        }
+        while (index < last && offset >= lowerOffset(index + 1)) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Returns {@code ceil(bucket * range / buckets)}, the smallest offset from min which falls in {@code bucket}.
+     */
+    private long lowerOffset(int bucket) {
+        long count = this.buckets.length;
+        // bucket * (range % count) < count * count, it doesn't overflow
+        return bucket * (this.range / count) + (bucket * (this.range % count) + count - 1) / count;
+    }
+
+    public long underflow() {
+        return this.underflow;
+    }
+
+    public long overflow() {
+        return this.overflow;
+    }
+
+    /**
+     * Number of all the values added, including underflow and overflow.
+     */
+    public long count() {
+        return this.count;
+    }
+
+    public long sum() {
+        return this.sum;
+    }
+
+    public long min() {
+        return this.minValue;
+    }
+
+    public long max() {
+        return this.maxValue;
+    }
+
+    public double average() {
+        return this.count == 0 ? 0 : (double) this.sum / this.count;
+    }
+
+    /**
+     * Returns an approximation of the {@code percentile}, which is the upper bound of the bucket holding it, clamped to
+     * the extremes of the values added. Returns {@link #min()} or {@link #max()} if it falls in underflow or overflow.
+     *
+     * @param percentile Between 0 and 100.
+     */
+    public long percentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (this.count == 0) {
+            throw new IllegalStateException("Empty histogram");
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * this.count));
+        long seen = this.underflow;
+        if (rank <= seen) {
+            return this.minValue;
+        }
+        for (int index = 0; index < this.buckets.length; index++) {
+            seen += this.buckets[index];
+            if (rank <= seen) {
+                return Math.max(this.minValue, Math.min(this.maxValue, upperBound(index) - 1));
+            }
+        }
+        return this.maxValue;
+    }
+
+    @Override
+    public String toString() {
+        return "LongHistogram{" +
+            "range=[" + this.min + ", " + this.max + ")" +
+            ", count=" + this.count +
+            ", underflow=" + this.underflow +
+            ", overflow=" + this.overflow +
+            ", buckets=" + Arrays.toString(this.buckets) +
+            '}';
+    }
+}
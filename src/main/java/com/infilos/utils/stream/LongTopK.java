@@ -0,0 +1,117 @@
+package com.infilos.utils.stream;
+
+import java.util.Arrays;
+
+/**
+ * The {@code k} largest {@code long} values seen, kept in a primitive min-heap so each value costs at most
+ * {@code O(log k)} and no boxing. {@code int} values are widened, so it is the container of both {@code IntStream}
+ * and {@code LongStream} collects:
+ * <pre>
+ * LongTopK top = ParallelLongStream.submit(...).collect(() -&gt; new LongTopK(10), LongTopK::add, LongTopK::addAll);
+ * </pre>
+ * Combining two partial results offers the {@code k} values of one heap to the other, so it doesn't depend on the
+ * number of values seen. For the smallest values, negate them before adding. This class is not thread safe.
+ */
+public final class LongTopK {
+
+    private final long[] heap;
+    private int size;
+
+    public LongTopK(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("K must be positive: " + k);
+        }
+        this.heap = new long[k];
+    }
+
+    public void add(long value) {
+        if (this.size < this.heap.length) {
+            int index = this.size++;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (this.heap[parent] <= value) {
+                    break;
+                }
+                this.heap[index] = this.heap[parent];
+                index = parent;
+            }
+            this.heap[index] = value;
+        } else if (value > this.heap[0]) {
+            siftDown(value);
+        }
+    }
+
+    /**
+     * Offers the values kept by {@code other} to this one.
+     */
+    public void addAll(LongTopK other) {
+        if (other == this) {
+            return;
+        }
+        for (int index = 0; index < other.size; index++) {
+            add(other.heap[index]);
+        }
+    }
+
+    public int k() {
+        return this.heap.length;
+    }
+
+    /**
+     * Number of values kept, less than {@link #k()} if fewer values were added.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the values kept, from the largest to the smallest.
+     */
+    public long[] toArray() {
+        long[] values = Arrays.copyOf(this.heap, this.size);
+        Arrays.sort(values);
+        for (int left = 0, right = values.length - 1; left < right; left++, right--) {
+            long value = values[left];
+            values[left] = values[right];
+            values[right] = value;
+        }
+        return values;
+    }
+
+    /**
+     * Same as {@link #toArray()}, narrowed to {@code int} for the values added by an {@code IntStream}.
+     */
+    public int[] toIntArray() {
+        long[] values = toArray();
+        int[] narrowed = new int[values.length];
+        for (int index = 0; index < values.length; index++) {
+            narrowed[index] = (int) values[index];
+        }
+        return narrowed;
+    }
+
+    /**
+     * Replaces the smallest value, the root of the heap, by {@code value}.
+     */
+    private void siftDown(long value) {
+        int index = 0;
+        int half = this.size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < this.size && this.heap[child + 1] < this.heap[child]) {
+                child++;
+            }
+            if (value <= this.heap[child]) {
+                break;
+            }
+            this.heap[index] = this.heap[child];
+            index = child;
+        }
+        this.heap[index] = value;
+    }
+
+    @Override
+    public String toString() {
+        return "LongTopK" + Arrays.toString(toArray());
+    }
+}
@@ -0,0 +1,103 @@
+package com.infilos.utils.stream;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Sliding window of {@code long} values backed by a primitive ring buffer, passed to the aggregator of
+ * {@link Streams#windowed(java.util.stream.LongStream, int, int, java.util.function.ToLongFunction)}.
+ * <p>
+ * The same instance is reused for every step of the window, so it is only valid during the aggregator call. The sum
+ * is maintained incrementally, other statistics traverse the window without copying it.
+ */
+public final class LongWindow {
+
+    private final long[] ring;
+    private int head;
+    private int size;
+    private long sum;
+
+    LongWindow(int capacity) {
+        this.ring = new long[capacity];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the value at {@code index}, 0 is the oldest value.
+     */
+    public long get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+        return this.ring[(this.head + index) % this.ring.length];
+    }
+
+    public long first() {
+        return get(0);
+    }
+
+    public long last() {
+        return get(this.size - 1);
+    }
+
+    public long sum() {
+        return this.sum;
+    }
+
+    public double average() {
+        if (this.size == 0) {
+            throw new NoSuchElementException("Empty window");
+        }
+        return (double) this.sum / this.size;
+    }
+
+    public long min() {
+        long min = first();
+        for (int index = 1; index < this.size; index++) {
+            min = Math.min(min, this.ring[(this.head + index) % this.ring.length]);
+        }
+        return min;
+    }
+
+    public long max() {
+        long max = first();
+        for (int index = 1; index < this.size; index++) {
+            max = Math.max(max, this.ring[(this.head + index) % this.ring.length]);
+        }
+        return max;
+    }
+
+    /**
+     * Returns a copy of the values, from the oldest to the newest.
+     */
+    public long[] toArray() {
+        long[] values = new long[this.size];
+        for (int index = 0; index < this.size; index++) {
+            values[index] = this.ring[(this.head + index) % this.ring.length];
+        }
+        return values;
+    }
+
+    boolean isFull() {
+        return this.size == this.ring.length;
+    }
+
+    void add(long value) {
+        this.ring[(this.head + this.size) % this.ring.length] = value;
+        this.size++;
+        this.sum += value;
+    }
+
+    void removeFirst() {
+        this.sum -= this.ring[this.head];
+        this.head = (this.head + 1) % this.ring.length;
+        this.size--;
+    }
+
+    @Override
+    public String toString() {
+        return java.util.Arrays.toString(toArray());
+    }
+}
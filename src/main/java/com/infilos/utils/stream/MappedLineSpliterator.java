@@ -0,0 +1,167 @@
+package com.infilos.utils.stream;
+
+import com.infilos.utils.internal.MappedLines;
+import com.infilos.utils.io.IORuntimeException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator of the lines in a byte range of a file, which starts at the beginning of a line and ends at the beginning
+ * of a line or the end of file, used by {@link Streams#lines(java.nio.file.Path, Charset)}.
+ * <p>
+ * Splitting halves the range and moves the split point forward to the next line start, so only a few bytes are read to
+ * split. The range is memory-mapped lazily on first traversal, by {@link MappedLines} segments that end at line
+ * boundaries, so files larger than 2GB are supported. Lines end with {@code \n}, a {@code \r} before it is dropped, and
+ * the charset must encode {@code \n} as the single byte {@code 0x0A}, like ASCII compatible charsets.
+ */
+final class MappedLineSpliterator implements Spliterator<String> {
+
+    static final long MIN_SPLIT = 1 << 16;
+    private static final int SCAN_BUFFER = 8192;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Charset charset;
+    private long from;
+    private final long to;
+
+    private MappedByteBuffer segment;
+    private long segmentEnd;
+    private byte[] lineBytes = new byte[256];
+
+    /**
+     * @param path The file opened by {@code channel}, null if unknown.
+     */
+    MappedLineSpliterator(Path path, FileChannel channel, Charset charset, long from, long to) {
+        this.path = path;
+        this.channel = channel;
+        this.charset = charset;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (this.segment == null || !this.segment.hasRemaining()) {
+            if (!mapNextSegment()) {
+                return false;
+            }
+        }
+
+        action.accept(nextLine(this.segment));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super String> action) {
+        do {
+            if (this.segment != null) {
+                while (this.segment.hasRemaining()) {
+                    action.accept(nextLine(this.segment));
+                }
+            }
+        } while (mapNextSegment());
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        if (this.segment != null || this.to - this.from < MIN_SPLIT) {
+            return null;
+        }
+
+        long split = nextLineStart(this.from + (this.to - this.from) / 2);
+        if (split >= this.to) {
+            return null;
+        }
+
+        MappedLineSpliterator prefix = new MappedLineSpliterator(this.path, this.channel, this.charset, this.from, split);
+        this.from = split;
+        return prefix;
+    }
+
+    /**
+     * Returns the remaining bytes, an upper bound of the remaining lines.
+     */
+    @Override
+    public long estimateSize() {
+        long unmapped = this.to - (this.segment == null ? this.from : this.segmentEnd);
+        return unmapped + (this.segment == null ? 0 : this.segment.remaining());
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    private String nextLine(ByteBuffer buffer) {
+        int start = buffer.position();
+        int limit = buffer.limit();
+        int end = start;
+        while (end < limit && buffer.get(end) != '\n') {
+            end++;
+        }
+        buffer.position(end < limit ? end + 1 : limit);
+
+        int length = end - start;
+        if (length > 0 && buffer.get(end - 1) == '\r') {
+            length--;
+        }
+        if (this.lineBytes.length < length) {
+            this.lineBytes = new byte[Math.max(length, this.lineBytes.length * 2)];
+        }
+        ByteBuffer view = buffer.duplicate();
+        view.position(start);
+        view.get(this.lineBytes, 0, length);
+
+        return new String(this.lineBytes, 0, length, this.charset);
+    }
+
+    /**
+     * Maps the next segment of the range, ending after the last line feed within {@link MappedLines#MAX_SEGMENT} bytes.
+     */
+    private boolean mapNextSegment() {
+        long start = this.segment == null ? this.from : this.segmentEnd;
+        if (start >= this.to) {
+            this.segment = null;
+            this.from = this.to;
+            return false;
+        }
+
+        this.segment = MappedLines.mapSegment(this.path, this.channel, start, this.to, MappedLines.MAX_SEGMENT);
+        this.segmentEnd = start + this.segment.limit();
+        return true;
+    }
+
+    /**
+     * Returns the position after the first line feed at or after {@code position}, or {@link #to}.
+     */
+    private long nextLineStart(long position) {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER);
+        try {
+            while (position < this.to) {
+                buffer.clear();
+                buffer.limit((int) Math.min(SCAN_BUFFER, this.to - position));
+                int read = this.channel.read(buffer, position);
+                if (read <= 0) {
+                    return this.to;
+                }
+                for (int index = 0; index < read; index++) {
+                    if (buffer.get(index) == '\n') {
+                        return position + index + 1;
+                    }
+                }
+                position += read;
+            }
+            return this.to;
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+}
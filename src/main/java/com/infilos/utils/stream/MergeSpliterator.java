@@ -0,0 +1,174 @@
+package com.infilos.utils.stream;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Spliterators combining multiple sources, used by {@link Streams#mergeSorted} and {@link Streams#zip}.
+ */
+final class MergeSpliterator {
+
+    private MergeSpliterator() {
+    }
+
+    private static long sumSizes(List<? extends Spliterator<?>> sources) {
+        long size = 0;
+        for (Spliterator<?> source : sources) {
+            long known = source.getExactSizeIfKnown();
+            if (known < 0) {
+                return Long.MAX_VALUE;
+            }
+            size += known;
+            if (size < 0) {
+                return Long.MAX_VALUE;
+            }
+        }
+        return size;
+    }
+
+    private static boolean allHave(List<? extends Spliterator<?>> sources, int characteristic) {
+        for (Spliterator<?> source : sources) {
+            if (!source.hasCharacteristics(characteristic)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * K-way merge of sorted sources by a binary min-heap of their iterators, each element costs {@code O(log k)} and
+     * only the head of each source is held. Equal elements are taken from the sources in their order.
+     */
+    static final class Sorted<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Comparator<? super T> comparator;
+        private final Iterator<? extends T>[] iterators;
+        private final Object[] heads;
+        private final int[] heap;
+        private int heapSize = -1;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Sorted(Comparator<? super T> comparator, List<? extends Spliterator<? extends T>> sources) {
+            super(sumSizes(sources), (sumSizes(sources) == Long.MAX_VALUE ? 0 : SIZED) | ORDERED | SORTED);
+            this.comparator = comparator;
+            this.iterators = new Iterator[sources.size()];
+            for (int index = 0; index < sources.size(); index++) {
+                this.iterators[index] = Spliterators.iterator(sources.get(index));
+            }
+            this.heads = new Object[sources.size()];
+            this.heap = new int[sources.size()];
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (this.heapSize < 0) {
+                initHeap();
+            }
+            if (this.heapSize == 0) {
+                return false;
+            }
+
+            int top = this.heap[0];
+            @SuppressWarnings("unchecked")
+            T element = (T) this.heads[top];
+            if (this.iterators[top].hasNext()) {
+                this.heads[top] = this.iterators[top].next();
+            } else {
+                this.heads[top] = null;
+                this.heap[0] = this.heap[--this.heapSize];
+            }
+            siftDown(0);
+
+            action.accept(element);
+            return true;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return this.comparator;
+        }
+
+        private void initHeap() {
+            this.heapSize = 0;
+            for (int index = 0; index < this.iterators.length; index++) {
+                if (this.iterators[index].hasNext()) {
+                    this.heads[index] = this.iterators[index].next();
+                    this.heap[this.heapSize++] = index;
+                }
+            }
+            for (int index = this.heapSize / 2 - 1; index >= 0; index--) {
+                siftDown(index);
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < this.heapSize && less(this.heap[left], this.heap[smallest])) {
+                    smallest = left;
+                }
+                if (right < this.heapSize && less(this.heap[right], this.heap[smallest])) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                int swap = this.heap[index];
+                this.heap[index] = this.heap[smallest];
+                this.heap[smallest] = swap;
+                index = smallest;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean less(int a, int b) {
+            int compared = this.comparator.compare((T) this.heads[a], (T) this.heads[b]);
+            return compared < 0 || compared == 0 && a < b;
+        }
+    }
+
+    /**
+     * Pairs the elements of two sources by position, ends with the shorter one. It is {@code SIZED} if both sources
+     * are, splitting hands out batches of pairs.
+     */
+    static final class Zip<A, B, R> extends Spliterators.AbstractSpliterator<R> implements Consumer<A> {
+        private final Spliterator<A> first;
+        private final Spliterator<B> second;
+        private final BiFunction<? super A, ? super B, ? extends R> zipper;
+        private final Consumer<B> secondSink = element -> this.paired = element;
+        private A current;
+        private B paired;
+
+        Zip(Spliterator<A> first, Spliterator<B> second, BiFunction<? super A, ? super B, ? extends R> zipper) {
+            super(Math.min(first.estimateSize(), second.estimateSize()),
+                first.characteristics() & second.characteristics() & (SIZED | ORDERED));
+            this.first = first;
+            this.second = second;
+            this.zipper = zipper;
+        }
+
+        @Override
+        public void accept(A element) {
+            this.current = element;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action) {
+            if (!this.first.tryAdvance(this) || !this.second.tryAdvance(this.secondSink)) {
+                return false;
+            }
+
+            R zipped = this.zipper.apply(this.current, this.paired);
+            this.current = null;
+            this.paired = null;
+            action.accept(zipped);
+            return true;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import java.util.DoubleSummaryStatistics;
 import java.util.OptionalDouble;
 import java.util.PrimitiveIterator.OfDouble;
 import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinTask;
 import java.util.function.*;
@@ -88,7 +89,7 @@ public class ParallelDoubleStream extends AbstractParallelStream<Double, DoubleS
     public static DoubleStream submit(double[] array, ForkJoinPool workerPool) {
         requireNonNull(array, "Array must not be null");
 
-        return new ParallelDoubleStream(stream(array).parallel(), workerPool);
+        return new ParallelDoubleStream(stream(array).parallel(), workerPool).bindSource();
     }
 
     /**
@@ -107,7 +108,7 @@ public class ParallelDoubleStream extends AbstractParallelStream<Double, DoubleS
     public static DoubleStream submit(Spliterator.OfDouble spliterator, ForkJoinPool workerPool) {
         requireNonNull(spliterator, "Spliterator must not be null");
 
-        return new ParallelDoubleStream(doubleStream(spliterator, true), workerPool);
+        return new ParallelDoubleStream(doubleStream(spliterator, true), workerPool).bindSource();
     }
 
     /**
@@ -130,7 +131,7 @@ public class ParallelDoubleStream extends AbstractParallelStream<Double, DoubleS
     public static DoubleStream submit(Supplier<? extends Spliterator.OfDouble> supplier, int characteristics, ForkJoinPool workerPool) {
         requireNonNull(supplier, "Supplier must not be null");
 
-        return new ParallelDoubleStream(doubleStream(supplier, characteristics, true), workerPool);
+        return new ParallelDoubleStream(doubleStream(supplier, characteristics, true), workerPool).bindSource();
     }
 
     /**
@@ -149,7 +150,7 @@ public class ParallelDoubleStream extends AbstractParallelStream<Double, DoubleS
     public static DoubleStream submit(Builder builder, ForkJoinPool workerPool) {
         requireNonNull(builder, "Builder must not be null");
 
-        return new ParallelDoubleStream(builder.build().parallel(), workerPool);
+        return new ParallelDoubleStream(builder.build().parallel(), workerPool).bindSource();
     }
 
     /**
@@ -170,7 +171,7 @@ public class ParallelDoubleStream extends AbstractParallelStream<Double, DoubleS
     public static DoubleStream iterate(double seed, DoubleUnaryOperator operator, ForkJoinPool workerPool) {
         requireNonNull(operator, "Operator must not be null");
 
-        return new ParallelDoubleStream(DoubleStream.iterate(seed, operator).parallel(), workerPool);
+        return new ParallelDoubleStream(DoubleStream.iterate(seed, operator).parallel(), workerPool).bindSource();
     }
 
     /**
@@ -190,7 +191,7 @@ public class ParallelDoubleStream extends AbstractParallelStream<Double, DoubleS
     public static DoubleStream generate(DoubleSupplier supplier, ForkJoinPool workerPool) {
         requireNonNull(supplier, "Supplier must not be null");
 
-        return new ParallelDoubleStream(DoubleStream.generate(supplier).parallel(), workerPool);
+        return new ParallelDoubleStream(DoubleStream.generate(supplier).parallel(), workerPool).bindSource();
     }
 
     /**
@@ -212,69 +213,69 @@ public class ParallelDoubleStream extends AbstractParallelStream<Double, DoubleS
         requireNonNull(a, "Stream a must not be null");
         requireNonNull(b, "Stream b must not be null");
 
-        return new ParallelDoubleStream(DoubleStream.concat(a, b).parallel(), workerPool);
+        return new ParallelDoubleStream(DoubleStream.concat(a, b).parallel(), workerPool).bindSource();
     }
 
     @Override
     public DoubleStream filter(DoublePredicate predicate) {
-        this.delegate = this.delegate.filter(predicate);
+        this.delegate = instrument(this.delegate.filter(predicate), "filter");
         return this;
     }
 
     @Override
     public DoubleStream map(DoubleUnaryOperator mapper) {
-        this.delegate = this.delegate.map(mapper);
+        this.delegate = instrument(this.delegate.map(mapper), "map");
         return this;
     }
 
     @Override
     public <U> Stream<U> mapToObj(DoubleFunction<? extends U> mapper) {
-        return new ParallelStream<>(this.delegate.mapToObj(mapper), this.workerPool);
+        return inherit(new ParallelStream<>(this.delegate.mapToObj(mapper), this.workerPool), "mapToObj");
     }
 
     @Override
     public IntStream mapToInt(DoubleToIntFunction mapper) {
-        return new ParallelIntStream(this.delegate.mapToInt(mapper), this.workerPool);
+        return inherit(new ParallelIntStream(this.delegate.mapToInt(mapper), this.workerPool), "mapToInt");
     }
 
     @Override
     public LongStream mapToLong(DoubleToLongFunction mapper) {
-        return new ParallelLongStream(this.delegate.mapToLong(mapper), this.workerPool);
+        return inherit(new ParallelLongStream(this.delegate.mapToLong(mapper), this.workerPool), "mapToLong");
     }
 
     @Override
     public DoubleStream flatMap(DoubleFunction<? extends DoubleStream> mapper) {
-        this.delegate = this.delegate.flatMap(mapper);
+        this.delegate = instrument(this.delegate.flatMap(mapper), "flatMap");
         return this;
     }
 
     @Override
     public DoubleStream distinct() {
-        this.delegate = this.delegate.distinct();
+        this.delegate = instrument(this.delegate.distinct(), "distinct", true);
         return this;
     }
 
     @Override
     public DoubleStream sorted() {
-        this.delegate = this.delegate.sorted();
+        this.delegate = instrument(this.delegate.sorted(), "sorted", true);
         return this;
     }
 
     @Override
     public DoubleStream peek(DoubleConsumer action) {
-        this.delegate = this.delegate.peek(action);
+        this.delegate = instrument(this.delegate.peek(action), "peek");
         return this;
     }
 
     @Override
     public DoubleStream limit(long maxSize) {
-        this.delegate = this.delegate.limit(maxSize);
+        this.delegate = instrument(this.delegate.limit(maxSize), "limit", true);
         return this;
     }
 
     @Override
     public DoubleStream skip(long n) {
-        this.delegate = this.delegate.skip(n);
+        this.delegate = instrument(this.delegate.skip(n), "skip", true);
         return this;
     }
 
@@ -365,7 +366,7 @@ public class ParallelDoubleStream extends AbstractParallelStream<Double, DoubleS
 
     @Override
     public Stream<Double> boxed() {
-        return new ParallelStream<>(this.delegate.boxed(), this.workerPool);
+        return inherit(new ParallelStream<>(this.delegate.boxed(), this.workerPool), "boxed");
     }
 
     @Override
@@ -377,4 +378,51 @@ public class ParallelDoubleStream extends AbstractParallelStream<Double, DoubleS
     public java.util.Spliterator.OfDouble spliterator() {
         return this.delegate.spliterator();
     }
+
+    @Override
+    DoubleStream bindCancellation(CancellationToken token) {
+        DoubleStream source = this.delegate;
+        return doubleStream(new CancellableSpliterator.ForDouble(source.spliterator(), token), source.isParallel()).onClose(source::close);
+    }
+
+    @Override
+    DoubleStream attachProbe(DoubleStream stream, StreamInstrumentation.Probe probe) {
+        return stream.peek(probe);
+    }
+
+    // Asynchronous terminal operations
+
+    /**
+     * Asynchronous version of {@link #forEach(DoubleConsumer)}, the operation is submitted to the worker pool of this stream.
+     *
+     * @param action A non-interfering action to perform on the elements.
+     *
+     * @return A future completed when all elements are processed. Canceling it cancels the submitted task.
+     */
+    public CompletableFuture<Void> forEachAsync(DoubleConsumer action) {
+        return executeAsync(() -> this.delegate.forEach(action));
+    }
+
+    /**
+     * Asynchronous version of {@link #reduce(double, DoubleBinaryOperator)}, the operation is submitted to the worker pool of this
+     * stream.
+     */
+    public CompletableFuture<Double> reduceAsync(double identity, DoubleBinaryOperator op) {
+        return executeAsync(() -> this.delegate.reduce(identity, op));
+    }
+
+    /**
+     * Asynchronous version of {@link #reduce(DoubleBinaryOperator)}, the operation is submitted to the worker pool of this stream.
+     */
+    public CompletableFuture<OptionalDouble> reduceAsync(DoubleBinaryOperator op) {
+        return executeAsync(() -> this.delegate.reduce(op));
+    }
+
+    /**
+     * Asynchronous version of {@link #collect(Supplier, ObjDoubleConsumer, BiConsumer)}, the operation is submitted to the
+     * worker pool of this stream.
+     */
+    public <R> CompletableFuture<R> collectAsync(Supplier<R> supplier, ObjDoubleConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        return executeAsync(() -> this.delegate.collect(supplier, accumulator, combiner));
+    }
 }
@@ -2,6 +2,7 @@ package com.infilos.utils.stream;
 
 import java.util.*;
 import java.util.PrimitiveIterator.OfInt;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinTask;
 import java.util.function.*;
@@ -86,7 +87,7 @@ public class ParallelIntStream extends AbstractParallelStream<Integer, IntStream
     public static IntStream submit(int[] array, ForkJoinPool workerPool) {
         requireNonNull(array, "Array must not be null");
 
-        return new ParallelIntStream(stream(array).parallel(), workerPool);
+        return new ParallelIntStream(stream(array).parallel(), workerPool).bindSource();
     }
 
     /**
@@ -105,7 +106,7 @@ public class ParallelIntStream extends AbstractParallelStream<Integer, IntStream
     public static IntStream submit(Spliterator.OfInt spliterator, ForkJoinPool workerPool) {
         requireNonNull(spliterator, "Spliterator must not be null");
 
-        return new ParallelIntStream(intStream(spliterator, true), workerPool);
+        return new ParallelIntStream(intStream(spliterator, true), workerPool).bindSource();
     }
 
     /**
@@ -128,7 +129,7 @@ public class ParallelIntStream extends AbstractParallelStream<Integer, IntStream
     public static IntStream submit(Supplier<? extends Spliterator.OfInt> supplier, int characteristics, ForkJoinPool workerPool) {
         requireNonNull(supplier, "Supplier must not be null");
 
-        return new ParallelIntStream(intStream(supplier, characteristics, true), workerPool);
+        return new ParallelIntStream(intStream(supplier, characteristics, true), workerPool).bindSource();
     }
 
     /**
@@ -147,7 +148,7 @@ public class ParallelIntStream extends AbstractParallelStream<Integer, IntStream
     public static IntStream submit(Builder builder, ForkJoinPool workerPool) {
         requireNonNull(builder, "Builder must not be null");
 
-        return new ParallelIntStream(builder.build().parallel(), workerPool);
+        return new ParallelIntStream(builder.build().parallel(), workerPool).bindSource();
     }
 
     /**
@@ -168,7 +169,7 @@ public class ParallelIntStream extends AbstractParallelStream<Integer, IntStream
     public static IntStream iterate(int seed, IntUnaryOperator operator, ForkJoinPool workerPool) {
         requireNonNull(operator, "Operator must not be null");
 
-        return new ParallelIntStream(IntStream.iterate(seed, operator).parallel(), workerPool);
+        return new ParallelIntStream(IntStream.iterate(seed, operator).parallel(), workerPool).bindSource();
     }
 
     /**
@@ -188,7 +189,7 @@ public class ParallelIntStream extends AbstractParallelStream<Integer, IntStream
     public static IntStream generate(IntSupplier supplier, ForkJoinPool workerPool) {
         requireNonNull(supplier, "Supplier must not be null");
 
-        return new ParallelIntStream(IntStream.generate(supplier).parallel(), workerPool);
+        return new ParallelIntStream(IntStream.generate(supplier).parallel(), workerPool).bindSource();
     }
 
     /**
@@ -208,7 +209,7 @@ public class ParallelIntStream extends AbstractParallelStream<Integer, IntStream
      * @see IntStream#range(int, int)
      */
     public static IntStream range(int startInclusive, int endExclusive, ForkJoinPool workerPool) {
-        return new ParallelIntStream(IntStream.range(startInclusive, endExclusive).parallel(), workerPool);
+        return new ParallelIntStream(IntStream.range(startInclusive, endExclusive).parallel(), workerPool).bindSource();
     }
 
     /**
@@ -228,7 +229,7 @@ public class ParallelIntStream extends AbstractParallelStream<Integer, IntStream
      * @see IntStream#rangeClosed(int, int)
      */
     public static IntStream rangeClosed(int startInclusive, int endInclusive, ForkJoinPool workerPool) {
-        return new ParallelIntStream(IntStream.rangeClosed(startInclusive, endInclusive).parallel(), workerPool);
+        return new ParallelIntStream(IntStream.rangeClosed(startInclusive, endInclusive).parallel(), workerPool).bindSource();
     }
 
     /**
@@ -250,69 +251,69 @@ public class ParallelIntStream extends AbstractParallelStream<Integer, IntStream
         requireNonNull(a, "Stream a must not be null");
         requireNonNull(b, "Stream b must not be null");
 
-        return new ParallelIntStream(IntStream.concat(a, b).parallel(), workerPool);
+        return new ParallelIntStream(IntStream.concat(a, b).parallel(), workerPool).bindSource();
     }
 
     @Override
     public IntStream filter(IntPredicate predicate) {
-        this.delegate = this.delegate.filter(predicate);
+        this.delegate = instrument(this.delegate.filter(predicate), "filter");
         return this;
     }
 
     @Override
     public IntStream map(IntUnaryOperator mapper) {
-        this.delegate = this.delegate.map(mapper);
+        this.delegate = instrument(this.delegate.map(mapper), "map");
         return this;
     }
 
     @Override
     public <U> Stream<U> mapToObj(IntFunction<? extends U> mapper) {
-        return new ParallelStream<U>(this.delegate.mapToObj(mapper), this.workerPool);
+        return inherit(new ParallelStream<U>(this.delegate.mapToObj(mapper), this.workerPool), "mapToObj");
     }
 
     @Override
     public LongStream mapToLong(IntToLongFunction mapper) {
-        return new ParallelLongStream(this.delegate.mapToLong(mapper), this.workerPool);
+        return inherit(new ParallelLongStream(this.delegate.mapToLong(mapper), this.workerPool), "mapToLong");
     }
 
     @Override
     public DoubleStream mapToDouble(IntToDoubleFunction mapper) {
-        return new ParallelDoubleStream(this.delegate.mapToDouble(mapper), this.workerPool);
+        return inherit(new ParallelDoubleStream(this.delegate.mapToDouble(mapper), this.workerPool), "mapToDouble");
     }
 
     @Override
     public IntStream flatMap(IntFunction<? extends IntStream> mapper) {
-        this.delegate = this.delegate.flatMap(mapper);
+        this.delegate = instrument(this.delegate.flatMap(mapper), "flatMap");
         return this;
     }
 
     @Override
     public IntStream distinct() {
-        this.delegate = this.delegate.distinct();
+        this.delegate = instrument(this.delegate.distinct(), "distinct", true);
         return this;
     }
 
     @Override
     public IntStream sorted() {
-        this.delegate = this.delegate.sorted();
+        this.delegate = instrument(this.delegate.sorted(), "sorted", true);
         return this;
     }
 
     @Override
     public IntStream peek(IntConsumer action) {
-        this.delegate = this.delegate.peek(action);
+        this.delegate = instrument(this.delegate.peek(action), "peek");
         return this;
     }
 
     @Override
     public IntStream limit(long maxSize) {
-        this.delegate = this.delegate.limit(maxSize);
+        this.delegate = instrument(this.delegate.limit(maxSize), "limit", true);
         return this;
     }
 
     @Override
     public IntStream skip(long n) {
-        this.delegate = this.delegate.skip(n);
+        this.delegate = instrument(this.delegate.skip(n), "skip", true);
         return this;
     }
 
@@ -403,17 +404,17 @@ public class ParallelIntStream extends AbstractParallelStream<Integer, IntStream
 
     @Override
     public LongStream asLongStream() {
-        return new ParallelLongStream(this.delegate.asLongStream(), this.workerPool);
+        return inherit(new ParallelLongStream(this.delegate.asLongStream(), this.workerPool), "asLongStream");
     }
 
     @Override
     public DoubleStream asDoubleStream() {
-        return new ParallelDoubleStream(this.delegate.asDoubleStream(), this.workerPool);
+        return inherit(new ParallelDoubleStream(this.delegate.asDoubleStream(), this.workerPool), "asDoubleStream");
     }
 
     @Override
     public Stream<Integer> boxed() {
-        return new ParallelStream<>(this.delegate.boxed(), this.workerPool);
+        return inherit(new ParallelStream<>(this.delegate.boxed(), this.workerPool), "boxed");
     }
 
     @Override
@@ -425,4 +426,86 @@ public class ParallelIntStream extends AbstractParallelStream<Integer, IntStream
     public java.util.Spliterator.OfInt spliterator() {
         return this.delegate.spliterator();
     }
+
+    // Primitive collectors
+
+    /**
+     * Counts the occurrences of each value without boxing, see {@link LongCounts}.
+     *
+     * @return The counts of the distinct values.
+     */
+    public LongCounts countByValue() {
+        return collect(LongCounts::new, LongCounts::add, LongCounts::addAll);
+    }
+
+    /**
+     * Returns the {@code k} largest values without boxing or sorting the stream, see {@link LongTopK}.
+     *
+     * @param k Number of values to keep. Must be positive.
+     *
+     * @return The largest values, from the largest to the smallest.
+     */
+    public int[] topK(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("K must be positive: " + k);
+        }
+        return collect(() -> new LongTopK(k), LongTopK::add, LongTopK::addAll).toIntArray();
+    }
+
+    /**
+     * Builds a histogram of the values over {@code buckets} equally wide buckets of {@code [min, max)}, see
+     * {@link LongHistogram}.
+     *
+     * @return The histogram of all the values.
+     */
+    public LongHistogram histogram(long min, long max, int buckets) {
+        return collect(() -> new LongHistogram(min, max, buckets), LongHistogram::add, LongHistogram::addAll);
+    }
+
+    @Override
+    IntStream bindCancellation(CancellationToken token) {
+        IntStream source = this.delegate;
+        return intStream(new CancellableSpliterator.ForInt(source.spliterator(), token), source.isParallel()).onClose(source::close);
+    }
+
+    @Override
+    IntStream attachProbe(IntStream stream, StreamInstrumentation.Probe probe) {
+        return stream.peek(probe);
+    }
+
+    // Asynchronous terminal operations
+
+    /**
+     * Asynchronous version of {@link #forEach(IntConsumer)}, the operation is submitted to the worker pool of this stream.
+     *
+     * @param action A non-interfering action to perform on the elements.
+     *
+     * @return A future completed when all elements are processed. Canceling it cancels the submitted task.
+     */
+    public CompletableFuture<Void> forEachAsync(IntConsumer action) {
+        return executeAsync(() -> this.delegate.forEach(action));
+    }
+
+    /**
+     * Asynchronous version of {@link #reduce(int, IntBinaryOperator)}, the operation is submitted to the worker pool of this
+     * stream.
+     */
+    public CompletableFuture<Integer> reduceAsync(int identity, IntBinaryOperator op) {
+        return executeAsync(() -> this.delegate.reduce(identity, op));
+    }
+
+    /**
+     * Asynchronous version of {@link #reduce(IntBinaryOperator)}, the operation is submitted to the worker pool of this stream.
+     */
+    public CompletableFuture<OptionalInt> reduceAsync(IntBinaryOperator op) {
+        return executeAsync(() -> this.delegate.reduce(op));
+    }
+
+    /**
+     * Asynchronous version of {@link #collect(Supplier, ObjIntConsumer, BiConsumer)}, the operation is submitted to the
+     * worker pool of this stream.
+     */
+    public <R> CompletableFuture<R> collectAsync(Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        return executeAsync(() -> this.delegate.collect(supplier, accumulator, combiner));
+    }
 }
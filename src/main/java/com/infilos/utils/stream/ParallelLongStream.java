@@ -2,6 +2,7 @@ package com.infilos.utils.stream;
 
 import java.util.*;
 import java.util.PrimitiveIterator.OfLong;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinTask;
 import java.util.function.*;
@@ -85,7 +86,7 @@ public class ParallelLongStream extends AbstractParallelStream<Long, LongStream>
     public static LongStream submit(long[] array, ForkJoinPool workerPool) {
         requireNonNull(array, "Array must not be null");
 
-        return new ParallelLongStream(stream(array).parallel(), workerPool);
+        return new ParallelLongStream(stream(array).parallel(), workerPool).bindSource();
     }
 
     /**
@@ -104,7 +105,7 @@ public class ParallelLongStream extends AbstractParallelStream<Long, LongStream>
     public static LongStream submit(Spliterator.OfLong spliterator, ForkJoinPool workerPool) {
         requireNonNull(spliterator, "Spliterator must not be null");
 
-        return new ParallelLongStream(longStream(spliterator, true), workerPool);
+        return new ParallelLongStream(longStream(spliterator, true), workerPool).bindSource();
     }
 
     /**
@@ -127,7 +128,7 @@ public class ParallelLongStream extends AbstractParallelStream<Long, LongStream>
     public static LongStream submit(Supplier<? extends Spliterator.OfLong> supplier, int characteristics, ForkJoinPool workerPool) {
         requireNonNull(supplier, "Supplier must not be null");
 
-        return new ParallelLongStream(longStream(supplier, characteristics, true), workerPool);
+        return new ParallelLongStream(longStream(supplier, characteristics, true), workerPool).bindSource();
     }
 
     /**
@@ -145,7 +146,7 @@ public class ParallelLongStream extends AbstractParallelStream<Long, LongStream>
     public static LongStream submit(Builder builder, ForkJoinPool workerPool) {
         requireNonNull(builder, "Builder must not be null");
 
-        return new ParallelLongStream(builder.build().parallel(), workerPool);
+        return new ParallelLongStream(builder.build().parallel(), workerPool).bindSource();
     }
 
     /**
@@ -166,7 +167,7 @@ public class ParallelLongStream extends AbstractParallelStream<Long, LongStream>
     public static LongStream iterate(long seed, LongUnaryOperator operator, ForkJoinPool workerPool) {
         requireNonNull(operator, "Operator must not be null");
 
-        return new ParallelLongStream(LongStream.iterate(seed, operator).parallel(), workerPool);
+        return new ParallelLongStream(LongStream.iterate(seed, operator).parallel(), workerPool).bindSource();
     }
 
     /**
@@ -186,7 +187,7 @@ public class ParallelLongStream extends AbstractParallelStream<Long, LongStream>
     public static LongStream generate(LongSupplier supplier, ForkJoinPool workerPool) {
         requireNonNull(supplier, "Supplier must not be null");
 
-        return new ParallelLongStream(LongStream.generate(supplier).parallel(), workerPool);
+        return new ParallelLongStream(LongStream.generate(supplier).parallel(), workerPool).bindSource();
     }
 
     /**
@@ -206,7 +207,7 @@ public class ParallelLongStream extends AbstractParallelStream<Long, LongStream>
      * @see LongStream#range(long, long)
      */
     public static LongStream range(long startInclusive, long endExclusive, ForkJoinPool workerPool) {
-        return new ParallelLongStream(LongStream.range(startInclusive, endExclusive).parallel(), workerPool);
+        return new ParallelLongStream(LongStream.range(startInclusive, endExclusive).parallel(), workerPool).bindSource();
     }
 
     /**
@@ -226,7 +227,7 @@ public class ParallelLongStream extends AbstractParallelStream<Long, LongStream>
      * @see LongStream#rangeClosed(long, long)
      */
     public static LongStream rangeClosed(long startInclusive, long endInclusive, ForkJoinPool workerPool) {
-        return new ParallelLongStream(LongStream.rangeClosed(startInclusive, endInclusive).parallel(), workerPool);
+        return new ParallelLongStream(LongStream.rangeClosed(startInclusive, endInclusive).parallel(), workerPool).bindSource();
     }
 
     /**
@@ -248,69 +249,69 @@ public class ParallelLongStream extends AbstractParallelStream<Long, LongStream>
         requireNonNull(a, "Stream a must not be null");
         requireNonNull(b, "Stream b must not be null");
 
-        return new ParallelLongStream(LongStream.concat(a, b).parallel(), workerPool);
+        return new ParallelLongStream(LongStream.concat(a, b).parallel(), workerPool).bindSource();
     }
 
     @Override
     public LongStream filter(LongPredicate predicate) {
-        this.delegate = this.delegate.filter(predicate);
+        this.delegate = instrument(this.delegate.filter(predicate), "filter");
         return this;
     }
 
     @Override
     public LongStream map(LongUnaryOperator mapper) {
-        this.delegate = this.delegate.map(mapper);
+        this.delegate = instrument(this.delegate.map(mapper), "map");
         return this;
     }
 
     @Override
     public <U> Stream<U> mapToObj(LongFunction<? extends U> mapper) {
-        return new ParallelStream<>(this.delegate.mapToObj(mapper), this.workerPool);
+        return inherit(new ParallelStream<>(this.delegate.mapToObj(mapper), this.workerPool), "mapToObj");
     }
 
     @Override
     public IntStream mapToInt(LongToIntFunction mapper) {
-        return new ParallelIntStream(this.delegate.mapToInt(mapper), this.workerPool);
+        return inherit(new ParallelIntStream(this.delegate.mapToInt(mapper), this.workerPool), "mapToInt");
     }
 
     @Override
     public DoubleStream mapToDouble(LongToDoubleFunction mapper) {
-        return new ParallelDoubleStream(this.delegate.mapToDouble(mapper), this.workerPool);
+        return inherit(new ParallelDoubleStream(this.delegate.mapToDouble(mapper), this.workerPool), "mapToDouble");
     }
 
     @Override
     public LongStream flatMap(LongFunction<? extends LongStream> mapper) {
-        this.delegate = this.delegate.flatMap(mapper);
+        this.delegate = instrument(this.delegate.flatMap(mapper), "flatMap");
         return this;
     }
 
     @Override
     public LongStream distinct() {
-        this.delegate = this.delegate.distinct();
+        this.delegate = instrument(this.delegate.distinct(), "distinct", true);
         return this;
     }
 
     @Override
     public LongStream sorted() {
-        this.delegate = this.delegate.sorted();
+        this.delegate = instrument(this.delegate.sorted(), "sorted", true);
         return this;
     }
 
     @Override
     public LongStream peek(LongConsumer action) {
-        this.delegate = this.delegate.peek(action);
+        this.delegate = instrument(this.delegate.peek(action), "peek");
         return this;
     }
 
     @Override
     public LongStream limit(long maxSize) {
-        this.delegate = this.delegate.limit(maxSize);
+        this.delegate = instrument(this.delegate.limit(maxSize), "limit", true);
         return this;
     }
 
     @Override
     public LongStream skip(long n) {
-        this.delegate = this.delegate.skip(n);
+        this.delegate = instrument(this.delegate.skip(n), "skip", true);
         return this;
     }
 
@@ -401,12 +402,12 @@ public class ParallelLongStream extends AbstractParallelStream<Long, LongStream>
 
     @Override
     public DoubleStream asDoubleStream() {
-        return new ParallelDoubleStream(this.delegate.asDoubleStream(), this.workerPool);
+        return inherit(new ParallelDoubleStream(this.delegate.asDoubleStream(), this.workerPool), "asDoubleStream");
     }
 
     @Override
     public Stream<Long> boxed() {
-        return new ParallelStream<>(this.delegate.boxed(), this.workerPool);
+        return inherit(new ParallelStream<>(this.delegate.boxed(), this.workerPool), "boxed");
     }
 
     @Override
@@ -418,4 +419,86 @@ public class ParallelLongStream extends AbstractParallelStream<Long, LongStream>
     public java.util.Spliterator.OfLong spliterator() {
         return this.delegate.spliterator();
     }
+
+    // Primitive collectors
+
+    /**
+     * Counts the occurrences of each value without boxing, see {@link LongCounts}.
+     *
+     * @return The counts of the distinct values.
+     */
+    public LongCounts countByValue() {
+        return collect(LongCounts::new, LongCounts::add, LongCounts::addAll);
+    }
+
+    /**
+     * Returns the {@code k} largest values without boxing or sorting the stream, see {@link LongTopK}.
+     *
+     * @param k Number of values to keep. Must be positive.
+     *
+     * @return The largest values, from the largest to the smallest.
+     */
+    public long[] topK(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("K must be positive: " + k);
+        }
+        return collect(() -> new LongTopK(k), LongTopK::add, LongTopK::addAll).toArray();
+    }
+
+    /**
+     * Builds a histogram of the values over {@code buckets} equally wide buckets of {@code [min, max)}, see
+     * {@link LongHistogram}.
+     *
+     * @return The histogram of all the values.
+     */
+    public LongHistogram histogram(long min, long max, int buckets) {
+        return collect(() -> new LongHistogram(min, max, buckets), LongHistogram::add, LongHistogram::addAll);
+    }
+
+    @Override
+    LongStream bindCancellation(CancellationToken token) {
+        LongStream source = this.delegate;
+        return longStream(new CancellableSpliterator.ForLong(source.spliterator(), token), source.isParallel()).onClose(source::close);
+    }
+
+    @Override
+    LongStream attachProbe(LongStream stream, StreamInstrumentation.Probe probe) {
+        return stream.peek(probe);
+    }
+
+    // Asynchronous terminal operations
+
+    /**
+     * Asynchronous version of {@link #forEach(LongConsumer)}, the operation is submitted to the worker pool of this stream.
+     *
+     * @param action A non-interfering action to perform on the elements.
+     *
+     * @return A future completed when all elements are processed. Canceling it cancels the submitted task.
+     */
+    public CompletableFuture<Void> forEachAsync(LongConsumer action) {
+        return executeAsync(() -> this.delegate.forEach(action));
+    }
+
+    /**
+     * Asynchronous version of {@link #reduce(long, LongBinaryOperator)}, the operation is submitted to the worker pool of this
+     * stream.
+     */
+    public CompletableFuture<Long> reduceAsync(long identity, LongBinaryOperator op) {
+        return executeAsync(() -> this.delegate.reduce(identity, op));
+    }
+
+    /**
+     * Asynchronous version of {@link #reduce(LongBinaryOperator)}, the operation is submitted to the worker pool of this stream.
+     */
+    public CompletableFuture<OptionalLong> reduceAsync(LongBinaryOperator op) {
+        return executeAsync(() -> this.delegate.reduce(op));
+    }
+
+    /**
+     * Asynchronous version of {@link #collect(Supplier, ObjLongConsumer, BiConsumer)}, the operation is submitted to the
+     * worker pool of this stream.
+     */
+    public <R> CompletableFuture<R> collectAsync(Supplier<R> supplier, ObjLongConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        return executeAsync(() -> this.delegate.collect(supplier, accumulator, combiner));
+    }
 }
@@ -1,6 +1,9 @@
 package com.infilos.utils.stream;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinTask;
 import java.util.function.*;
@@ -85,7 +88,7 @@ public class ParallelStream<T> extends AbstractParallelStream<T, Stream<T>> impl
     public static <T> Stream<T> submit(Collection<T> collection, ForkJoinPool workerPool) {
         requireNonNull(collection, "Collection must not be null");
 
-        return new ParallelStream<>(collection.parallelStream(), workerPool);
+        return new ParallelStream<>(collection.parallelStream(), workerPool).bindSource();
     }
 
     /**
@@ -105,7 +108,7 @@ public class ParallelStream<T> extends AbstractParallelStream<T, Stream<T>> impl
     public static <T> Stream<T> submit(T[] array, ForkJoinPool workerPool) {
         requireNonNull(array, "Array must not be null");
 
-        return new ParallelStream<>(stream(array).parallel(), workerPool);
+        return new ParallelStream<>(stream(array).parallel(), workerPool).bindSource();
     }
 
     /**
@@ -125,7 +128,7 @@ public class ParallelStream<T> extends AbstractParallelStream<T, Stream<T>> impl
     public static <T> Stream<T> submit(Spliterator<T> spliterator, ForkJoinPool workerPool) {
         requireNonNull(spliterator, "Spliterator must not be null");
 
-        return new ParallelStream<>(stream(spliterator, true), workerPool);
+        return new ParallelStream<>(stream(spliterator, true), workerPool).bindSource();
     }
 
     /**
@@ -148,7 +151,7 @@ public class ParallelStream<T> extends AbstractParallelStream<T, Stream<T>> impl
     public static <T> Stream<T> submit(Supplier<? extends Spliterator<T>> supplier, int characteristics, ForkJoinPool workerPool) {
         requireNonNull(supplier, "Supplier must not be null");
 
-        return new ParallelStream<>(stream(supplier, characteristics, true), workerPool);
+        return new ParallelStream<>(stream(supplier, characteristics, true), workerPool).bindSource();
     }
 
     /**
@@ -168,7 +171,7 @@ public class ParallelStream<T> extends AbstractParallelStream<T, Stream<T>> impl
     public static <T> Stream<T> submit(Builder<T> builder, ForkJoinPool workerPool) {
         requireNonNull(builder, "Builder must not be null");
 
-        return new ParallelStream<>(builder.build().parallel(), workerPool);
+        return new ParallelStream<>(builder.build().parallel(), workerPool).bindSource();
     }
 
     /**
@@ -190,7 +193,7 @@ public class ParallelStream<T> extends AbstractParallelStream<T, Stream<T>> impl
     public static <T> Stream<T> iterate(T seed, UnaryOperator<T> operator, ForkJoinPool workerPool) {
         requireNonNull(operator, "Operator must not be null");
 
-        return new ParallelStream<>(Stream.iterate(seed, operator).parallel(), workerPool);
+        return new ParallelStream<>(Stream.iterate(seed, operator).parallel(), workerPool).bindSource();
     }
 
     /**
@@ -211,7 +214,7 @@ public class ParallelStream<T> extends AbstractParallelStream<T, Stream<T>> impl
     public static <T> Stream<T> generate(Supplier<T> supplier, ForkJoinPool workerPool) {
         requireNonNull(supplier, "Supplier must not be null");
 
-        return new ParallelStream<>(Stream.generate(supplier).parallel(), workerPool);
+        return new ParallelStream<>(Stream.generate(supplier).parallel(), workerPool).bindSource();
     }
 
     /**
@@ -234,91 +237,168 @@ public class ParallelStream<T> extends AbstractParallelStream<T, Stream<T>> impl
         requireNonNull(a, "Stream a must not be null");
         requireNonNull(b, "Stream b must not be null");
 
-        return new ParallelStream<>(Stream.concat(a, b).parallel(), workerPool);
+        return new ParallelStream<>(Stream.concat(a, b).parallel(), workerPool).bindSource();
     }
 
     @Override
     public Stream<T> filter(Predicate<? super T> predicate) {
-        this.delegate = this.delegate.filter(predicate);
+        this.delegate = instrument(this.delegate.filter(predicate), "filter");
         return this;
     }
 
     @Override
     public <R> Stream<R> map(Function<? super T, ? extends R> mapper) {
-        return new ParallelStream<>(this.delegate.map(mapper), this.workerPool);
+        return inherit(new ParallelStream<>(this.delegate.map(mapper), this.workerPool), "map");
     }
 
     @Override
     public IntStream mapToInt(ToIntFunction<? super T> mapper) {
-        return new ParallelIntStream(this.delegate.mapToInt(mapper), this.workerPool);
+        return inherit(new ParallelIntStream(this.delegate.mapToInt(mapper), this.workerPool), "mapToInt");
     }
 
     @Override
     public LongStream mapToLong(ToLongFunction<? super T> mapper) {
-        return new ParallelLongStream(this.delegate.mapToLong(mapper), this.workerPool);
+        return inherit(new ParallelLongStream(this.delegate.mapToLong(mapper), this.workerPool), "mapToLong");
     }
 
     @Override
     public DoubleStream mapToDouble(ToDoubleFunction<? super T> mapper) {
-        return new ParallelDoubleStream(this.delegate.mapToDouble(mapper), this.workerPool);
+        return inherit(new ParallelDoubleStream(this.delegate.mapToDouble(mapper), this.workerPool), "mapToDouble");
     }
 
     @Override
     public <R> Stream<R> flatMap(Function<? super T, ? extends Stream<? extends R>> mapper) {
-        return new ParallelStream<>(this.delegate.flatMap(mapper), this.workerPool);
+        return inherit(new ParallelStream<>(this.delegate.flatMap(mapper), this.workerPool), "flatMap");
     }
 
     @Override
     public IntStream flatMapToInt(Function<? super T, ? extends IntStream> mapper) {
-        return new ParallelIntStream(this.delegate.flatMapToInt(mapper), this.workerPool);
+        return inherit(new ParallelIntStream(this.delegate.flatMapToInt(mapper), this.workerPool), "flatMapToInt");
     }
 
     @Override
     public LongStream flatMapToLong(Function<? super T, ? extends LongStream> mapper) {
-        return new ParallelLongStream(this.delegate.flatMapToLong(mapper), this.workerPool);
+        return inherit(new ParallelLongStream(this.delegate.flatMapToLong(mapper), this.workerPool), "flatMapToLong");
     }
 
     @Override
     public DoubleStream flatMapToDouble(Function<? super T, ? extends DoubleStream> mapper) {
-        return new ParallelDoubleStream(this.delegate.flatMapToDouble(mapper), this.workerPool);
+        return inherit(new ParallelDoubleStream(this.delegate.flatMapToDouble(mapper), this.workerPool), "flatMapToDouble");
     }
 
     @Override
     public Stream<T> distinct() {
-        this.delegate = this.delegate.distinct();
+        this.delegate = instrument(this.delegate.distinct(), "distinct", true);
         return this;
     }
 
     @Override
     public Stream<T> sorted() {
-        this.delegate = this.delegate.sorted();
+        this.delegate = instrument(this.delegate.sorted(), "sorted", true);
         return this;
     }
 
     @Override
     public Stream<T> sorted(Comparator<? super T> comparator) {
-        this.delegate = this.delegate.sorted(comparator);
+        this.delegate = instrument(this.delegate.sorted(comparator), "sorted", true);
         return this;
     }
 
     @Override
     public Stream<T> peek(Consumer<? super T> action) {
-        this.delegate = this.delegate.peek(action);
+        this.delegate = instrument(this.delegate.peek(action), "peek");
         return this;
     }
 
     @Override
     public Stream<T> limit(long maxSize) {
-        this.delegate = this.delegate.limit(maxSize);
+        this.delegate = instrument(this.delegate.limit(maxSize), "limit", true);
         return this;
     }
 
     @Override
     public Stream<T> skip(long n) {
-        this.delegate = this.delegate.skip(n);
+        this.delegate = instrument(this.delegate.skip(n), "skip", true);
         return this;
     }
 
+    /**
+     * Returns a stream of the results of applying the blocking {@code mapper} to the elements of this stream, with at
+     * most {@code maxConcurrency} calls in flight. Calls are executed in the worker pool of this stream as
+     * {@link ForkJoinPool.ManagedBlocker}, so the pool compensates for the blocked workers, and results are emitted in
+     * encounter order.
+     * <p>
+     * This is an intermediate operation. Elements are pulled from this stream lazily, only to keep the window full.
+     *
+     * @param <R> The element type of the new stream.
+     * @param maxConcurrency Maximum number of calls in flight. Must be positive.
+     * @param mapper A non-interfering, stateless, possibly blocking function. Must not be {@code null}.
+     *
+     * @return The new stream, which executes its terminal operations in the same {@link ForkJoinPool}.
+     */
+    public <R> ParallelStream<R> mapConcurrent(int maxConcurrency, Function<? super T, ? extends R> mapper) {
+        return mapConcurrent(maxConcurrency, mapper, this.workerPool, true);
+    }
+
+    /**
+     * Returns a stream of the results of applying the blocking {@code mapper} to the elements of this stream in
+     * {@code executor}, with at most {@code maxConcurrency} calls in flight.
+     *
+     * @param <R> The element type of the new stream.
+     * @param maxConcurrency Maximum number of calls in flight. Must be positive.
+     * @param mapper A non-interfering, stateless, possibly blocking function. Must not be {@code null}.
+     * @param executor Executor to run {@code mapper}. Calls run as {@link ForkJoinPool.ManagedBlocker} if it is a
+     * {@link ForkJoinPool}. Must not be {@code null}.
+     * @param ordered Emit results in encounter order if {@code true}, otherwise in completion order.
+     *
+     * @return The new stream, which executes its terminal operations in the same {@link ForkJoinPool}.
+     *
+     * @see #mapConcurrent(int, Function)
+     */
+    public <R> ParallelStream<R> mapConcurrent(int maxConcurrency, Function<? super T, ? extends R> mapper, Executor executor, boolean ordered) {
+        return mapConcurrentAsync(maxConcurrency, ConcurrentMapping.blocking(mapper, executor), ordered);
+    }
+
+    /**
+     * Returns a stream of the results of the asynchronous {@code mapper} applied to the elements of this stream, with at
+     * most {@code maxConcurrency} stages in flight, emitted in encounter order.
+     *
+     * @param <R> The element type of the new stream.
+     * @param maxConcurrency Maximum number of stages in flight. Must be positive.
+     * @param mapper A non-interfering, stateless function returning the stage of the result. Must not be {@code null}.
+     *
+     * @return The new stream, which executes its terminal operations in the same {@link ForkJoinPool}.
+     */
+    public <R> ParallelStream<R> mapConcurrentAsync(int maxConcurrency, Function<? super T, ? extends CompletionStage<? extends R>> mapper) {
+        return mapConcurrentAsync(maxConcurrency, mapper, true);
+    }
+
+    /**
+     * Returns a stream of the results of the asynchronous {@code mapper} applied to the elements of this stream, with at
+     * most {@code maxConcurrency} stages in flight.
+     *
+     * @param <R> The element type of the new stream.
+     * @param maxConcurrency Maximum number of stages in flight. Must be positive.
+     * @param mapper A non-interfering, stateless function returning the stage of the result. Must not be {@code null}.
+     * @param ordered Emit results in encounter order if {@code true}, otherwise in completion order.
+     *
+     * @return The new stream, which executes its terminal operations in the same {@link ForkJoinPool}. Closing it
+     * cancels the stages in flight.
+     */
+    public <R> ParallelStream<R> mapConcurrentAsync(int maxConcurrency, Function<? super T, ? extends CompletionStage<? extends R>> mapper, boolean ordered) {
+        ConcurrentMapping.checkConcurrency(maxConcurrency);
+        requireNonNull(mapper, "Mapper must not be null");
+
+        Stream<T> source = this.delegate;
+        ConcurrentMapping<T, R> mapping = new ConcurrentMapping<>(source::iterator, mapper, maxConcurrency, ordered);
+        int characteristics = ordered ? Spliterator.ORDERED : 0;
+        Stream<R> mapped = stream(() -> Spliterators.spliteratorUnknownSize(mapping, characteristics), characteristics, isParallel())
+            .onClose(mapping::cancel)
+            .onClose(source::close);
+
+        return inherit(new ParallelStream<>(mapped, this.workerPool), "mapConcurrent");
+    }
+
     // Terminal operations
 
     @Override
@@ -405,4 +485,59 @@ public class ParallelStream<T> extends AbstractParallelStream<T, Stream<T>> impl
     public Optional<T> findAny() {
         return execute(() -> this.delegate.findAny());
     }
+
+    @Override
+    Stream<T> bindCancellation(CancellationToken token) {
+        Stream<T> source = this.delegate;
+        return stream(new CancellableSpliterator.ForRef<>(source.spliterator(), token), source.isParallel()).onClose(source::close);
+    }
+
+    @Override
+    Stream<T> attachProbe(Stream<T> stream, StreamInstrumentation.Probe probe) {
+        return stream.peek(probe);
+    }
+
+    // Asynchronous terminal operations
+
+    /**
+     * Asynchronous version of {@link #forEach(Consumer)}, the operation is submitted to the worker pool of this stream.
+     *
+     * @param action A non-interfering action to perform on the elements.
+     *
+     * @return A future completed when all elements are processed. Canceling it cancels the submitted task.
+     */
+    public CompletableFuture<Void> forEachAsync(Consumer<? super T> action) {
+        return executeAsync(() -> this.delegate.forEach(action));
+    }
+
+    /**
+     * Asynchronous version of {@link #reduce(Object, BinaryOperator)}, the operation is submitted to the worker pool of
+     * this stream.
+     */
+    public CompletableFuture<T> reduceAsync(T identity, BinaryOperator<T> accumulator) {
+        return executeAsync(() -> this.delegate.reduce(identity, accumulator));
+    }
+
+    /**
+     * Asynchronous version of {@link #reduce(BinaryOperator)}, the operation is submitted to the worker pool of this
+     * stream.
+     */
+    public CompletableFuture<Optional<T>> reduceAsync(BinaryOperator<T> accumulator) {
+        return executeAsync(() -> this.delegate.reduce(accumulator));
+    }
+
+    /**
+     * Asynchronous version of {@link #collect(Supplier, BiConsumer, BiConsumer)}, the operation is submitted to the
+     * worker pool of this stream.
+     */
+    public <R> CompletableFuture<R> collectAsync(Supplier<R> supplier, BiConsumer<R, ? super T> accumulator, BiConsumer<R, R> combiner) {
+        return executeAsync(() -> this.delegate.collect(supplier, accumulator, combiner));
+    }
+
+    /**
+     * Asynchronous version of {@link #collect(Collector)}, the operation is submitted to the worker pool of this stream.
+     */
+    public <R, A> CompletableFuture<R> collectAsync(Collector<? super T, A, R> collector) {
+        return executeAsync(() -> this.delegate.collect(collector));
+    }
 }
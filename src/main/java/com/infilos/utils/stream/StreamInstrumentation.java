@@ -0,0 +1,204 @@
+package com.infilos.utils.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Opt-in recorder of a parallel stream pipeline, bound with {@link AbstractParallelStream#withInstrumentation(StreamInstrumentation)}
+ * and inherited by the streams derived from it. Once a terminal operation completed, {@link #report()} tells which stage
+ * is hot and how the worker pool behaved:
+ * <pre>
+ * StreamInstrumentation instrumentation = new StreamInstrumentation();
+ * ParallelStream.submit(orders, pool).withInstrumentation(instrumentation)
+ *     .filter(Order::isOpen)
+ *     .map(this::price)
+ *     .collect(toList());
+ * System.out.println(instrumentation.report());
+ * </pre>
+ * <p>
+ * Every intermediate operation is followed by a probe which counts the elements passing it. One of every
+ * {@code sampleEvery} elements is also timed, per thread, from one probe to the next, so the time of a stage is the time
+ * its elements spent in the operation, estimated from the samples. Stateful operations such as {@code sorted} and
+ * {@code distinct} buffer elements, their probes only count and restart the sampling. Each terminal operation records
+ * the elapsed time and the steal and queue figures of the worker pool, these are pool-wide and include other work
+ * running in the same pool.
+ * <p>
+ * An instance is meant for one pipeline, it is thread safe.
+ */
+public final class StreamInstrumentation {
+
+    private static final int DEFAULT_SAMPLE_EVERY = 64;
+    private static final AtomicLong PROBE_IDS = new AtomicLong();
+    // holds probe ids only, so worker threads don't keep pipelines reachable
+    private static final ThreadLocal<Mark> MARKS = ThreadLocal.withInitial(Mark::new);
+
+    private final int sampleEvery;
+    private final List<Probe> probes = new CopyOnWriteArrayList<>();
+    private final List<StreamReport.Terminal> terminals = new CopyOnWriteArrayList<>();
+
+    public StreamInstrumentation() {
+        this(DEFAULT_SAMPLE_EVERY);
+    }
+
+    /**
+     * @param sampleEvery Time one of every {@code sampleEvery} elements per thread, 1 times all of them. Must be positive.
+     */
+    public StreamInstrumentation(int sampleEvery) {
+        if (sampleEvery <= 0) {
+            throw new IllegalArgumentException("Sample interval must be positive: " + sampleEvery);
+        }
+        this.sampleEvery = sampleEvery;
+    }
+
+    /**
+     * Returns the figures recorded so far, stages in the order of the pipeline and terminal operations in the order
+     * they completed.
+     */
+    public StreamReport report() {
+        List<StreamReport.Stage> stages = new ArrayList<>(this.probes.size());
+        for (Probe probe : this.probes) {
+            stages.add(new StreamReport.Stage(probe.name, probe.barrier, probe.count.sum(), probe.sampled.sum(), probe.nanos.sum()));
+        }
+        return new StreamReport(stages, new ArrayList<>(this.terminals));
+    }
+
+    Probe probe(String name, boolean barrier, Probe previous) {
+        Probe probe = new Probe(name, barrier, previous, this.sampleEvery);
+        this.probes.add(probe);
+        return probe;
+    }
+
+    <R> Callable<R> terminal(Callable<R> operation, ForkJoinPool workerPool, boolean parallel) {
+        return () -> {
+            PoolState before = new PoolState(workerPool);
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                R result = operation.call();
+                failed = false;
+                return result;
+            } finally {
+                record(workerPool, parallel, before, System.nanoTime() - start, failed);
+            }
+        };
+    }
+
+    Runnable terminal(Runnable operation, ForkJoinPool workerPool, boolean parallel) {
+        return () -> {
+            PoolState before = new PoolState(workerPool);
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                operation.run();
+                failed = false;
+            } finally {
+                record(workerPool, parallel, before, System.nanoTime() - start, failed);
+            }
+        };
+    }
+
+    private void record(ForkJoinPool workerPool, boolean parallel, PoolState before, long elapsedNanos, boolean failed) {
+        PoolState after = new PoolState(workerPool);
+        this.terminals.add(new StreamReport.Terminal(parallel, failed, elapsedNanos, workerPool.getParallelism(),
+            after.steals - before.steals, before.queuedTasks, after.queuedTasks, before.queuedSubmissions,
+            after.queuedSubmissions, Math.max(before.activeThreads, after.activeThreads), after.poolSize));
+    }
+
+    /**
+     * Counts the elements passing a stage and times the sampled ones.
+     */
+    static final class Probe implements Consumer<Object>, IntConsumer, LongConsumer, DoubleConsumer {
+        private final long id = PROBE_IDS.incrementAndGet();
+        private final String name;
+        private final boolean barrier;
+        private final Probe previous;
+        private final int sampleEvery;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sampled = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        private Probe(String name, boolean barrier, Probe previous, int sampleEvery) {
+            this.name = name;
+            this.barrier = barrier;
+            this.previous = previous;
+            this.sampleEvery = sampleEvery;
+        }
+
+        @Override
+        public void accept(Object value) {
+            hit();
+        }
+
+        @Override
+        public void accept(int value) {
+            hit();
+        }
+
+        @Override
+        public void accept(long value) {
+            hit();
+        }
+
+        @Override
+        public void accept(double value) {
+            hit();
+        }
+
+        private void hit() {
+            this.count.increment();
+            Mark mark = MARKS.get();
+
+            if (this.barrier || this.previous == null) {
+                if (--mark.countdown <= 0) {
+                    mark.countdown = this.sampleEvery;
+                    mark.probe = this.id;
+                    mark.nanos = System.nanoTime();
+                } else {
+                    mark.probe = 0;
+                }
+            } else if (mark.probe == this.previous.id) {
+                long now = System.nanoTime();
+                this.nanos.add(now - mark.nanos);
+                this.sampled.increment();
+                mark.probe = this.id;
+                mark.nanos = now;
+            } else {
+                mark.probe = 0;
+            }
+        }
+    }
+
+    /**
+     * Per thread sampling state, the id of the probe the current element last passed if it is sampled, 0 otherwise.
+     */
+    private static final class Mark {
+        private int countdown = 1;
+        private long probe;
+        private long nanos;
+    }
+
+    private static final class PoolState {
+        private final long steals;
+        private final long queuedTasks;
+        private final int queuedSubmissions;
+        private final int activeThreads;
+        private final int poolSize;
+
+        private PoolState(ForkJoinPool workerPool) {
+            this.steals = workerPool.getStealCount();
+            this.queuedTasks = workerPool.getQueuedTaskCount();
+            this.queuedSubmissions = workerPool.getQueuedSubmissionCount();
+            this.activeThreads = workerPool.getActiveThreadCount();
+            this.poolSize = workerPool.getPoolSize();
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.infilos.utils.stream;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Figures of an instrumented parallel stream pipeline, see {@link StreamInstrumentation}. The {@link #toString()} is a
+ * table meant for logs, one line per stage and per terminal operation.
+ */
+public final class StreamReport {
+
+    private final List<Stage> stages;
+    private final List<Terminal> terminals;
+
+    StreamReport(List<Stage> stages, List<Terminal> terminals) {
+        this.stages = Collections.unmodifiableList(stages);
+        this.terminals = Collections.unmodifiableList(terminals);
+    }
+
+    /**
+     * Stages in the order of the pipeline, the first one is the source.
+     */
+    public List<Stage> getStages() {
+        return this.stages;
+    }
+
+    /**
+     * Terminal operations in the order they completed.
+     */
+    public List<Terminal> getTerminals() {
+        return this.terminals;
+    }
+
+    /**
+     * Returns the stage with the largest estimated time, or {@code null} if no element was timed.
+     */
+    public Stage getHottestStage() {
+        Stage hottest = null;
+        for (Stage stage : this.stages) {
+            if (stage.getSampledCount() > 0 && (hottest == null || stage.getEstimatedTime().compareTo(hottest.getEstimatedTime()) > 0)) {
+                hottest = stage;
+            }
+        }
+        return hottest;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("StreamReport");
+        for (int index = 0; index < this.stages.size(); index++) {
+            builder.append("\n  stage ").append(index).append(' ').append(this.stages.get(index));
+        }
+        for (int index = 0; index < this.terminals.size(); index++) {
+            builder.append("\n  terminal ").append(index).append(' ').append(this.terminals.get(index));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Element count and estimated time of one intermediate operation.
+     */
+    public static final class Stage {
+        private final String name;
+        private final boolean stateful;
+        private final long count;
+        private final long sampledCount;
+        private final long sampledNanos;
+
+        Stage(String name, boolean stateful, long count, long sampledCount, long sampledNanos) {
+            this.name = name;
+            this.stateful = stateful;
+            this.count = count;
+            this.sampledCount = sampledCount;
+            this.sampledNanos = sampledNanos;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Whether the stage is the source or a stateful operation, which are counted but not timed.
+         */
+        public boolean isStateful() {
+            return this.stateful;
+        }
+
+        /**
+         * Number of elements which passed the stage.
+         */
+        public long getCount() {
+            return this.count;
+        }
+
+        public long getSampledCount() {
+            return this.sampledCount;
+        }
+
+        public Duration getSampledTime() {
+            return Duration.ofNanos(this.sampledNanos);
+        }
+
+        /**
+         * Cumulative time of all the elements passing the stage, extrapolated from the sampled ones.
+         */
+        public Duration getEstimatedTime() {
+            if (this.sampledCount == 0) {
+                return Duration.ZERO;
+            }
+            return Duration.ofNanos((long) ((double) this.sampledNanos / this.sampledCount * this.count));
+        }
+
+        @Override
+        public String toString() {
+            return this.name + "{count=" + this.count +
+                (this.stateful ? "" : ", sampled=" + this.sampledCount + ", estimatedTime=" + getEstimatedTime()) +
+                '}';
+        }
+    }
+
+    /**
+     * Elapsed time and worker pool figures of one terminal operation. Steals are counted by the pool when its workers
+     * finish stealing, so it is only an approximation for short operations.
+     */
+    public static final class Terminal {
+        private final boolean parallel;
+        private final boolean failed;
+        private final long elapsedNanos;
+        private final int parallelism;
+        private final long steals;
+        private final long queuedTasksBefore;
+        private final long queuedTasksAfter;
+        private final int queuedSubmissionsBefore;
+        private final int queuedSubmissionsAfter;
+        private final int activeThreads;
+        private final int poolSize;
+
+        Terminal(boolean parallel, boolean failed, long elapsedNanos, int parallelism, long steals, long queuedTasksBefore,
+                 long queuedTasksAfter, int queuedSubmissionsBefore, int queuedSubmissionsAfter, int activeThreads, int poolSize) {
+            this.parallel = parallel;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+            this.parallelism = parallelism;
+            this.steals = steals;
+            this.queuedTasksBefore = queuedTasksBefore;
+            this.queuedTasksAfter = queuedTasksAfter;
+            this.queuedSubmissionsBefore = queuedSubmissionsBefore;
+            this.queuedSubmissionsAfter = queuedSubmissionsAfter;
+            this.activeThreads = activeThreads;
+            this.poolSize = poolSize;
+        }
+
+        public boolean isParallel() {
+            return this.parallel;
+        }
+
+        /**
+         * Whether the operation threw, including cancellation.
+         */
+        public boolean isFailed() {
+            return this.failed;
+        }
+
+        public Duration getElapsed() {
+            return Duration.ofNanos(this.elapsedNanos);
+        }
+
+        public int getParallelism() {
+            return this.parallelism;
+        }
+
+        /**
+         * Tasks stolen in the worker pool during the operation.
+         */
+        public long getSteals() {
+            return this.steals;
+        }
+
+        public long getQueuedTasksBefore() {
+            return this.queuedTasksBefore;
+        }
+
+        public long getQueuedTasksAfter() {
+            return this.queuedTasksAfter;
+        }
+
+        public int getQueuedSubmissionsBefore() {
+            return this.queuedSubmissionsBefore;
+        }
+
+        public int getQueuedSubmissionsAfter() {
+            return this.queuedSubmissionsAfter;
+        }
+
+        /**
+         * The larger number of workers running tasks at the start or the end of the operation.
+         */
+        public int getActiveThreads() {
+            return this.activeThreads;
+        }
+
+        public int getPoolSize() {
+            return this.poolSize;
+        }
+
+        @Override
+        public String toString() {
+            return "{parallel=" + this.parallel +
+                ", failed=" + this.failed +
+                ", elapsed=" + getElapsed() +
+                ", parallelism=" + this.parallelism +
+                ", poolSize=" + this.poolSize +
+                ", activeThreads=" + this.activeThreads +
+                ", steals=" + this.steals +
+                ", queuedTasks=" + this.queuedTasksBefore + "->" + this.queuedTasksAfter +
+                ", queuedSubmissions=" + this.queuedSubmissionsBefore + "->" + this.queuedSubmissionsAfter +
+                '}';
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.infilos.utils.stream;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Thrown by a terminal operation of a parallel stream which didn't finish within the timeout configured by
+ * {@link AbstractParallelStream#withTimeout(Duration)}. The worker tasks are abandoned at their next cancellation check.
+ */
+public class StreamTimeoutException extends RuntimeException {
+
+    private final Duration timeout;
+
+    public StreamTimeoutException(Duration timeout, TimeoutException cause) {
+        super("Parallel stream terminal operation timed out after " + timeout, cause);
+        this.timeout = timeout;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+}
@@ -1,9 +1,29 @@
 package com.infilos.utils.stream;
 
 import com.infilos.api.CheckedConsumer;
+import com.infilos.utils.DataSize;
 import com.infilos.utils.Require;
+import com.infilos.utils.internal.MappedLines;
+import com.infilos.utils.io.IORuntimeException;
+import com.infilos.utils.io.Serializer;
 
-import java.util.stream.Stream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.*;
 
 public class Streams {
 
@@ -53,4 +73,377 @@ public class Streams {
             consumer.accept(element);
         }
     }
+
+    /**
+     * Returns a lazy stream of consecutive chunks of {@code stream}, each has {@code size} elements except the last one.
+     * For example, to batch database writes straight from a lazy source:
+     *
+     * <pre>{@code
+     *   Streams.chunked(repository.scan(), 500).forEach(repository::saveAll);
+     * }</pre>
+     *
+     * <p>Splitting is delegated to the source, so a parallel source is still batched in parallel. Chunks are the same as
+     * in sequential traversal if the source is {@link java.util.Spliterator#SUBSIZED SUBSIZED}, like lists, arrays and
+     * ranges, otherwise the last chunk of each split part may be smaller. A {@link ParallelStream} source results in a
+     * {@link ParallelStream} in the same worker pool.
+     *
+     * @param size The chunk size, must be positive.
+     */
+    public static <T> Stream<List<T>> chunked(Stream<T> stream, int size) {
+        Require.checkNotNull(stream);
+        ChunkSpliterator.checkSize(size);
+
+        return inheritParallel(stream, StreamSupport.stream(
+            new ChunkSpliterator.ForRef<>(stream.spliterator(), size, null, 0), stream.isParallel()).onClose(stream::close));
+    }
+
+    /**
+     * Returns a lazy stream of consecutive chunks of {@code stream} as arrays, without boxing.
+     *
+     * @see #chunked(Stream, int)
+     */
+    public static Stream<int[]> chunked(IntStream stream, int size) {
+        Require.checkNotNull(stream);
+        ChunkSpliterator.checkSize(size);
+
+        return inheritParallel(stream, StreamSupport.stream(
+            new ChunkSpliterator.ForInt(stream.spliterator(), size, null, 0), stream.isParallel()).onClose(stream::close));
+    }
+
+    /**
+     * Returns a lazy stream of consecutive chunks of {@code stream} as arrays, without boxing.
+     *
+     * @see #chunked(Stream, int)
+     */
+    public static Stream<long[]> chunked(LongStream stream, int size) {
+        Require.checkNotNull(stream);
+        ChunkSpliterator.checkSize(size);
+
+        return inheritParallel(stream, StreamSupport.stream(
+            new ChunkSpliterator.ForLong(stream.spliterator(), size, null, 0), stream.isParallel()).onClose(stream::close));
+    }
+
+    /**
+     * Returns a lazy stream of consecutive chunks of {@code stream} as arrays, without boxing.
+     *
+     * @see #chunked(Stream, int)
+     */
+    public static Stream<double[]> chunked(DoubleStream stream, int size) {
+        Require.checkNotNull(stream);
+        ChunkSpliterator.checkSize(size);
+
+        return inheritParallel(stream, StreamSupport.stream(
+            new ChunkSpliterator.ForDouble(stream.spliterator(), size, null, 0), stream.isParallel()).onClose(stream::close));
+    }
+
+    /**
+     * Returns a lazy stream of sliding windows over {@code stream}: each window has {@code size} consecutive elements
+     * and starts {@code step} elements after the previous one, trailing elements which can't fill a window are dropped.
+     * For example {@code windowed(Stream.of(1, 2, 3, 4, 5), 3, 2)} gives {@code [1, 2, 3], [3, 4, 5]}.
+     *
+     * @param size The window size, must be positive.
+     * @param step The distance between window starts, must be positive. Elements are skipped if greater than {@code size}.
+     */
+    public static <T> Stream<List<T>> windowed(Stream<T> stream, int size, int step) {
+        Require.checkNotNull(stream);
+        WindowSpliterator.checkWindow(size, step);
+
+        return inheritParallel(stream, StreamSupport.stream(
+            new WindowSpliterator.Sliding<>(stream.spliterator(), size, step), stream.isParallel()).onClose(stream::close));
+    }
+
+    /**
+     * Returns a lazy stream of adjacent, non-overlapping windows of {@code size}, the last window may be smaller.
+     *
+     * @see #chunked(Stream, int)
+     */
+    public static <T> Stream<List<T>> tumbling(Stream<T> stream, int size) {
+        return chunked(stream, size);
+    }
+
+    /**
+     * Returns a lazy stream of sessions over {@code stream}: consecutive elements belong to the same session while
+     * {@code continues} accepts each element after its predecessor, and a session is closed at {@code maxSize} elements.
+     *
+     * @param continues Tests the previous and the next element.
+     * @param maxSize Maximum elements of a session, must be positive.
+     */
+    public static <T> Stream<List<T>> sessions(Stream<T> stream, BiPredicate<? super T, ? super T> continues, int maxSize) {
+        Require.checkNotNull(stream);
+        Require.checkNotNull(continues);
+        Require.check(maxSize > 0, "Session max size must be positive: %s", maxSize);
+
+        return inheritParallel(stream, StreamSupport.stream(
+            new WindowSpliterator.Session<>(stream.spliterator(), continues, maxSize), stream.isParallel()).onClose(stream::close));
+    }
+
+    /**
+     * Returns a lazy stream of sessions over {@code stream} ordered by time, a session is closed when the next element
+     * comes more than {@code gap} after the previous one.
+     *
+     * @param timestampMillis Extracts the epoch millis of an element.
+     */
+    public static <T> Stream<List<T>> sessions(Stream<T> stream, ToLongFunction<? super T> timestampMillis, Duration gap) {
+        return sessions(stream, timestampMillis, gap, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a lazy stream of sessions over {@code stream} ordered by time, a session is closed when the next element
+     * comes more than {@code gap} after the previous one, or when it reaches {@code maxSize} elements.
+     *
+     * @param timestampMillis Extracts the epoch millis of an element.
+     */
+    public static <T> Stream<List<T>> sessions(Stream<T> stream, ToLongFunction<? super T> timestampMillis, Duration gap, int maxSize) {
+        Require.checkNotNull(timestampMillis);
+        Require.check(!Require.checkNotNull(gap).isNegative(), "Session gap must not be negative: %s", gap);
+
+        long gapMillis = gap.toMillis();
+        return sessions(stream, (previous, next) ->
+            timestampMillis.applyAsLong(next) - timestampMillis.applyAsLong(previous) <= gapMillis, maxSize);
+    }
+
+    /**
+     * Returns a lazy stream of the aggregates of sliding windows over {@code stream}, like moving sums or rolling
+     * counts. The window is a primitive ring buffer reused for every step, so values are neither boxed nor copied:
+     *
+     * <pre>{@code
+     *   LongStream movingSums = Streams.windowed(requestCounts, 60, 1, LongWindow::sum);
+     * }</pre>
+     *
+     * @see #windowed(Stream, int, int)
+     */
+    public static LongStream windowed(LongStream stream, int size, int step, ToLongFunction<? super LongWindow> aggregator) {
+        Require.checkNotNull(stream);
+        Require.checkNotNull(aggregator);
+        WindowSpliterator.checkWindow(size, step);
+
+        return inheritParallel(stream, StreamSupport.longStream(
+            new WindowSpliterator.SlidingLong(stream.spliterator(), size, step, aggregator), stream.isParallel()).onClose(stream::close));
+    }
+
+    /**
+     * Returns a lazy stream of the aggregates of sliding windows over {@code stream}, like moving averages. The window is
+     * a primitive ring buffer reused for every step, so values are neither boxed nor copied:
+     *
+     * <pre>{@code
+     *   DoubleStream movingAverages = Streams.windowed(latencies, 10, 1, DoubleWindow::average);
+     * }</pre>
+     *
+     * @see #windowed(Stream, int, int)
+     */
+    public static DoubleStream windowed(DoubleStream stream, int size, int step, ToDoubleFunction<? super DoubleWindow> aggregator) {
+        Require.checkNotNull(stream);
+        Require.checkNotNull(aggregator);
+        WindowSpliterator.checkWindow(size, step);
+
+        return inheritParallel(stream, StreamSupport.doubleStream(
+            new WindowSpliterator.SlidingDouble(stream.spliterator(), size, step, aggregator), stream.isParallel()).onClose(stream::close));
+    }
+
+    /**
+     * Returns a lazy stream merging the {@code sorted} streams into one sorted by {@code comparator}, instead of
+     * concatenating and sorting them. A binary heap of the source iterators costs {@code O(log k)} per element for
+     * {@code k} sources, and only holds the current head of each source. Equal elements are taken in the order of the
+     * sources, and closing the returned stream closes all the sources.
+     *
+     * <p>Sources are traversed sequentially, downstream operations run in parallel if the first source is parallel, and
+     * a {@link ParallelStream} first source results in a {@link ParallelStream} in the same worker pool.
+     *
+     * @param sorted Streams each sorted by {@code comparator}.
+     */
+    public static <T> Stream<T> mergeSorted(Comparator<? super T> comparator, List<? extends Stream<? extends T>> sorted) {
+        Require.checkNotNull(comparator);
+        Require.checkNotNull(sorted);
+
+        List<Spliterator<? extends T>> sources = new ArrayList<>(sorted.size());
+        for (Stream<? extends T> stream : sorted) {
+            sources.add(Require.checkNotNull(stream).spliterator());
+        }
+        boolean parallel = !sorted.isEmpty() && sorted.get(0).isParallel();
+        Stream<T> merged = StreamSupport.stream(new MergeSpliterator.Sorted<T>(comparator, sources), parallel)
+            .onClose(() -> closeAll(sorted));
+
+        return sorted.isEmpty() ? merged : inheritParallel(sorted.get(0), merged);
+    }
+
+    /**
+     * Returns a lazy stream of {@code zipper} applied to the elements of {@code a} and {@code b} at the same position,
+     * which ends with the shorter stream. The result is {@code SIZED} if both streams are, and parallel if {@code a} is.
+     */
+    public static <A, B, R> Stream<R> zip(Stream<A> a, Stream<B> b, BiFunction<? super A, ? super B, ? extends R> zipper) {
+        Require.checkNotNull(a);
+        Require.checkNotNull(b);
+        Require.checkNotNull(zipper);
+
+        Stream<R> zipped = StreamSupport.stream(new MergeSpliterator.Zip<A, B, R>(a.spliterator(), b.spliterator(), zipper), a.isParallel())
+            .onClose(() -> closeAll(Arrays.asList(a, b)));
+
+        return inheritParallel(a, zipped);
+    }
+
+    /**
+     * Returns a lazy stream of the elements of {@code stream} sorted by {@code comparator}, buffering at most about
+     * {@code memoryBudget} of them on the heap. Sorted runs of the budget size are spilled by {@code serializer} to
+     * temporary files and merged with a heap of their readers, so the sort is bounded by disk space instead of heap.
+     * The source is consumed by the terminal operation of the returned stream, run files are deleted once merged or
+     * when the returned stream is closed, and at the latest by the temporary file cleanup of {@link com.infilos.utils.FileHelper}.
+     *
+     * <p>The sort is stable. Element sizes are estimated from their serialized sizes, so the budget is approximate.
+     *
+     * @param memoryBudget Heap size the buffered elements may take.
+     */
+    public static <T> Stream<T> externalSort(Stream<T> stream, Comparator<? super T> comparator, Serializer<T> serializer, DataSize memoryBudget) {
+        return externalSort(stream, comparator, serializer, memoryBudget, null);
+    }
+
+    /**
+     * Same as {@link #externalSort(Stream, Comparator, Serializer, DataSize)}, runs are sorted and spilled in
+     * {@code workerPool} while the next run is buffered, each run then takes half of the budget.
+     *
+     * @param workerPool Pool to sort and spill runs in, {@code null} to do it in the consuming thread.
+     */
+    public static <T> Stream<T> externalSort(Stream<T> stream, Comparator<? super T> comparator, Serializer<T> serializer,
+                                             DataSize memoryBudget, ForkJoinPool workerPool) {
+        Require.checkNotNull(stream);
+        Require.checkNotNull(comparator);
+        Require.checkNotNull(serializer);
+        Require.checkNotNull(memoryBudget);
+        Require.check(memoryBudget.toBytes() > 0, "Memory budget must be positive: %s", memoryBudget);
+
+        ExternalSort<T> sort = new ExternalSort<>(comparator, serializer, memoryBudget.toBytes(), workerPool);
+        return StreamSupport.stream(() -> sort.sort(stream.spliterator()), Spliterator.ORDERED, false)
+            .onClose(sort::close)
+            .onClose(stream::close);
+    }
+
+    private static void closeAll(List<? extends BaseStream<?, ?>> streams) {
+        RuntimeException failure = null;
+        for (BaseStream<?, ?> stream : streams) {
+            try {
+                stream.close();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Returns a parallel stream of the lines of {@code path}, which memory-maps the file and splits it by byte ranges
+     * aligned to line boundaries, so large files can be scanned on all cores. Lines end with {@code \n} or
+     * {@code \r\n}, and the stream should be closed to release the file, for example:
+     *
+     * <pre>{@code
+     *   try (Stream<String> lines = Streams.lines(path, StandardCharsets.UTF_8)) {
+     *     long errors = lines.filter(line -> line.contains("ERROR")).count();
+     *   }
+     * }</pre>
+     *
+     * @param charset Must encode {@code \n} as the single byte {@code 0x0A}, like UTF-8 and other ASCII compatible charsets.
+     *
+     * @throws IORuntimeException if the file can't be opened, or later while traversing the stream.
+     * @see #lineSpliterator(FileChannel, Charset)
+     */
+    public static Stream<String> lines(Path path, Charset charset) {
+        Require.checkNotNull(path);
+        MappedLines.checkCharset(Require.checkNotNull(charset));
+
+        FileChannel channel = openChannel(path);
+        try {
+            return StreamSupport.stream(lineSpliterator(path, channel, charset), true).onClose(() -> closeChannel(channel));
+        } catch (RuntimeException | Error e) {
+            closeChannel(channel);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a parallel stream of the lines of {@code path} whose terminal operations run in {@code workerPool}.
+     *
+     * @see #lines(Path, Charset)
+     * @see ParallelStream#submit(Spliterator, ForkJoinPool)
+     */
+    public static Stream<String> lines(Path path, Charset charset, ForkJoinPool workerPool) {
+        Require.checkNotNull(workerPool);
+        Stream<String> lines = lines(path, charset);
+
+        return ParallelStream.submit(lines.spliterator(), workerPool).onClose(lines::close);
+    }
+
+    /**
+     * Returns a spliterator of the lines of the file opened by {@code channel}, which splits by byte ranges aligned to
+     * line boundaries. The channel is shared by the split spliterators and must be closed by caller.
+     *
+     * @see #lines(Path, Charset)
+     */
+    public static Spliterator<String> lineSpliterator(FileChannel channel, Charset charset) {
+        Require.checkNotNull(channel);
+        MappedLines.checkCharset(Require.checkNotNull(charset));
+
+        return lineSpliterator(null, channel, charset);
+    }
+
+    private static Spliterator<String> lineSpliterator(Path path, FileChannel channel, Charset charset) {
+        try {
+            return new MappedLineSpliterator(path, channel, charset, 0, channel.size());
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    private static FileChannel openChannel(Path path) {
+        try {
+            return FileChannel.open(path, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    private static void closeChannel(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    /**
+     * Wraps {@code result} as {@link ParallelStream} in the worker pool of {@code source} if it is a parallel stream of
+     * this package, keeping its timeout and cancellation settings.
+     */
+    static <R> Stream<R> inheritParallel(BaseStream<?, ?> source, Stream<R> result) {
+        if (source instanceof AbstractParallelStream) {
+            AbstractParallelStream<?, ?> parallel = (AbstractParallelStream<?, ?>) source;
+            return parallel.inherit(new ParallelStream<>(result, parallel.workerPool));
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link #inheritParallel(BaseStream, Stream)}, wraps {@code result} as {@link ParallelLongStream}.
+     */
+    static LongStream inheritParallel(BaseStream<?, ?> source, LongStream result) {
+        if (source instanceof AbstractParallelStream) {
+            AbstractParallelStream<?, ?> parallel = (AbstractParallelStream<?, ?>) source;
+            return parallel.inherit(new ParallelLongStream(result, parallel.workerPool));
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link #inheritParallel(BaseStream, Stream)}, wraps {@code result} as {@link ParallelDoubleStream}.
+     */
+    static DoubleStream inheritParallel(BaseStream<?, ?> source, DoubleStream result) {
+        if (source instanceof AbstractParallelStream) {
+            AbstractParallelStream<?, ?> parallel = (AbstractParallelStream<?, ?>) source;
+            return parallel.inherit(new ParallelDoubleStream(result, parallel.workerPool));
+        }
+        return result;
+    }
 }
@@ -0,0 +1,256 @@
+package com.infilos.utils.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.*;
+
+/**
+ * Spliterators of windows over a source, used by {@link Streams#windowed}, {@link Streams#sessions} and their primitive
+ * variants.
+ * <p>
+ * Windows depend on consecutive elements, so the source is traversed sequentially; splitting only hands out batches of
+ * complete windows, so downstream operations may still run in parallel.
+ */
+final class WindowSpliterator {
+
+    private WindowSpliterator() {
+    }
+
+    static void checkWindow(int size, int step) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Window size must be positive: " + size);
+        }
+        if (step < 1) {
+            throw new IllegalArgumentException("Window step must be positive: " + step);
+        }
+    }
+
+    private static int orderedOf(Spliterator<?> source) {
+        return source.characteristics() & Spliterator.ORDERED;
+    }
+
+    /**
+     * Windows of {@code size} consecutive elements, each starts {@code step} elements after the previous one. The last
+     * elements which can't fill a window are dropped. The window is buffered in a ring which accepts null elements.
+     */
+    static final class Sliding<T> extends Spliterators.AbstractSpliterator<List<T>> implements Consumer<T> {
+        private final Spliterator<T> source;
+        private final int size;
+        private final int step;
+        private Object[] ring;
+        private int head;
+        private int count;
+        private boolean started;
+
+        Sliding(Spliterator<T> source, int size, int step) {
+            // the windows are never null, their elements may be
+            super(Long.MAX_VALUE, orderedOf(source) | NONNULL);
+            this.source = source;
+            this.size = size;
+            this.step = step;
+            this.ring = new Object[Math.min(size, 1024)];
+        }
+
+        @Override
+        public void accept(T element) {
+            if (this.count == this.ring.length) {
+                Object[] grown = new Object[(int) Math.min(this.size, this.ring.length * 2L)];
+                for (int index = 0; index < this.count; index++) {
+                    grown[index] = this.ring[(this.head + index) % this.ring.length];
+                }
+                this.ring = grown;
+                this.head = 0;
+            }
+            this.ring[(this.head + this.count) % this.ring.length] = element;
+            this.count++;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super List<T>> action) {
+            if (this.started) {
+                int dropped = Math.min(this.step, this.count);
+                for (int index = 0; index < dropped; index++) {
+                    this.ring[this.head] = null;
+                    this.head = (this.head + 1) % this.ring.length;
+                }
+                this.count -= dropped;
+                for (int skip = this.step - dropped; skip > 0; skip--) {
+                    if (!this.source.tryAdvance(element -> { })) {
+                        return false;
+                    }
+                }
+            }
+            this.started = true;
+
+            while (this.count < this.size) {
+                if (!this.source.tryAdvance(this)) {
+                    return false;
+                }
+            }
+            action.accept(window());
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<T> window() {
+            List<T> window = new ArrayList<>(this.count);
+            for (int index = 0; index < this.count; index++) {
+                window.add((T) this.ring[(this.head + index) % this.ring.length]);
+            }
+            return window;
+        }
+    }
+
+    /**
+     * Sessions of consecutive elements, a session ends before an element which doesn't continue the previous one, or
+     * when it reaches {@code maxSize}.
+     */
+    static final class Session<T> extends Spliterators.AbstractSpliterator<List<T>> implements Consumer<T> {
+        private final Spliterator<T> source;
+        private final BiPredicate<? super T, ? super T> continues;
+        private final int maxSize;
+        private T next;
+        private boolean hasNext;
+
+        Session(Spliterator<T> source, BiPredicate<? super T, ? super T> continues, int maxSize) {
+            super(Long.MAX_VALUE, orderedOf(source) | NONNULL);
+            this.source = source;
+            this.continues = continues;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public void accept(T element) {
+            this.next = element;
+            this.hasNext = true;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super List<T>> action) {
+            if (!this.hasNext && !this.source.tryAdvance(this)) {
+                return false;
+            }
+
+            List<T> session = new ArrayList<>();
+            T previous = this.next;
+            session.add(previous);
+            this.hasNext = false;
+            while (session.size() < this.maxSize && this.source.tryAdvance(this)) {
+                if (!this.continues.test(previous, this.next)) {
+                    break;
+                }
+                previous = this.next;
+                session.add(previous);
+                this.hasNext = false;
+            }
+            if (!this.hasNext) {
+                this.next = null;
+            }
+
+            action.accept(session);
+            return true;
+        }
+    }
+
+    /**
+     * Aggregates of sliding {@code long} windows, the window is a ring buffer reused for every step.
+     */
+    static final class SlidingLong extends Spliterators.AbstractLongSpliterator implements LongConsumer {
+        private static final LongConsumer DISCARD = value -> { };
+
+        private final Spliterator.OfLong source;
+        private final int step;
+        private final ToLongFunction<? super LongWindow> aggregator;
+        private final LongWindow window;
+        private boolean started;
+
+        SlidingLong(Spliterator.OfLong source, int size, int step, ToLongFunction<? super LongWindow> aggregator) {
+            super(Long.MAX_VALUE, orderedOf(source));
+            this.source = source;
+            this.step = step;
+            this.aggregator = aggregator;
+            this.window = new LongWindow(size);
+        }
+
+        @Override
+        public void accept(long value) {
+            this.window.add(value);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (this.started) {
+                int dropped = Math.min(this.step, this.window.size());
+                for (int index = 0; index < dropped; index++) {
+                    this.window.removeFirst();
+                }
+                for (int skip = this.step - dropped; skip > 0; skip--) {
+                    if (!this.source.tryAdvance(DISCARD)) {
+                        return false;
+                    }
+                }
+            }
+            this.started = true;
+
+            while (!this.window.isFull()) {
+                if (!this.source.tryAdvance((LongConsumer) this)) {
+                    return false;
+                }
+            }
+            action.accept(this.aggregator.applyAsLong(this.window));
+            return true;
+        }
+    }
+
+    /**
+     * Aggregates of sliding {@code double} windows, the window is a ring buffer reused for every step.
+     */
+    static final class SlidingDouble extends Spliterators.AbstractDoubleSpliterator implements DoubleConsumer {
+        private static final DoubleConsumer DISCARD = value -> { };
+
+        private final Spliterator.OfDouble source;
+        private final int step;
+        private final ToDoubleFunction<? super DoubleWindow> aggregator;
+        private final DoubleWindow window;
+        private boolean started;
+
+        SlidingDouble(Spliterator.OfDouble source, int size, int step, ToDoubleFunction<? super DoubleWindow> aggregator) {
+            super(Long.MAX_VALUE, orderedOf(source));
+            this.source = source;
+            this.step = step;
+            this.aggregator = aggregator;
+            this.window = new DoubleWindow(size);
+        }
+
+        @Override
+        public void accept(double value) {
+            this.window.add(value);
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if (this.started) {
+                int dropped = Math.min(this.step, this.window.size());
+                for (int index = 0; index < dropped; index++) {
+                    this.window.removeFirst();
+                }
+                for (int skip = this.step - dropped; skip > 0; skip--) {
+                    if (!this.source.tryAdvance(DISCARD)) {
+                        return false;
+                    }
+                }
+            }
+            this.started = true;
+
+            while (!this.window.isFull()) {
+                if (!this.source.tryAdvance((DoubleConsumer) this)) {
+                    return false;
+                }
+            }
+            action.accept(this.aggregator.applyAsDouble(this.window));
+            return true;
+        }
+    }
+}
@@ -73,4 +73,45 @@ public class BackoffStrategyTest {
         Duration durationToWait = backoffStrategy.nextDelayToWait(10000, Duration.ofMillis(100));
         assertThat(durationToWait.toMillis()).isPositive();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void verifyBackoffStrategy_decorrelatedJitter() {
+        DecorrelatedJitterBackoffStrategy backoffStrategy = new DecorrelatedJitterBackoffStrategy(Duration.ofMillis(1000));
+
+        long previous = 100;
+        for (int failedAttempts = 1; failedAttempts <= 20; failedAttempts++) {
+            long durationToWait = backoffStrategy.nextDelayToWait(failedAttempts, Duration.ofMillis(100)).toMillis();
+            long upper = failedAttempts == 1 ? 300 : Math.min(1000, previous * 3);
+
+            assertThat(durationToWait).isBetween(100L, upper);
+            previous = durationToWait;
+        }
+    }
+
+    @Test
+    public void verifyBackoffStrategy_decorrelatedJitterResetsOnFirstRetry() {
+        DecorrelatedJitterBackoffStrategy backoffStrategy = new DecorrelatedJitterBackoffStrategy(Duration.ofSeconds(10));
+        for (int failedAttempts = 1; failedAttempts <= 20; failedAttempts++) {
+            backoffStrategy.nextDelayToWait(failedAttempts, Duration.ofMillis(100));
+        }
+
+        Duration durationToWait = backoffStrategy.nextDelayToWait(1, Duration.ofMillis(100));
+        assertThat(durationToWait.toMillis()).isBetween(100L, 300L);
+    }
+
+    @Test
+    public void verifyBackoffStrategy_decorrelatedJitterPerExecution() {
+        BackoffStrategy backoffStrategy = new DecorrelatedJitterBackoffStrategy(Duration.ofSeconds(10));
+        BackoffStrategy first = backoffStrategy.forExecution();
+        BackoffStrategy second = backoffStrategy.forExecution();
+        assertThat(first).isNotSameAs(second);
+
+        long previous = second.nextDelayToWait(1, Duration.ofMillis(100)).toMillis();
+        for (int failedAttempts = 1; failedAttempts <= 20; failedAttempts++) {
+            first.nextDelayToWait(failedAttempts, Duration.ofMillis(100));
+        }
+
+        Duration durationToWait = second.nextDelayToWait(2, Duration.ofMillis(100));
+        assertThat(durationToWait.toMillis()).isBetween(100L, previous * 3);
+    }
+}
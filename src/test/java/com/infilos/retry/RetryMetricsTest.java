@@ -0,0 +1,157 @@
+package com.infilos.retry;
+
+import com.infilos.retry.exception.RetryEscapedException;
+import com.infilos.retry.exception.RetryTiredException;
+import com.infilos.utils.retry.RetryDelay;
+import com.infilos.utils.retry.RetryRunner;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class RetryMetricsTest {
+
+    @Test
+    public void verifyRecordingOfSyncExecutions() {
+        RetryMetrics metrics = new RetryMetrics();
+        RetryConfig<String> config = Retry.config(String.class)
+            .retryOnError(IOException.class)
+            .withMaxAttempts(3)
+            .withDelayDuration(10, ChronoUnit.MILLIS)
+            .withFixedBackoff()
+            .recordMetrics(metrics)
+            .build();
+
+        AtomicInteger calls = new AtomicInteger();
+        Retry.runSync(config, "query", () -> {
+            if (calls.incrementAndGet() < 2) {
+                throw new IOException("unavailable");
+            }
+            return "done";
+        });
+        try {
+            Retry.runSync(config, "query", () -> {
+                throw new IOException("unavailable");
+            });
+            fail("Expected RetryTiredException but one wasn't thrown!");
+        } catch (RetryTiredException ignored) {
+        }
+        try {
+            Retry.runSync(config, "query", () -> {
+                throw new IllegalStateException("broken");
+            });
+            fail("Expected RetryEscapedException but one wasn't thrown!");
+        } catch (RetryEscapedException ignored) {
+        }
+
+        RetryMetrics.Snapshot snapshot = metrics.snapshot("query");
+        assertThat(snapshot.getCalls()).isEqualTo(3);
+        assertThat(snapshot.getCallsOfAttempts(1)).isEqualTo(1);
+        assertThat(snapshot.getCallsOfAttempts(2)).isEqualTo(1);
+        assertThat(snapshot.getCallsOfAttempts(3)).isEqualTo(1);
+        assertThat(snapshot.getExhausted()).isEqualTo(1);
+        assertThat(snapshot.getEscaped()).isEqualTo(1);
+        assertThat(snapshot.getSucced()).isEqualTo(1);
+        assertThat(snapshot.getTotalBackoff().toMillis()).isGreaterThanOrEqualTo(30);
+        assertThat(metrics.snapshots()).containsOnlyKeys("query");
+    }
+
+    @Test
+    public void verifyRecordingOfRetryRunner() throws Exception {
+        RetryMetrics metrics = new RetryMetrics();
+        RetryRunner runner = new RetryRunner()
+            .upon(IOException.class, RetryDelay.ofMillis(1).withBackoff(1, 2))
+            .recordMetrics(metrics, "fetch");
+
+        AtomicInteger calls = new AtomicInteger();
+        assertThat(runner.retryBlockingly(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new IOException("unavailable");
+            }
+            return "done";
+        })).isEqualTo("done");
+        try {
+            runner.retryBlockingly(() -> {
+                throw new IOException("unavailable");
+            });
+            fail("Expected IOException but one wasn't thrown!");
+        } catch (IOException ignored) {
+        }
+
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            CompletableFuture<String> future = runner.<String>retryAsync(
+                () -> {
+                    CompletableFuture<String> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(new IllegalStateException("broken"));
+                    return failed;
+                }, executor).toCompletableFuture();
+            try {
+                future.get(1, TimeUnit.SECONDS);
+                fail("Expected ExecutionException but one wasn't thrown!");
+            } catch (ExecutionException ignored) {
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        RetryMetrics.Snapshot snapshot = metrics.snapshot("fetch");
+        assertThat(snapshot.getCalls()).isEqualTo(3);
+        assertThat(snapshot.getCallsOfAttempts(1)).isEqualTo(1);
+        assertThat(snapshot.getCallsOfAttempts(3)).isEqualTo(2);
+        assertThat(snapshot.getExhausted()).isEqualTo(1);
+        assertThat(snapshot.getEscaped()).isEqualTo(1);
+        assertThat(snapshot.getSucced()).isEqualTo(1);
+    }
+
+    @Test
+    public void verifyRetryRunnerRecordsWaitedBackoffOnce() throws Exception {
+        RetryMetrics metrics = new RetryMetrics();
+        RetryRunner runner = new RetryRunner()
+            .upon(IOException.class, RetryDelay.ofMillis(20).withBackoff(1, 2))
+            .recordMetrics(metrics, "async");
+
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            CompletableFuture<String> exhausted = runner.<String>retry(() -> {
+                throw new IOException("unavailable");
+            }, executor).toCompletableFuture();
+            try {
+                exhausted.get(1, TimeUnit.SECONDS);
+                fail("Expected ExecutionException but one wasn't thrown!");
+            } catch (ExecutionException ignored) {
+            }
+
+            CompletableFuture<String> cancelled = runner.<String>retry(() -> {
+                throw new IOException("unavailable");
+            }, executor).toCompletableFuture();
+            cancelled.cancel(true);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long deadline = System.currentTimeMillis() + 1000;
+        while (metrics.snapshot("async").getCalls() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        RetryMetrics.Snapshot snapshot = metrics.snapshot("async");
+        assertThat(snapshot.getCalls()).isEqualTo(2);
+        assertThat(snapshot.getExhausted()).isEqualTo(1);
+        assertThat(snapshot.getEscaped()).isEqualTo(1);
+        assertThat(snapshot.getTotalBackoff().toMillis()).isGreaterThanOrEqualTo(40);
+    }
+
+    @Test
+    public void verifyAttemptsBeyondTrackedAreBucketedTogether() {
+        RetryMetrics metrics = new RetryMetrics();
+        metrics.record(null, RetryMetrics.MAX_TRACKED_ATTEMPTS + 5, 0, true, false);
+
+        assertThat(metrics.snapshot(RetryMetrics.DEFAULT_OPERATION).getCallsOfAttempts(RetryMetrics.MAX_TRACKED_ATTEMPTS)).isEqualTo(1);
+        assertThat(metrics.snapshot("unknown").getCalls()).isZero();
+    }
+}
@@ -0,0 +1,112 @@
+package com.infilos.retry.execute;
+
+import com.infilos.api.Result;
+import com.infilos.retry.*;
+import com.infilos.retry.exception.RetryEscapedException;
+import com.infilos.retry.exception.RetryTiredException;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class BatchExecutorTest {
+
+    private final RetryConfig<String> retryConfig = Retry.config(String.class)
+        .retryOnError(IOException.class)
+        .withMaxAttempts(3)
+        .withDelayDuration(0, ChronoUnit.MILLIS)
+        .withFixedBackoff()
+        .build();
+
+    @Test
+    public void verifyOnlyFailedItemsAreResubmitted() {
+        List<List<Integer>> submitted = new ArrayList<>();
+        Set<Integer> failedOnce = new HashSet<>();
+
+        RetryBatchStatus<Integer, String> status = Retry.runBatch(retryConfig, Arrays.asList(1, 2, 3, 4, 5), items -> {
+            submitted.add(items);
+            return items.stream()
+                .map(item -> item % 2 == 0 && failedOnce.add(item) ?
+                    Result.<String, Exception>failed(new IOException("failed " + item)) :
+                    Result.succed("done " + item))
+                .collect(Collectors.toList());
+        });
+
+        assertThat(status.hasSucced()).isTrue();
+        assertThat(status.getTotalTries()).isEqualTo(2);
+        assertThat(status.getTotalSubmitted()).isEqualTo(7);
+        assertThat(status.getFailedItems()).isEmpty();
+        assertThat(submitted).containsExactly(Arrays.asList(1, 2, 3, 4, 5), Arrays.asList(2, 4));
+        assertThat(status.getResult().stream().map(Result::get).collect(Collectors.toList()))
+            .containsExactly("done 1", "done 2", "done 3", "done 4", "done 5");
+    }
+
+    @Test
+    public void verifyExhaustedItemsAreReportedInOrder() {
+        try {
+            Retry.runBatch(retryConfig, Arrays.asList("a", "b", "c"), items -> items.stream()
+                .map(item -> "b".equals(item) ?
+                    Result.<String, Exception>failed(new IOException("failed " + item)) :
+                    Result.succed(item))
+                .collect(Collectors.toList()));
+            fail("Expected RetryTiredException but one wasn't thrown!");
+        } catch (RetryTiredException e) {
+            RetryBatchStatus<String, String> status = e.getBatchStatus();
+
+            assertThat(status.hasSucced()).isFalse();
+            assertThat(status.getTotalTries()).isEqualTo(3);
+            assertThat(status.getTotalSubmitted()).isEqualTo(5);
+            assertThat(status.getFailedItems()).containsExactly("b");
+            assertThat(status.getResult().get(0).get()).isEqualTo("a");
+            assertThat(status.getResult().get(1).isFailed()).isTrue();
+            assertThat(status.getResult().get(2).get()).isEqualTo("c");
+        }
+    }
+
+    @Test
+    public void verifyUnexpectedItemErrorIsNotRetried() {
+        List<List<String>> submitted = new ArrayList<>();
+        try {
+            Retry.runBatch(retryConfig, Arrays.asList("a", "b"), items -> {
+                submitted.add(items);
+                return items.stream()
+                    .map(item -> "b".equals(item) ?
+                        Result.<String, Exception>failed(new IllegalStateException("failed " + item)) :
+                        Result.succed(item))
+                    .collect(Collectors.toList());
+            });
+            fail("Expected RetryTiredException but one wasn't thrown!");
+        } catch (RetryTiredException e) {
+            assertThat(submitted).hasSize(1);
+            assertThat(e.<String, String>getBatchStatus().getFailedItems()).containsExactly("b");
+        }
+    }
+
+    @Test
+    public void verifyWholeCallErrorRetriesAllPendingItems() {
+        List<List<String>> submitted = new ArrayList<>();
+
+        RetryBatchStatus<String, String> status = Retry.runBatch(retryConfig, Arrays.asList("a", "b"), items -> {
+            submitted.add(items);
+            if (submitted.size() == 1) {
+                throw new IOException("unavailable");
+            }
+            return items.stream().map(Result::succed).collect(Collectors.toList());
+        });
+
+        assertThat(status.hasSucced()).isTrue();
+        assertThat(submitted).containsExactly(Arrays.asList("a", "b"), Arrays.asList("a", "b"));
+    }
+
+    @Test(expectedExceptions = {RetryEscapedException.class})
+    public void verifyUnexpectedWholeCallErrorEscapes() {
+        Retry.runBatch(retryConfig, Arrays.asList("a", "b"), items -> {
+            throw new IllegalStateException("broken");
+        });
+    }
+}
@@ -298,6 +298,7 @@ public class SyncExecutorTest {
         };
 
         Duration delayBetweenTriesDuration = Duration.ofSeconds(17);
+        when(mockBackOffStrategy.forExecution()).thenReturn(mockBackOffStrategy);
         when(mockBackOffStrategy.nextDelayToWait(1, delayBetweenTriesDuration,null, error)).thenReturn(Duration.ofSeconds(5));
 
         RetryConfig<Object> retryConfig = Retry.config()
@@ -330,5 +331,64 @@ public class SyncExecutorTest {
 
         assertThat(status.getResult()).isEqualTo("test");
     }
-}
 
+    @Test
+    public void verifyMaxDurationStopsBeforeDelayPassesDeadline() {
+        Callable<Boolean> callable = () -> {
+            throw new RuntimeException();
+        };
+
+        RetryConfig<Boolean> retryConfig = retryConfigBuilder
+            .retryOnAnyError()
+            .withMaxAttempts(10)
+            .withMaxDuration(Duration.ofMillis(250))
+            .withDelayDuration(100, ChronoUnit.MILLIS)
+            .withFixedBackoff()
+            .build();
+
+        final long before = System.currentTimeMillis();
+        try {
+            Retry.runSync(retryConfig, callable);
+            fail("Expected RetryTiredException but one wasn't thrown!");
+        } catch (RetryTiredException e) {
+            assertThat(e.getStatus().getTotalTries()).isEqualTo(3);
+            assertThat(e.getMessage()).contains("exceeded max duration");
+        }
+
+        assertThat(System.currentTimeMillis() - before).isLessThan(250);
+    }
+
+    @Test
+    public void verifyInterruptStopsPendingDelay() throws Exception {
+        Callable<Boolean> callable = () -> {
+            throw new RuntimeException();
+        };
+
+        RetryConfig<Boolean> retryConfig = retryConfigBuilder
+            .retryOnAnyError()
+            .withMaxAttempts(3)
+            .withDelayDuration(10, ChronoUnit.SECONDS)
+            .withFixedBackoff()
+            .build();
+
+        final long before = System.currentTimeMillis();
+        Thread current = Thread.currentThread();
+        Thread interrupter = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+            }
+            current.interrupt();
+        });
+        interrupter.start();
+        try {
+            Retry.runSync(retryConfig, callable);
+            fail("Expected RetryTiredException but one wasn't thrown!");
+        } catch (RetryTiredException e) {
+            assertThat(e.getStatus().getTotalTries()).isEqualTo(1);
+            assertThat(Thread.interrupted()).isTrue();
+        }
+
+        assertThat(System.currentTimeMillis() - before).isLessThan(5000);
+    }
+}
@@ -0,0 +1,125 @@
+package com.infilos.utils;
+
+import com.infilos.utils.io.FileTreeEntry;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileHelperTest {
+
+    private static ExecutorService executor;
+
+    @BeforeClass
+    public static void setup() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void splitAndMergeBySizeInParallel() throws IOException {
+        byte[] content = new byte[1_000_001];
+        new Random(3).nextBytes(content);
+        File temporary = FileHelper.createTemporary("bytes.bin");
+        Files.write(temporary.toPath(), content);
+
+        List<File> parts = FileHelper.splitTemporaryBySize(temporary, 100_000, executor);
+        assertThat(parts).hasSize(11);
+        assertThat(parts.get(10).length()).isEqualTo(1);
+        assertThat(Files.readAllBytes(parts.get(0).toPath())).isEqualTo(java.util.Arrays.copyOf(content, 100_000));
+
+        File merged = FileHelper.mergeTemporary("merged.bin", parts, executor);
+        assertThat(Files.readAllBytes(merged.toPath())).isEqualTo(content);
+    }
+
+    @Test
+    public void splitByLinesKeepsLinesWhole() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        Random random = new Random(9);
+        for (int line = 0; line < 5_000; line++) {
+            builder.append("line-").append(line).append('-');
+            for (int width = random.nextInt(line == 2_000 ? 3_000 : 60); width > 0; width--) {
+                builder.append('x');
+            }
+            builder.append('\n');
+        }
+        builder.append("last line without newline");
+        String content = builder.toString();
+        File temporary = FileHelper.createTemporary("lines.txt");
+        Files.write(temporary.toPath(), content.getBytes(StandardCharsets.UTF_8));
+
+        List<File> parts = FileHelper.splitTemporaryByLines(temporary, 1_000, executor);
+        StringBuilder joined = new StringBuilder();
+        for (int index = 0; index < parts.size(); index++) {
+            String part = new String(Files.readAllBytes(parts.get(index).toPath()), StandardCharsets.UTF_8);
+            assertThat(part).startsWith(index == 0 ? "line-0-" : "line-");
+            if (index < parts.size() - 1) {
+                assertThat(part).endsWith("\n");
+                assertThat(part.length() <= 1_000 || part.indexOf('\n') == part.length() - 1).isTrue();
+            }
+            joined.append(part);
+        }
+        assertThat(joined.toString()).isEqualTo(content);
+
+        File merged = FileHelper.mergeTemporary("lines-merged.txt", parts, executor);
+        assertThat(new String(Files.readAllBytes(merged.toPath()), StandardCharsets.UTF_8)).isEqualTo(content);
+    }
+
+    @Test
+    public void streamFilesLazilyInParallel() throws IOException {
+        Path root = Files.createTempDirectory("walk");
+        try {
+            for (int dir = 0; dir < 8; dir++) {
+                Path nested = Files.createDirectories(root.resolve("dir" + dir).resolve("nested"));
+                for (int file = 0; file < 50; file++) {
+                    Files.write(nested.resolve("file" + file + ".txt"), new byte[file]);
+                    Files.write(nested.getParent().resolve("file" + file + ".log"), new byte[file]);
+                }
+            }
+            Files.write(root.resolve("top.txt"), new byte[]{1});
+
+            Set<String> expected = FileHelper.loopFiles(root.toFile(), null).stream()
+                .map(File::getPath).collect(Collectors.toSet());
+            try (Stream<Path> files = FileHelper.streamFiles(root.toFile(), -1, null)) {
+                assertThat(files.parallel().map(Path::toString).collect(Collectors.toSet())).isEqualTo(expected).hasSize(801);
+            }
+            try (Stream<Path> files = PathHelper.streamFiles(root, 2, file -> file.getName().endsWith(".log"))) {
+                assertThat(files.parallel().count()).isEqualTo(400);
+            }
+            try (Stream<Path> files = PathHelper.streamFiles(root, 1, null)) {
+                assertThat(files.map(Path::toFile).collect(Collectors.toSet()))
+                    .isEqualTo(new HashSet<>(FileHelper.loopFiles(root.toFile(), 1, null))).hasSize(9)
+                    .contains(root.resolve("top.txt").toFile(), root.resolve("dir0").toFile());
+            }
+            try (Stream<FileTreeEntry> entries = PathHelper.streamFileEntries(root, -1, null)) {
+                assertThat(entries.parallel().mapToLong(entry -> entry.attributes().size()).sum())
+                    .isEqualTo(8 * 2 * (49 * 50 / 2) + 1);
+            }
+            try (Stream<Path> files = PathHelper.streamFiles(root, -1, null)) {
+                assertThat(files.findFirst()).isPresent();
+            }
+            assertThat(PathHelper.streamFiles(root.resolve("absent"), -1, null).count()).isZero();
+        } finally {
+            PathHelper.del(root);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.infilos.utils;
+
+import com.infilos.utils.io.StreamProgress;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IOStreamsTest {
+
+    private static Path dir;
+    private static byte[] content;
+    private static Path source;
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        dir = Files.createTempDirectory("iostreams");
+        content = new byte[300_000];
+        new Random(7).nextBytes(content);
+        source = dir.resolve("source.bin");
+        Files.write(source, content);
+    }
+
+    @AfterClass
+    public static void cleanup() throws IOException {
+        try (java.util.stream.Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    public void copyFileStreamsFromCurrentPosition() throws IOException {
+        Path target = dir.resolve("positioned.bin");
+        try (FileInputStream in = new FileInputStream(source.toFile());
+             FileOutputStream out = new FileOutputStream(target.toFile())) {
+            assertThat(in.skip(1000)).isEqualTo(1000);
+            out.write(new byte[]{1, 2, 3});
+
+            assertThat(IOStreams.copy(in, out, 0, null)).isEqualTo(content.length - 1000);
+            assertThat(in.read()).isEqualTo(-1);
+            out.write(4);
+        }
+
+        byte[] copied = Files.readAllBytes(target);
+        assertThat(copied).hasSize(content.length - 1000 + 4);
+        assertThat(copied[0]).isEqualTo((byte) 1);
+        assertThat(copied[copied.length - 1]).isEqualTo((byte) 4);
+        for (int index = 3; index < copied.length - 1; index++) {
+            assertThat(copied[index]).isEqualTo(content[index - 3 + 1000]);
+        }
+    }
+
+    @Test
+    public void copyPathToPathAndStreams() throws IOException {
+        Path target = dir.resolve("path.bin");
+        Files.write(target, new byte[content.length * 2]);
+        assertThat(IOStreams.copy(source, target, null)).isEqualTo(content.length);
+        assertThat(Files.readAllBytes(target)).isEqualTo(content);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(IOStreams.copy(source, out, null)).isEqualTo(content.length);
+        assertThat(out.toByteArray()).isEqualTo(content);
+
+        Path fromStream = dir.resolve("stream.bin");
+        assertThat(IOStreams.copy(new ByteArrayInputStream(content), fromStream, null)).isEqualTo(content.length);
+        assertThat(Files.readAllBytes(fromStream)).isEqualTo(content);
+    }
+
+    @Test
+    public void copyWithNioReportsProgressPerBuffer() {
+        CountingProgress progress = new CountingProgress();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(IOStreams.copyWithNio(new ByteArrayInputStream(content), out, 1024, progress)).isEqualTo(content.length);
+        assertThat(out.toByteArray()).isEqualTo(content);
+        assertThat(progress.started).isTrue();
+        assertThat(progress.finished).isTrue();
+        assertThat(progress.last.get()).isEqualTo(content.length);
+        assertThat(progress.calls.get()).isGreaterThanOrEqualTo(content.length / 1024);
+    }
+
+    @Test
+    public void copyFileReportsProgressPerChunk() throws IOException {
+        CountingProgress progress = new CountingProgress();
+        Path target = dir.resolve("progress.bin");
+        try (FileInputStream in = new FileInputStream(source.toFile());
+             FileOutputStream out = new FileOutputStream(target.toFile())) {
+            assertThat(IOStreams.copy(in, out, 1024, progress)).isEqualTo(content.length);
+        }
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(content);
+        assertThat(progress.calls.get()).isEqualTo(1);
+        assertThat(progress.last.get()).isEqualTo(content.length);
+    }
+
+    @Test
+    public void copyFileWithoutSizeUntilEnd() throws IOException {
+        Path status = Paths.get("/proc/self/status");
+        Assume.assumeTrue(Files.isReadable(status));
+
+        Path target = dir.resolve("status.txt");
+        try (FileInputStream in = new FileInputStream(status.toFile());
+             FileOutputStream out = new FileOutputStream(target.toFile())) {
+            assertThat(IOStreams.copy(in, out, 0, null)).isPositive().isEqualTo(Files.size(target));
+        }
+        assertThat(new String(Files.readAllBytes(target), Charsets.UTF_8)).startsWith("Name:");
+    }
+
+    @Test
+    public void copyWithNioThroughOversizedBuffer() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(IOStreams.copyWithNio(new ByteArrayInputStream(content), out, 256 * 1024, null)).isEqualTo(content.length);
+        assertThat(out.toByteArray()).isEqualTo(content);
+    }
+
+    private static final class CountingProgress implements StreamProgress {
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong last = new AtomicLong();
+        private boolean started;
+        private boolean finished;
+
+        @Override
+        public void start() {
+            started = true;
+        }
+
+        @Override
+        public void progress(long progressSize) {
+            calls.incrementAndGet();
+            last.set(progressSize);
+        }
+
+        @Override
+        public void finish() {
+            finished = true;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.infilos.utils.io;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class AsyncFileAppenderTest {
+
+    private Path directory;
+
+    @Before
+    public void before() throws IOException {
+        this.directory = Files.createTempDirectory("async-appender");
+    }
+
+    @After
+    public void after() throws IOException {
+        try (java.util.stream.Stream<Path> files = Files.list(this.directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(this.directory);
+    }
+
+    @Test
+    public void appendsFromManyThreads() throws Exception {
+        File file = this.directory.resolve("audit.log").toFile();
+        ExecutorService producers = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(4);
+
+        try (AsyncFileAppender appender = AsyncFileAppender.builder(file).capacity(128).lineSeparator(LineSeparator.Unix)
+            .syncWithin(Duration.ofMillis(5)).build()) {
+            for (int producer = 0; producer < 4; producer++) {
+                int id = producer;
+                producers.execute(() -> {
+                    for (int index = 0; index < 5_000; index++) {
+                        appender.append(id + ":" + index);
+                    }
+                    done.countDown();
+                });
+            }
+            assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+            appender.flush();
+            assertThat(appender.written()).isEqualTo(20_000);
+            assertThat(appender.dropped()).isZero();
+        } finally {
+            producers.shutdown();
+        }
+
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertThat(lines).hasSize(20_000);
+        Set<String> distinct = new TreeSet<>(lines);
+        assertThat(distinct).hasSize(20_000).contains("0:0", "3:4999");
+    }
+
+    @Test
+    public void dropsWhenFullAndRejectsAfterClose() throws Exception {
+        File file = this.directory.resolve("drop.log").toFile();
+        AsyncFileAppender appender = AsyncFileAppender.builder(file).capacity(2).newLineMode(false)
+            .onOverflow(AsyncFileAppender.OverflowPolicy.DROP).build();
+        long accepted = 0;
+        for (int index = 0; index < 10_000; index++) {
+            if (appender.append("x")) {
+                accepted++;
+            }
+        }
+        appender.close();
+
+        assertThat(accepted + appender.dropped()).isEqualTo(10_000);
+        assertThat(Files.size(file.toPath())).isEqualTo(accepted);
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> appender.append("late"));
+    }
+}
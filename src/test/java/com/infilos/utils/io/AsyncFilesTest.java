@@ -0,0 +1,132 @@
+package com.infilos.utils.io;
+
+import com.infilos.utils.FileHelper;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class AsyncFilesTest {
+
+    @Test
+    public void writeAndReadThroughPooledBuffers() throws Exception {
+        byte[] content = new byte[200_001];
+        new Random(13).nextBytes(content);
+        Path file = Files.createTempFile("async", ".bin");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            AsyncFiles files = AsyncFiles.builder().executor(executor).bufferSize(4096).buffers(2).build();
+
+            ByteBuffer heap = ByteBuffer.wrap(content);
+            assertThat(files.write(file, heap).get(5, TimeUnit.SECONDS)).isEqualTo(content.length);
+            assertThat(heap.position()).isZero();
+            assertThat(Files.readAllBytes(file)).isEqualTo(content);
+
+            assertThat(files.readBytes(file).get(5, TimeUnit.SECONDS)).isEqualTo(content);
+            assertThat(files.read(file, 100_000, 5_000).get(5, TimeUnit.SECONDS))
+                .isEqualTo(Arrays.copyOfRange(content, 100_000, 105_000));
+            assertThat(files.read(file, 200_000, 10).get(5, TimeUnit.SECONDS)).containsExactly(content[200_000]);
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(3);
+            direct.put(new byte[]{7, 8, 9}).flip();
+            assertThat(files.write(file, direct, 1).get(5, TimeUnit.SECONDS)).isEqualTo(3);
+            assertThat(files.read(file, 0, 5).get(5, TimeUnit.SECONDS)).containsExactly(content[0], 7, 8, 9, content[4]);
+        } finally {
+            executor.shutdownNow();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void fileHelperDelegatesToSharedInstance() throws Exception {
+        Path file = Files.createTempFile("async", ".txt");
+        try {
+            assertThat(FileHelper.writeAsync(file, ByteBuffer.wrap("hello async".getBytes())).get(5, TimeUnit.SECONDS)).isEqualTo(11);
+            assertThat(new String(FileHelper.readBytesAsync(file).get(5, TimeUnit.SECONDS))).isEqualTo("hello async");
+            assertThat(new String(FileHelper.readAsync(file, 6, 5).get(5, TimeUnit.SECONDS))).isEqualTo("async");
+            assertThat(FileHelper.writeAsync(file, ByteBuffer.allocate(0)).get(5, TimeUnit.SECONDS)).isZero();
+            assertThat(FileHelper.readBytesAsync(file).get(5, TimeUnit.SECONDS)).isEmpty();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        try {
+            FileHelper.readBytesAsync(file).get(5, TimeUnit.SECONDS);
+            fail("Expected ExecutionException but one wasn't thrown!");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(NoSuchFileException.class);
+        }
+    }
+
+    @Test
+    public void rejectedOperationFailsFuture() throws Exception {
+        Path file = Files.createTempFile("async", ".bin");
+        ExecutorService executor = new AbstractExecutorService() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException("rejected");
+            }
+
+            @Override
+            public void shutdown() {
+            }
+
+            @Override
+            public List<Runnable> shutdownNow() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public boolean isShutdown() {
+                return false;
+            }
+
+            @Override
+            public boolean isTerminated() {
+                return false;
+            }
+
+            @Override
+            public boolean awaitTermination(long timeout, TimeUnit unit) {
+                return false;
+            }
+        };
+        try {
+            AsyncFiles files = AsyncFiles.builder().executor(executor).buffers(1).build();
+            Files.write(file, new byte[]{1, 2, 3});
+
+            for (int round = 0; round < 2; round++) {
+                try {
+                    files.readBytes(file).get(5, TimeUnit.SECONDS);
+                    fail("Expected ExecutionException but one wasn't thrown!");
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(RejectedExecutionException.class);
+                }
+                try {
+                    files.write(file, ByteBuffer.wrap(new byte[]{4}), 1).get(5, TimeUnit.SECONDS);
+                    fail("Expected ExecutionException but one wasn't thrown!");
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(RejectedExecutionException.class);
+                }
+            }
+            assertThat(Files.readAllBytes(file)).containsExactly(1, 2, 3);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.infilos.utils.io;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FastByteArrayOutputStreamTest {
+
+    @Test
+    public void pooledChunksAreGivenBackOnClose() {
+        ByteChunkPool pool = new ByteChunkPool(16, 8);
+        byte[] content = bytes(100);
+
+        try (FastByteArrayOutputStream out = new FastByteArrayOutputStream(pool)) {
+            out.write(content, 0, 40);
+            out.write(content[40]);
+            out.write(content, 41, 59);
+
+            assertThat(out.size()).isEqualTo(100);
+            assertThat(out.toByteArray()).isEqualTo(content);
+            assertThat(out.toByteBuffers()).hasSize(7);
+            assertThat(pool.pooled()).isZero();
+        }
+        assertThat(pool.pooled()).isEqualTo(7);
+
+        FastByteBuffer buffer = new FastByteBuffer(pool);
+        buffer.append(content);
+        assertThat(pool.pooled()).isZero();
+        assertThat(buffer.toArray(30, 40)).isEqualTo(java.util.Arrays.copyOfRange(content, 30, 70));
+        assertThat(buffer.get(99)).isEqualTo(content[99]);
+        buffer.reset();
+        assertThat(pool.pooled()).isEqualTo(7);
+    }
+
+    @Test
+    public void writesViewsToChannels() throws Exception {
+        byte[] content = bytes(70_000);
+        FastByteArrayOutputStream out = new FastByteArrayOutputStream(ByteChunkPool.shared());
+        out.write(content, 0, content.length);
+
+        int viewed = 0;
+        for (ByteBuffer view : out.toByteBuffers()) {
+            viewed += view.remaining();
+        }
+        assertThat(viewed).isEqualTo(content.length);
+
+        Path file = Files.createTempFile("fast", ".bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            assertThat(out.writeTo(channel)).isEqualTo(content.length);
+        }
+        assertThat(Files.readAllBytes(file)).isEqualTo(content);
+        Files.delete(file);
+
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        assertThat(out.writeTo(Channels.newChannel(target))).isEqualTo(content.length);
+        assertThat(target.toByteArray()).isEqualTo(content);
+        out.close();
+    }
+
+    @Test
+    public void emptyStreamWritesNothing() {
+        FastByteArrayOutputStream out = new FastByteArrayOutputStream();
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+        out.writeTo(target);
+        assertThat(out.writeTo(Channels.newChannel(target))).isZero();
+        assertThat(out.toByteBuffers()).isEmpty();
+        assertThat(target.size()).isZero();
+    }
+
+    private static byte[] bytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(5).nextBytes(bytes);
+        return bytes;
+    }
+}
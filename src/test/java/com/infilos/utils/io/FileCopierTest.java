@@ -0,0 +1,189 @@
+package com.infilos.utils.io;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileCopierTest {
+
+    private Path root;
+    private Path source;
+    private byte[] large;
+
+    @Before
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("copier");
+        source = root.resolve("source");
+        for (int dir = 0; dir < 5; dir++) {
+            Path sub = Files.createDirectories(source.resolve("dir" + dir).resolve("nested"));
+            for (int file = 0; file < 20; file++) {
+                Files.write(sub.resolve("file" + file + ".txt"), ("content " + dir + "/" + file).getBytes());
+                Files.write(sub.getParent().resolve("file" + file + ".log"), ("log " + dir + "/" + file).getBytes());
+            }
+        }
+        large = new byte[1_000_003];
+        new Random(11).nextBytes(large);
+        Files.write(source.resolve("large.bin"), large);
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void parallelCopyMatchesSequentialCopy() throws IOException {
+        Path sequential = root.resolve("sequential");
+        Path parallel = root.resolve("parallel");
+        AtomicLong reported = new AtomicLong();
+
+        FileCopier.create(source.toFile(), sequential.toFile()).setCopyContentIfDir(true).copy();
+        FileCopier.create(source.toFile(), parallel.toFile())
+            .setCopyContentIfDir(true)
+            .setParallelism(4)
+            .setChunkSize(100_000)
+            .setCopyAttributes(true)
+            .setProgress(new MaxProgress(reported))
+            .copy();
+
+        assertThat(tree(parallel)).isEqualTo(tree(sequential)).hasSize(5 * 40 + 1);
+        assertThat(Files.readAllBytes(parallel.resolve("large.bin"))).isEqualTo(large);
+        assertThat(Files.getLastModifiedTime(parallel.resolve("large.bin")))
+            .isEqualTo(Files.getLastModifiedTime(source.resolve("large.bin")));
+        assertThat(reported.get()).isEqualTo(sizeOf(source));
+    }
+
+    @Test
+    public void chunkedCopyKeepsPermissions() throws IOException {
+        Path large = source.resolve("large.bin");
+        Assume.assumeNotNull(Files.getFileAttributeView(large, PosixFileAttributeView.class));
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rwx--x---");
+        Files.setPosixFilePermissions(large, permissions);
+        Path target = root.resolve("chunked.bin");
+
+        FileCopier.create(large.toFile(), target.toFile()).setParallelism(4).setChunkSize(100_000).copy();
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(this.large);
+        assertThat(Files.getPosixFilePermissions(target)).isEqualTo(permissions);
+    }
+
+    @Test
+    public void parallelOnlyCopyFileKeepsOneWholeFile() throws IOException {
+        byte[] other = new byte[large.length];
+        new Random(13).nextBytes(other);
+        for (int dir = 0; dir < 5; dir++) {
+            Files.write(source.resolve("dir" + dir).resolve("large.bin"), other);
+        }
+        Path target = root.resolve("flat");
+
+        FileCopier.create(source.toFile(), target.toFile())
+            .setCopyContentIfDir(true)
+            .setOnlyCopyFile(true)
+            .setOverride(true)
+            .setParallelism(4)
+            .setChunkSize(10_000)
+            .copy();
+
+        assertThat(Files.readAllBytes(target.resolve("large.bin"))).isIn(large, other);
+    }
+
+    @Test
+    public void parallelCopyKeepsFilterAndOverride() throws IOException {
+        Path target = root.resolve("target");
+        Files.createDirectories(target.resolve("dir0"));
+        Files.write(target.resolve("dir0").resolve("file0.log"), "kept".getBytes());
+
+        FileCopier.create(source.toFile(), target.toFile())
+            .setCopyContentIfDir(true)
+            .setParallelism(3)
+            .setCopyFilter(file -> file.isDirectory() || file.getName().endsWith(".log"))
+            .copy();
+
+        assertThat(tree(target)).hasSize(5 * 20).allMatch(name -> name.endsWith(".log"));
+        assertThat(new String(Files.readAllBytes(target.resolve("dir0").resolve("file0.log")))).isEqualTo("kept");
+
+        FileCopier.create(source.toFile(), target.toFile())
+            .setCopyContentIfDir(true)
+            .setParallelism(3)
+            .setOverride(true)
+            .copy();
+        assertThat(new String(Files.readAllBytes(target.resolve("dir0").resolve("file0.log")))).isEqualTo("log 0/0");
+    }
+
+    @Test
+    public void parallelMoveDeletesCopiedSources() throws IOException {
+        Path target = root.resolve("moved");
+        Files.createDirectories(target.resolve("source").resolve("dir1"));
+        Files.write(target.resolve("source").resolve("dir1").resolve("file1.log"), "kept".getBytes());
+
+        FileCopier.create(source.toFile(), target.toFile()).setParallelism(4).setChunkSize(100_000).move();
+
+        assertThat(tree(target.resolve("source"))).hasSize(5 * 40 + 1);
+        assertThat(Files.readAllBytes(target.resolve("source").resolve("large.bin"))).isEqualTo(large);
+        assertThat(tree(source)).containsExactly("dir1/file1.log");
+    }
+
+    @Test
+    public void moveRenamesWhenTargetIsAbsent() throws IOException {
+        Path target = root.resolve("renamed");
+
+        FileCopier.create(source.toFile(), target.toFile()).setCopyContentIfDir(true).move();
+
+        assertThat(Files.exists(source)).isFalse();
+        assertThat(tree(target)).hasSize(5 * 40 + 1);
+    }
+
+    private static java.util.List<String> tree(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile)
+                .map(path -> dir.relativize(path).toString().replace(File.separatorChar, '/'))
+                .sorted()
+                .collect(java.util.stream.Collectors.toList());
+        }
+    }
+
+    private static long sizeOf(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        }
+    }
+
+    private static final class MaxProgress implements StreamProgress {
+        private final AtomicLong reported;
+
+        private MaxProgress(AtomicLong reported) {
+            this.reported = reported;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void progress(long byteSize) {
+            reported.accumulateAndGet(byteSize, Math::max);
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.infilos.utils.io;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileTailerTest {
+
+    private Path dir;
+    private Path log;
+
+    @Before
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("tailer");
+        log = dir.resolve("app.log");
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void followsAppendedLinesFromEnd() throws Exception {
+        append(log, "before start\n");
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+
+        try (FileTailer tailer = FileTailer.builder(log).batchSize(3).pollInterval(Duration.ofMillis(50))
+            .start(batch -> {
+                batches.add(batch.size());
+                lines.addAll(batch);
+            })) {
+            await(tailer::isRunning);
+            Thread.sleep(100);
+            append(log, "one\r\ntwo\nthree\nfour\nfive\nsix\nseven\npartial");
+            await(() -> lines.size() == 7);
+            append(log, " line\n");
+            await(() -> lines.size() == 8);
+
+            assertThat(lines).containsExactly("one", "two", "three", "four", "five", "six", "seven", "partial line");
+            assertThat(batches).allMatch(size -> size <= 3);
+            assertThat(tailer.lines()).isEqualTo(8);
+        }
+    }
+
+    @Test
+    public void followsRotationAndTruncationByPolling() throws Exception {
+        append(log, "old 1\n");
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+
+        try (FileTailer tailer = FileTailer.builder(log).fromEnd(false).watching(false).pollInterval(Duration.ofMillis(20))
+            .start(lines::addAll)) {
+            assertThat(tailer.isWatching()).isFalse();
+            await(() -> lines.size() == 1);
+
+            append(log, "old 2\n");
+            Files.move(log, dir.resolve("app.log.1"));
+            append(log, "new 1\n");
+            await(() -> lines.size() == 3);
+            assertThat(lines).containsExactly("old 1", "old 2", "new 1");
+            assertThat(tailer.rotations()).isEqualTo(1);
+
+            Files.write(log, new byte[0], StandardOpenOption.TRUNCATE_EXISTING);
+            await(() -> tailer.rotations() == 2);
+            append(log, "after truncate\n");
+            await(() -> lines.size() == 4);
+            assertThat(lines.get(3)).isEqualTo("after truncate");
+        }
+    }
+
+    @Test
+    public void waitsForMissingFileAndStopsOnClose() throws Exception {
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        FileTailer tailer = FileTailer.builder(log).pollInterval(Duration.ofMillis(50)).start(lines::addAll);
+        Thread.sleep(100);
+        append(log, "created later\n");
+        await(() -> lines.size() == 1);
+        assertThat(lines).containsExactly("created later");
+
+        tailer.close();
+        assertThat(tailer.isRunning()).isFalse();
+    }
+
+    private static void append(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met in time");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.infilos.utils.io;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class LineCursorTest {
+
+    @Test
+    public void iteratesLinesAcrossSegments() throws IOException {
+        Path file = Files.createTempFile("line-cursor", ".log");
+        try {
+            List<String> lines = IntStream.range(0, 1_000)
+                .mapToObj(i -> i % 7 == 0 ? "" : (i % 3 == 0 ? "ERROR 错误 " : "INFO ") + i)
+                .collect(Collectors.toList());
+            Files.write(file, (String.join("\r\n", lines.subList(0, 500)) + "\n" + String.join("\n", lines.subList(500, 1_000)))
+                .getBytes(StandardCharsets.UTF_8));
+
+            List<String> read = new ArrayList<>();
+            long errors = 0;
+            try (LineCursor cursor = new LineCursor(file, StandardCharsets.UTF_8, 64)) {
+                while (cursor.next()) {
+                    read.add(cursor.line());
+                    assertThat(cursor.lineNumber()).isEqualTo(read.size());
+                    assertThat(cursor.bytes().remaining()).isEqualTo(cursor.length());
+                    if (cursor.contains("ERROR".getBytes(StandardCharsets.UTF_8))) {
+                        errors++;
+                        assertThat(cursor.chars().toString()).startsWith("ERROR 错误");
+                        assertThat(cursor.indexOf("错误".getBytes(StandardCharsets.UTF_8))).isEqualTo(6);
+                    }
+                }
+            }
+            assertThat(read).isEqualTo(lines);
+            assertThat(errors).isEqualTo(lines.stream().filter(line -> line.startsWith("ERROR")).count());
+
+            File whole = file.toFile();
+            try (LineCursor cursor = FileReader.create(whole).openLineCursor()) {
+                assertThat(cursor.next()).isTrue();
+                assertThat(cursor.length()).isZero();
+                assertThat(cursor.next()).isTrue();
+                assertThat(cursor.chars().toString()).isEqualTo("INFO 1");
+                assertThat(cursor.offset()).isEqualTo(2);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void rejectsLineLongerThanSegment() throws IOException {
+        Path file = Files.createTempFile("line-cursor", ".log");
+        try {
+            Files.write(file, "short\nthis line is longer than the segment\nend\n".getBytes(StandardCharsets.UTF_8));
+
+            try (LineCursor cursor = new LineCursor(file, StandardCharsets.UTF_8, 16)) {
+                assertThat(cursor.next()).isTrue();
+                assertThatExceptionOfType(IORuntimeException.class).isThrownBy(cursor::next).withMessageContaining(file.toString());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.infilos.utils.io;
+
+import com.infilos.utils.FileHelper;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class ReadAheadLineReaderTest {
+
+    @Test
+    public void readsAllLinesInOrder() throws IOException {
+        List<String> expected = IntStream.range(0, 10_000).mapToObj(i -> "line " + i + " é").collect(Collectors.toList());
+        File file = File.createTempFile("ahead", ".txt");
+        try {
+            Files.write(file.toPath(), expected, StandardCharsets.UTF_8);
+            try (Stream<String> lines = FileHelper.readAheadLines(file, StandardCharsets.UTF_8)) {
+                assertThat(lines.collect(Collectors.toList())).isEqualTo(expected);
+            }
+        } finally {
+            Files.delete(file.toPath());
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ReadAheadLineReader reader = ReadAheadLineReader.builder(new StringReader("a\nb\r\nc"))
+                .batchSize(2)
+                .queueDepth(1)
+                .executor(executor)
+                .build();
+            List<String> lines = new ArrayList<>();
+            reader.forEachRemaining(lines::add);
+            assertThat(lines).containsExactly("a", "b", "c");
+            assertThat(reader.hasNext()).isFalse();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void closeStopsReadingAndClosesReader() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        Reader endless = new Reader() {
+            @Override
+            public int read(char[] buffer, int offset, int length) {
+                for (int index = 0; index < length; index++) {
+                    buffer[offset + index] = index % 8 == 7 ? '\n' : 'x';
+                }
+                return length;
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            try (Stream<String> lines = ReadAheadLineReader.builder(endless).batchSize(16).queueDepth(2).executor(executor).build().stream()) {
+                assertThat(lines.limit(1_000).count()).isEqualTo(1_000);
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(closed).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void closeWhileHandingOverLastBatchStopsReading() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ReadAheadLineReader reader = ReadAheadLineReader.builder(new StringReader("a\nb\nc"))
+                .batchSize(2)
+                .queueDepth(1)
+                .executor(executor)
+                .build();
+            // the task waits to hand over [c] with [a, b] queued, then the end
+            Thread.sleep(200);
+            reader.close();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(reader.hasNext()).isFalse();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void readErrorIsThrownAfterPrecedingLines() {
+        Reader failing = new Reader() {
+            private boolean served;
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                if (served) {
+                    throw new IOException("disk failure");
+                }
+                served = true;
+                "first\nsecond\n".getChars(0, 13, buffer, offset);
+                return 13;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        ReadAheadLineReader reader = ReadAheadLineReader.builder(failing).batchSize(1).build();
+        assertThat(reader.next()).isEqualTo("first");
+        assertThat(reader.next()).isEqualTo("second");
+        try {
+            reader.hasNext();
+            fail("Expected IORuntimeException but one wasn't thrown!");
+        } catch (IORuntimeException e) {
+            assertThat(e.getCause()).hasMessage("disk failure");
+        }
+    }
+
+    @Test
+    public void readErrorOfErrorTypeEndsIteration() {
+        Reader failing = new Reader() {
+            @Override
+            public int read(char[] buffer, int offset, int length) {
+                throw new OutOfMemoryError("line too large");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        ReadAheadLineReader reader = ReadAheadLineReader.builder(failing).build();
+        try {
+            reader.hasNext();
+            fail("Expected OutOfMemoryError but one wasn't thrown!");
+        } catch (OutOfMemoryError e) {
+            assertThat(e).hasMessage("line too large");
+        }
+        assertThat(reader.hasNext()).isFalse();
+    }
+}
@@ -0,0 +1,101 @@
+package com.infilos.utils.retry;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+public class RetryPipelineTest {
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+
+    {
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    @After
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testStagesRetriedByOwnPolicy() throws Exception {
+        AtomicInteger firstCalls = new AtomicInteger();
+        AtomicInteger secondCalls = new AtomicInteger();
+
+        RetryPipeline<String, Integer> pipeline = RetryPipeline.<String>start()
+            .then(input -> {
+                if (firstCalls.incrementAndGet() < 3) throw new IOException("unavailable");
+                return CompletableFuture.completedFuture(input + "!");
+            })
+            .upon(IOException.class, RetryDelay.ofMillis(1).withBackoff(1, 3))
+            .then(input -> {
+                CompletableFuture<Integer> stage = new CompletableFuture<>();
+                if (secondCalls.incrementAndGet() < 2) stage.completeExceptionally(new IllegalStateException("busy"));
+                else stage.complete(input.length());
+                return stage;
+            })
+            .upon(IllegalStateException.class, RetryDelay.ofMillis(1).withBackoff(1, 1));
+
+        assertThat(pipeline.size()).isEqualTo(2);
+        assertThat(pipeline.run("abc", scheduler).toCompletableFuture().get(1, TimeUnit.SECONDS)).isEqualTo(4);
+        assertThat(firstCalls).hasValue(3);
+        assertThat(secondCalls).hasValue(2);
+    }
+
+    @Test
+    public void testExhaustedStageFailsWithSuppressed() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        RetryPipeline<String, String> pipeline = RetryPipeline.<String>start()
+            .<String>then(input -> {
+                throw new IOException("unavailable " + calls.incrementAndGet());
+            })
+            .upon(IOException.class, RetryDelay.ofMillis(1).withBackoff(1, 2));
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+            () -> pipeline.run("abc", scheduler).toCompletableFuture().get(1, TimeUnit.SECONDS));
+        assertThat(error.getCause()).hasMessage("unavailable 3");
+        assertThat(error.getCause().getSuppressed()).hasSize(2);
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    public void testCancelStopsPendingStageAndTimer() throws Exception {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+        RetryPipeline<String, String> pipeline = RetryPipeline.<String>start()
+            .then(input -> {
+                if (calls.incrementAndGet() == 1) throw new IOException("unavailable");
+                return pending;
+            })
+            .upon(IOException.class, RetryDelay.ofMillis(1).withBackoff(1, 1));
+
+        CompletableFuture<String> result = pipeline.run("abc", scheduler).toCompletableFuture();
+        while (calls.get() < 2) {
+            Thread.sleep(1);
+        }
+        result.cancel(true);
+        assertThat(pending).isCancelled();
+
+        RetryPipeline<String, String> delayed = RetryPipeline.<String>start()
+            .<String>then(input -> {
+                calls.incrementAndGet();
+                throw new IOException("unavailable");
+            })
+            .upon(IOException.class, RetryDelay.ofSeconds(60).withBackoff(1, 1));
+        calls.set(0);
+        delayed.run("abc", scheduler).toCompletableFuture().cancel(true);
+        assertThat(scheduler.getQueue()).isEmpty();
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    public void testUponWithoutStage() {
+        assertThrows(IllegalArgumentException.class,
+            () -> RetryPipeline.<String>start().upon(IOException.class, RetryDelay.ofMillis(1).withBackoff(1, 1)));
+    }
+}
@@ -873,6 +873,52 @@ public class RetryRunnerTest {
         assertThrows(IndexOutOfBoundsException.class, () -> ofDays(1).fibonacci(1).get(1));
     }
 
+    @Test
+    public void testDelay_scheduleComputesLongSchedules() {
+        List<RetryDelay<Object>> delays = ofDays(1).withBackoff(2, Integer.MAX_VALUE);
+        assertThat(delays.get(3)).isEqualTo(ofDays(8));
+        assertThat(delays.get(1000)).isEqualTo(RetryDelay.ofMillis(Long.MAX_VALUE));
+        assertThat(delays.size()).isEqualTo(Integer.MAX_VALUE);
+
+        DelaySchedule<?> schedule = (DelaySchedule<?>) RetryDelay.ofMillis(1).withBackoff(2, 100);
+        assertThat(schedule.nanosAt(3)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(8));
+        assertThat(schedule.nanosAt(99)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testDelay_scheduleForEventsKeepsSchedule() {
+        DelaySchedule<String> schedule = (DelaySchedule<String>) RetryDelay.<String>ofMillis(1).withBackoff(2, 3);
+        DelaySchedule<Integer> mapped = schedule.forEvents(Object::toString);
+        assertThat(mapped.get(2)).isEqualTo(schedule.get(2));
+        assertThat(mapped.nanosAt(2)).isEqualTo(schedule.nanosAt(2));
+        assertThat(mapped.events().apply(123)).isEqualTo("123");
+    }
+
+    @Test
+    public void testRetryBlockingly_scheduleExhausted() {
+        RetryRunner runner = new RetryRunner().upon(IOException.class, RetryDelay.ofMillis(1).withBackoff(1, 2));
+        IOException failure = new IOException("unavailable");
+        int[] calls = {0};
+        assertThrows(IOException.class, () -> runner.<String, IOException>retryBlockingly(() -> {
+            calls[0]++;
+            throw failure;
+        }));
+        assertThat(calls[0]).isEqualTo(3);
+    }
+
+    @Test
+    public void testRetryBlockingly_planSharedByCalls() throws Exception {
+        RetryRunner runner = new RetryRunner().upon(IOException.class, RetryDelay.ofMillis(1).withBackoff(1, 2));
+        for (int round = 0; round < 3; round++) {
+            int[] calls = {0};
+            assertThat(runner.<String, IOException>retryBlockingly(() -> {
+                if (++calls[0] < 3) throw new IOException("unavailable");
+                return "done";
+            })).isEqualTo("done");
+            assertThat(calls[0]).isEqualTo(3);
+        }
+    }
+
     @Test
     public void testDelay_randomized_invalid() {
         assertThrows(IllegalArgumentException.class, () -> ofDays(1).randomized(new Random(), -0.1));
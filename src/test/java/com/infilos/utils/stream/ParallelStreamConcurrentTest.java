@@ -0,0 +1,250 @@
+package com.infilos.utils.stream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class ParallelStreamConcurrentTest {
+
+    private final ForkJoinPool workerPool = new ForkJoinPool(2);
+
+    @After
+    public void after() throws InterruptedException {
+        this.workerPool.shutdown();
+        this.workerPool.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    private ParallelStream<Integer> range(int size) {
+        return (ParallelStream<Integer>) ParallelStream.submit(
+            IntStream.range(0, size).boxed().collect(Collectors.toList()), this.workerPool);
+    }
+
+    @Test
+    public void mapConcurrentBoundsInFlightAndKeepsOrder() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        List<Integer> result = range(50)
+            .mapConcurrent(4, i -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                return i * 2;
+            })
+            .collect(Collectors.toList());
+
+        assertThat(result).isEqualTo(IntStream.range(0, 50).map(i -> i * 2).boxed().collect(Collectors.toList()));
+        assertThat(maxInFlight.get()).isBetween(1, 4);
+    }
+
+    @Test
+    public void mapConcurrentUnorderedEmitsAll() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Integer> result = range(20)
+                .mapConcurrent(3, i -> i + 1, executor, false)
+                .collect(Collectors.toList());
+
+            assertThat(result).containsExactlyInAnyOrderElementsOf(
+                IntStream.rangeClosed(1, 20).boxed().collect(Collectors.toList()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void mapConcurrentAsyncPropagatesFailure() {
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> range(10)
+            .mapConcurrentAsync(2, i -> {
+                CompletableFuture<Integer> stage = new CompletableFuture<>();
+                if (i == 5) stage.completeExceptionally(new IllegalStateException("failed " + i));
+                else stage.complete(i);
+                return stage;
+            })
+            .collect(Collectors.toList()))
+            .withMessageContaining("failed 5");
+    }
+
+    @Test
+    public void mapConcurrentRejectsInvalidConcurrency() {
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> range(1).mapConcurrent(0, i -> i));
+    }
+
+    @Test
+    public void asyncTerminalOperationsRunInWorkerPool() throws Exception {
+        CompletableFuture<List<String>> threads = range(10)
+            .collectAsync(Collectors.mapping(i -> Thread.currentThread().getName(), Collectors.toList()));
+        CompletableFuture<Integer> sum = range(10).reduceAsync(0, Integer::sum);
+        CompletableFuture<Long> longSum = ((ParallelLongStream) ParallelLongStream.range(0, 10, this.workerPool))
+            .reduceAsync(0L, Long::sum);
+
+        assertThat(threads.get(1, TimeUnit.SECONDS)).allMatch(name -> name.contains("ForkJoinPool"));
+        assertThat(sum.get(1, TimeUnit.SECONDS)).isEqualTo(45);
+        assertThat(longSum.get(1, TimeUnit.SECONDS)).isEqualTo(45L);
+    }
+
+    @Test
+    public void cancelAsyncTerminalOperationCancelsTask() throws Exception {
+        ForkJoinPool singlePool = new ForkJoinPool(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger visited = new AtomicInteger();
+        try {
+            singlePool.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            CompletableFuture<Void> future = ((ParallelIntStream) ParallelIntStream.range(0, 10, singlePool))
+                .forEachAsync(i -> visited.incrementAndGet());
+
+            assertThat(future.cancel(true)).isTrue();
+            release.countDown();
+            singlePool.shutdown();
+            assertThat(singlePool.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+            assertThat(visited).hasValue(0);
+        } finally {
+            singlePool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void timeoutAbandonsWorkersAndKeepsPoolHealthy() {
+        AtomicInteger visited = new AtomicInteger();
+
+        assertThatExceptionOfType(StreamTimeoutException.class).isThrownBy(() ->
+            ((ParallelLongStream) ParallelLongStream.range(0, Long.MAX_VALUE, this.workerPool))
+                .withTimeout(Duration.ofMillis(50))
+                .map(i -> i + visited.incrementAndGet())
+                .sum());
+
+        int visitedAfterTimeout = visited.get();
+        assertThat(range(10).withTimeout(Duration.ofSeconds(5)).map(i -> i * 2).reduce(0, Integer::sum)).isEqualTo(90);
+        assertThat(visited.get() - visitedAfterTimeout).isLessThan(CancellableSpliterator.CHECK_INTERVAL * 4);
+    }
+
+    @Test
+    public void cancellationTokenStopsTraversal() {
+        CancellationToken token = new CancellationToken();
+        AtomicInteger visited = new AtomicInteger();
+
+        assertThatExceptionOfType(CancellationException.class).isThrownBy(() ->
+            ((ParallelIntStream) ParallelIntStream.range(0, Integer.MAX_VALUE, this.workerPool))
+                .withCancellation(token)
+                .map(i -> {
+                    if (visited.incrementAndGet() == 10_000) {
+                        token.cancel();
+                    }
+                    return i;
+                })
+                .max());
+        assertThat(token.isCancelled()).isTrue();
+    }
+
+    @Test
+    public void cancellationIsCheckedBeforeSelectiveFilter() {
+        CancellationToken token = new CancellationToken();
+        AtomicInteger visited = new AtomicInteger();
+
+        assertThatExceptionOfType(CancellationException.class).isThrownBy(() ->
+            ((ParallelIntStream) ParallelIntStream.range(0, Integer.MAX_VALUE, this.workerPool)
+                .filter(i -> {
+                    if (visited.incrementAndGet() == 10_000) {
+                        token.cancel();
+                    }
+                    return false;
+                }))
+                .withCancellation(token)
+                .findAny());
+        assertThat(visited.get()).isLessThan(100_000);
+    }
+
+    @Test
+    public void sourceIsTraversedInBulkUntilCancellable() {
+        CountingSpliterator plain = new CountingSpliterator(10_000);
+        assertThat(ParallelStream.submit(plain, this.workerPool).map(i -> i + 1).count()).isEqualTo(10_000);
+        assertThat(plain.advanced).isZero();
+
+        CountingSpliterator cancellable = new CountingSpliterator(10_000);
+        assertThat(((ParallelStream<Integer>) ParallelStream.submit(cancellable, this.workerPool))
+            .withCancellation(new CancellationToken())
+            .map(i -> i + 1)
+            .count()).isEqualTo(10_000);
+        assertThat(cancellable.advanced).isEqualTo(10_001);
+    }
+
+    @Test
+    public void cancelAsyncTerminalOperationKeepsSharedToken() throws Exception {
+        CancellationToken shared = new CancellationToken();
+        CountDownLatch started = new CountDownLatch(1);
+
+        CompletableFuture<Long> cancelled = ((ParallelLongStream) ((ParallelLongStream) ParallelLongStream.range(0, Long.MAX_VALUE, this.workerPool))
+            .withCancellation(shared)
+            .peek(i -> started.countDown()))
+            .reduceAsync(0L, Long::sum);
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(cancelled.cancel(true)).isTrue();
+
+        assertThat(shared.isCancelled()).isFalse();
+        assertThat(range(10).withCancellation(shared).map(i -> i * 2).reduce(0, Integer::sum)).isEqualTo(90);
+    }
+
+    private static final class CountingSpliterator implements Spliterator<Integer> {
+        private final int size;
+        private int next;
+        private int advanced;
+
+        CountingSpliterator(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Integer> action) {
+            this.advanced++;
+            if (this.next >= this.size) {
+                return false;
+            }
+            action.accept(this.next++);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Integer> action) {
+            while (this.next < this.size) {
+                action.accept(this.next++);
+            }
+        }
+
+        @Override
+        public Spliterator<Integer> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.size - this.next;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED;
+        }
+    }
+}
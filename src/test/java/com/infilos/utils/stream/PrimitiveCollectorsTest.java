@@ -0,0 +1,94 @@
+package com.infilos.utils.stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PrimitiveCollectorsTest {
+
+    private ForkJoinPool workerPool;
+
+    @Before
+    public void before() {
+        this.workerPool = new ForkJoinPool(4);
+    }
+
+    @After
+    public void after() {
+        this.workerPool.shutdown();
+    }
+
+    @Test
+    public void arrayBuilderKeepsEncounterOrder() {
+        IntArrayBuilder builder = ParallelIntStream.range(0, 100_000, this.workerPool)
+            .collect(IntArrayBuilder::new, IntArrayBuilder::add, IntArrayBuilder::addAll);
+
+        assertThat(builder.size()).isEqualTo(100_000);
+        assertThat(builder.toArray()).isEqualTo(IntStream.range(0, 100_000).toArray());
+
+        LongArrayBuilder small = new LongArrayBuilder();
+        small.add(1);
+        LongArrayBuilder large = new LongArrayBuilder();
+        LongStream.range(2, 1_000).forEach(large::add);
+        small.addAll(large);
+        small.add(1_000);
+
+        assertThat(large.isEmpty()).isTrue();
+        assertThat(small.toArray()).isEqualTo(LongStream.rangeClosed(1, 1_000).toArray());
+    }
+
+    @Test
+    public void countsByValue() {
+        long[] values = new Random(7).longs(50_000, -100, 100).toArray();
+        LongCounts counts = ((ParallelLongStream) ParallelLongStream.submit(values, this.workerPool)).countByValue();
+
+        assertThat(counts.total()).isEqualTo(50_000);
+        assertThat(counts.size()).isEqualTo((int) LongStream.of(values).distinct().count());
+        assertThat(counts.get(0)).isEqualTo(LongStream.of(values).filter(v -> v == 0).count());
+        assertThat(counts.get(42)).isEqualTo(LongStream.of(values).filter(v -> v == 42).count());
+        assertThat(counts.get(1_000)).isZero();
+        assertThat(counts.toMap().values().stream().mapToLong(Long::longValue).sum()).isEqualTo(50_000);
+    }
+
+    @Test
+    public void topKAndHistogram() {
+        int[] values = new Random(11).ints(20_000, 0, 1_000_000).toArray();
+
+        assertThat(((ParallelIntStream) ParallelIntStream.submit(values, this.workerPool)).topK(5))
+            .isEqualTo(IntStream.of(values).boxed().sorted((a, b) -> b - a).limit(5).mapToInt(Integer::intValue).toArray());
+
+        LongHistogram histogram = ((ParallelLongStream) ParallelLongStream.range(0, 1_000, this.workerPool)).histogram(0, 500, 10);
+        assertThat(histogram.count()).isEqualTo(1_000);
+        assertThat(histogram.overflow()).isEqualTo(500);
+        assertThat(histogram.countAt(0)).isEqualTo(50);
+        assertThat(histogram.lowerBound(9)).isEqualTo(450);
+        assertThat(histogram.percentile(10)).isEqualTo(99);
+        assertThat(histogram.percentile(100)).isEqualTo(999);
+    }
+
+    @Test
+    public void histogramHasRequestedBuckets() {
+        LongHistogram uneven = new LongHistogram(0, 10, 6);
+        LongStream.range(0, 10).forEach(uneven::add);
+        assertThat(uneven.buckets()).isEqualTo(6);
+        for (int bucket = 0; bucket < 6; bucket++) {
+            assertThat(uneven.countAt(bucket)).isEqualTo(uneven.upperBound(bucket) - uneven.lowerBound(bucket)).isBetween(1L, 2L);
+        }
+
+        LongHistogram wide = new LongHistogram(Long.MIN_VALUE / 2, Long.MAX_VALUE / 2, 1_000);
+        assertThat(wide.buckets()).isEqualTo(1_000);
+        for (int bucket = 0; bucket < 1_000; bucket++) {
+            wide.add(wide.lowerBound(bucket));
+            wide.add(wide.upperBound(bucket) - 1);
+            assertThat(wide.countAt(bucket)).isEqualTo(2);
+        }
+        assertThat(wide.upperBound(999)).isEqualTo(Long.MAX_VALUE / 2);
+    }
+}
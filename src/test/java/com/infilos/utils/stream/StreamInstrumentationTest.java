@@ -0,0 +1,91 @@
+package com.infilos.utils.stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StreamInstrumentationTest {
+
+    private ForkJoinPool workerPool;
+
+    @Before
+    public void before() {
+        this.workerPool = new ForkJoinPool(4);
+    }
+
+    @After
+    public void after() {
+        this.workerPool.shutdown();
+    }
+
+    @Test
+    public void recordsStagesAndTerminal() {
+        StreamInstrumentation instrumentation = new StreamInstrumentation(1);
+        List<String> result = ((ParallelStream<Integer>) ParallelStream.submit(IntStream.range(0, 2_000).boxed().collect(Collectors.toList()), this.workerPool))
+            .withInstrumentation(instrumentation)
+            .filter(i -> i % 2 == 0)
+            .map(i -> {
+                busy(20_000);
+                return i;
+            })
+            .mapToInt(Integer::intValue)
+            .sorted()
+            .mapToObj(String::valueOf)
+            .collect(Collectors.toList());
+
+        assertThat(result).hasSize(1_000);
+
+        StreamReport report = instrumentation.report();
+        assertThat(report.getStages()).extracting(StreamReport.Stage::getName)
+            .containsExactly("source", "filter", "map", "mapToInt", "sorted", "mapToObj");
+        assertThat(report.getStages()).extracting(StreamReport.Stage::getCount)
+            .containsExactly(2_000L, 1_000L, 1_000L, 1_000L, 1_000L, 1_000L);
+        assertThat(report.getStages().get(4).isStateful()).isTrue();
+        assertThat(report.getHottestStage().getName()).isEqualTo("map");
+
+        assertThat(report.getTerminals()).hasSize(1);
+        StreamReport.Terminal terminal = report.getTerminals().get(0);
+        assertThat(terminal.isParallel()).isTrue();
+        assertThat(terminal.isFailed()).isFalse();
+        assertThat(terminal.getParallelism()).isEqualTo(4);
+        assertThat(terminal.getElapsed()).isPositive();
+        assertThat(report.toString()).contains("stage 2 map{count=1000");
+    }
+
+    @Test
+    public void samplesOneOfEveryElements() {
+        StreamInstrumentation instrumentation = new StreamInstrumentation(10);
+        long count = ParallelIntStream.range(0, 1_000, this.workerPool).sequential()
+            .map(i -> i + 1)
+            .filter(i -> true)
+            .count();
+
+        assertThat(count).isEqualTo(1_000);
+        assertThat(instrumentation.report().getStages()).isEmpty();
+
+        ((ParallelIntStream) ParallelIntStream.range(0, 1_000, this.workerPool)).withInstrumentation(instrumentation)
+            .sequential()
+            .map(i -> i + 1)
+            .forEach(i -> {
+            });
+
+        StreamReport.Stage map = instrumentation.report().getStages().get(1);
+        assertThat(map.getCount()).isEqualTo(1_000);
+        assertThat(map.getSampledCount()).isEqualTo(100);
+        assertThat(instrumentation.report().getTerminals().get(0).isParallel()).isFalse();
+    }
+
+    private static void busy(long nanos) {
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < nanos) {
+            Thread.yield();
+        }
+    }
+}
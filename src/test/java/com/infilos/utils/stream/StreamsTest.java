@@ -0,0 +1,250 @@
+package com.infilos.utils.stream;
+
+import com.infilos.utils.DataSize;
+import com.infilos.utils.io.Serializer;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class StreamsTest {
+
+    private static List<Integer> range(int size) {
+        return IntStream.range(0, size).boxed().collect(Collectors.toList());
+    }
+
+    @Test
+    public void chunkedSequential() {
+        assertThat(Streams.chunked(Stream.of(1, 2, 3, 4, 5), 2).collect(Collectors.toList()))
+            .containsExactly(Arrays.asList(1, 2), Arrays.asList(3, 4), Arrays.asList(5));
+        assertThat(Streams.chunked(Stream.empty(), 3).count()).isZero();
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> Streams.chunked(Stream.of(1), 0));
+    }
+
+    @Test
+    public void chunkedParallelKeepsChunksOfSizedSource() {
+        List<List<Integer>> sequential = Streams.chunked(range(10_007).stream(), 64).collect(Collectors.toList());
+        List<List<Integer>> parallel = Streams.chunked(range(10_007).parallelStream(), 64).collect(Collectors.toList());
+
+        assertThat(parallel).isEqualTo(sequential);
+        assertThat(parallel).hasSize(157);
+        assertThat(Streams.chunked(range(10_007).parallelStream(), 64).count()).isEqualTo(157);
+    }
+
+    @Test
+    public void chunkedParallelUnsizedSourceKeepsAllElements() {
+        List<Integer> flattened = Streams.chunked(Stream.iterate(0, i -> i + 1).limit(5_000).parallel(), 7)
+            .peek(chunk -> assertThat(chunk).hasSizeBetween(1, 7))
+            .flatMap(List::stream)
+            .collect(Collectors.toList());
+
+        assertThat(flattened).isEqualTo(range(5_000));
+    }
+
+    @Test
+    public void chunkedPrimitives() {
+        assertThat(Streams.chunked(IntStream.range(0, 5), 2).collect(Collectors.toList()))
+            .containsExactly(new int[]{0, 1}, new int[]{2, 3}, new int[]{4});
+        assertThat(Streams.chunked(LongStream.range(0, 100_000).parallel(), 1000).mapToLong(chunk -> chunk[0]).sum())
+            .isEqualTo(LongStream.range(0, 100).map(i -> i * 1000).sum());
+    }
+
+    @Test
+    public void chunkedKeepsParallelStreamWorkerPool() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            Stream<List<Integer>> chunks = Streams.chunked(ParallelStream.submit(range(100), pool), 10);
+
+            assertThat(chunks).isInstanceOf(ParallelStream.class);
+            assertThat(chunks.map(List::size).collect(Collectors.toList())).containsOnly(10).hasSize(10);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void linesSplitsMappedFileOnLineBoundaries() throws Exception {
+        Path file = Files.createTempFile("streams-lines", ".log");
+        try {
+            List<String> expected = IntStream.range(0, 200_000)
+                .mapToObj(i -> i % 7 == 0 ? "" : "line-" + i + "-\u00e9\u4e2d")
+                .collect(Collectors.toList());
+            Files.write(file, expected, StandardCharsets.UTF_8);
+
+            try (Stream<String> lines = Streams.lines(file, StandardCharsets.UTF_8)) {
+                assertThat(lines.isParallel()).isTrue();
+                assertThat(lines.collect(Collectors.toList())).isEqualTo(expected);
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(4);
+            try (Stream<String> lines = Streams.lines(file, StandardCharsets.UTF_8, pool)) {
+                assertThat(lines.filter(String::isEmpty).count()).isEqualTo(expected.stream().filter(String::isEmpty).count());
+            } finally {
+                pool.shutdown();
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void linesHandlesCarriageReturnAndMissingLastLineFeed() throws Exception {
+        Path file = Files.createTempFile("streams-lines", ".log");
+        try {
+            Files.write(file, "a\r\nb\n\nc".getBytes(StandardCharsets.US_ASCII));
+
+            try (Stream<String> lines = Streams.lines(file, StandardCharsets.US_ASCII)) {
+                assertThat(lines.collect(Collectors.toList())).containsExactly("a", "b", "", "c");
+            }
+            assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> Streams.lines(file, StandardCharsets.UTF_16));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void windowedSlidesAndTumbles() {
+        assertThat(Streams.windowed(Stream.of(1, 2, 3, 4, 5), 3, 1).collect(Collectors.toList()))
+            .containsExactly(Arrays.asList(1, 2, 3), Arrays.asList(2, 3, 4), Arrays.asList(3, 4, 5));
+        assertThat(Streams.windowed(Stream.of(1, 2, 3, 4, 5), 3, 2).collect(Collectors.toList()))
+            .containsExactly(Arrays.asList(1, 2, 3), Arrays.asList(3, 4, 5));
+        assertThat(Streams.windowed(Stream.of(1, 2, 3, 4, 5, 6, 7), 2, 3).collect(Collectors.toList()))
+            .containsExactly(Arrays.asList(1, 2), Arrays.asList(4, 5));
+        assertThat(Streams.windowed(Stream.of(1, 2), 3, 1).count()).isZero();
+        assertThat(Streams.tumbling(Stream.of(1, 2, 3), 2).collect(Collectors.toList()))
+            .containsExactly(Arrays.asList(1, 2), Arrays.asList(3));
+        assertThat(Streams.windowed(range(1_000).parallelStream(), 10, 1).map(window -> window.get(0)).collect(Collectors.toList()))
+            .isEqualTo(range(991));
+        assertThat(Streams.windowed(range(3_000).stream(), 2_000, 700).map(window -> window.get(1_999)).collect(Collectors.toList()))
+            .containsExactly(1_999, 2_699);
+    }
+
+    @Test
+    public void windowsKeepNullElements() {
+        assertThat(Streams.windowed(Stream.of(1, null, 3), 2, 1).collect(Collectors.toList()))
+            .containsExactly(Arrays.asList(1, null), Arrays.asList(null, 3));
+        assertThat(Streams.tumbling(Stream.of(1, null, 3), 2).collect(Collectors.toList()))
+            .containsExactly(Arrays.asList(1, null), Arrays.asList(3));
+    }
+
+    @Test
+    public void sessionsByGapAndCount() {
+        Stream<Long> events = Stream.of(0L, 100L, 150L, 1_000L, 1_050L, 5_000L);
+        assertThat(Streams.sessions(events, Long::longValue, Duration.ofMillis(200)).collect(Collectors.toList()))
+            .containsExactly(Arrays.asList(0L, 100L, 150L), Arrays.asList(1_000L, 1_050L), Arrays.asList(5_000L));
+
+        Stream<Long> capped = Stream.of(0L, 100L, 150L, 1_000L);
+        assertThat(Streams.sessions(capped, Long::longValue, Duration.ofMillis(200), 2).collect(Collectors.toList()))
+            .containsExactly(Arrays.asList(0L, 100L), Arrays.asList(150L), Arrays.asList(1_000L));
+
+        assertThat(Streams.sessions(Stream.of("a", "ab", "b", "ba"), (p, n) -> n.charAt(0) == p.charAt(0), 10).collect(Collectors.toList()))
+            .containsExactly(Arrays.asList("a", "ab"), Arrays.asList("b", "ba"));
+    }
+
+    @Test
+    public void windowedPrimitiveAggregates() {
+        assertThat(Streams.windowed(LongStream.rangeClosed(1, 6), 3, 1, LongWindow::sum).toArray())
+            .containsExactly(6, 9, 12, 15);
+        assertThat(Streams.windowed(LongStream.of(5, 1, 4, 2, 8), 2, 2, LongWindow::max).toArray())
+            .containsExactly(5, 4);
+        assertThat(Streams.windowed(DoubleStream.of(1, 2, 3, 4), 2, 1, DoubleWindow::average).toArray())
+            .containsExactly(1.5, 2.5, 3.5);
+        assertThat(Streams.windowed(DoubleStream.of(3, 1, 2), 3, 1, DoubleWindow::min).toArray())
+            .containsExactly(1.0);
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            LongStream sums = Streams.windowed(ParallelLongStream.range(1, 7, pool), 3, 1, LongWindow::sum);
+            assertThat(sums).isInstanceOf(ParallelLongStream.class);
+            assertThat(sums.sum()).isEqualTo(6 + 9 + 12 + 15);
+
+            DoubleStream averages = Streams.windowed(ParallelDoubleStream.submit(new double[]{1, 2, 3, 4}, pool), 2, 1, DoubleWindow::average);
+            assertThat(averages).isInstanceOf(ParallelDoubleStream.class);
+            assertThat(averages.toArray()).containsExactly(1.5, 2.5, 3.5);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void mergeSortedMergesLazily() {
+        List<Stream<Integer>> shards = Arrays.asList(
+            Stream.of(1, 4, 7, 10), Stream.empty(), Stream.of(2, 5, 8), Stream.of(3, 6, 9, 11, 12));
+        assertThat(Streams.mergeSorted(Comparator.naturalOrder(), shards).collect(Collectors.toList()))
+            .isEqualTo(IntStream.rangeClosed(1, 12).boxed().collect(Collectors.toList()));
+
+        AtomicInteger pulled = new AtomicInteger();
+        List<Stream<Integer>> infinite = Arrays.asList(
+            Stream.iterate(0, i -> i + 2).peek(i -> pulled.incrementAndGet()), Stream.iterate(1, i -> i + 2));
+        assertThat(Streams.mergeSorted(Comparator.<Integer>naturalOrder(), infinite).limit(5).collect(Collectors.toList()))
+            .containsExactly(0, 1, 2, 3, 4);
+        assertThat(pulled.get()).isLessThanOrEqualTo(4);
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            Stream<Integer> merged = Streams.mergeSorted(Comparator.reverseOrder(),
+                Arrays.asList(ParallelStream.submit(Arrays.asList(9, 5, 1), pool), Stream.of(8, 4), Stream.of(7, 3, 2)));
+            assertThat(merged).isInstanceOf(ParallelStream.class);
+            assertThat(merged.collect(Collectors.toList())).containsExactly(9, 8, 7, 5, 4, 3, 2, 1);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void zipPairsByPosition() {
+        assertThat(Streams.zip(Stream.of("a", "b", "c"), Stream.of(1, 2), (s, i) -> s + i).collect(Collectors.toList()))
+            .containsExactly("a1", "b2");
+
+        Stream<Integer> zipped = Streams.zip(range(10_000).parallelStream(), range(10_000).stream(), Integer::sum);
+        assertThat(zipped.spliterator().getExactSizeIfKnown()).isEqualTo(10_000);
+        assertThat(Streams.zip(range(10_000).parallelStream(), range(10_000).stream(), Integer::sum).collect(Collectors.toList()))
+            .isEqualTo(IntStream.range(0, 10_000).map(i -> i * 2).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void externalSortSpillsRuns() {
+        List<Long> values = new Random(3).longs(50_000, 0, 1_000).boxed().collect(Collectors.toList());
+        List<Long> expected = values.stream().sorted().collect(Collectors.toList());
+
+        try (Stream<Long> sorted = Streams.externalSort(values.stream(), Comparator.naturalOrder(), Serializer.ofLong(), DataSize.parse("64kB"))) {
+            assertThat(sorted.collect(Collectors.toList())).isEqualTo(expected);
+        }
+        assertThat(Streams.externalSort(values.stream(), Comparator.naturalOrder(), Serializer.ofLong(), DataSize.parse("64MB"))
+            .collect(Collectors.toList())).isEqualTo(expected);
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertThat(Streams.externalSort(values.stream(), Comparator.naturalOrder(), Serializer.ofLong(), DataSize.parse("32kB"), pool)
+                .collect(Collectors.toList())).isEqualTo(expected);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void externalSortIsStable() {
+        List<String> words = IntStream.range(0, 20_000).mapToObj(i -> Integer.toString(i, 7)).collect(Collectors.toList());
+        Comparator<String> byLength = Comparator.comparingInt(String::length);
+
+        assertThat(Streams.externalSort(words.stream(), byLength, Serializer.ofString(), DataSize.parse("16kB"))
+            .collect(Collectors.toList())).isEqualTo(words.stream().sorted(byLength).collect(Collectors.toList()));
+    }
+}